@@ -0,0 +1,19 @@
+@echo off
+echo ========================================
+echo Migrating RealEditor analytics tables
+echo ========================================
+echo.
+echo This converts the pos, lemmatization, rootextraction, stemmation,
+echo wordsegementation, pkl and pmi tables to the token dictionary schema
+echo and drops the old tables. It then rebuilds the TF-IDF document
+echo frequencies, document vectors and corpus PMI counts from the stored pages.
+echo Back up the database before continuing.
+echo.
+pause
+
+cd /d "%~dp0"
+
+java -cp "bin;bin\mariadb-java-client-3.4.1.jar;bin\log4j-api-2.20.0.jar;bin\log4j-core-2.20.0.jar;bin\AlKhalilMorphoSys2.jar" dal.TokenSchemaMigration
+
+echo.
+pause
@@ -39,118 +39,154 @@ ENGINE=InnoDB
 AUTO_INCREMENT=32
 ;
 
-CREATE TABLE `lemmatization` (
-	`id` INT(11) NOT NULL AUTO_INCREMENT,
-	`pageId` INT(11) NOT NULL,
-	`word` LONGTEXT NOT NULL COLLATE 'utf8mb4_general_ci',
-	`lemma` LONGTEXT NULL DEFAULT NULL COLLATE 'utf8mb4_general_ci',
-	PRIMARY KEY (`id`) USING BTREE,
-	UNIQUE INDEX `page_id` (`id`, `pageId`) USING BTREE,
-	INDEX `lemmatization_ibfk_1` (`pageId`) USING BTREE,
-	CONSTRAINT `lemmatization_ibfk_1` FOREIGN KEY (`pageId`) REFERENCES `pages` (`pageId`) ON UPDATE RESTRICT ON DELETE CASCADE
+CREATE TABLE `tokens` (
+	`tokenId` INT(11) NOT NULL AUTO_INCREMENT,
+	`surface` VARCHAR(768) NOT NULL COLLATE 'utf8mb4_bin',
+	PRIMARY KEY (`tokenId`) USING BTREE,
+	UNIQUE INDEX `surface` (`surface`) USING BTREE
 )
 COLLATE='utf8mb4_general_ci'
 ENGINE=InnoDB
-AUTO_INCREMENT=14573
 ;
 
-CREATE TABLE `pos` (
-	`id` INT(11) NOT NULL AUTO_INCREMENT,
-	`pageId` INT(11) NOT NULL,
-	`word` LONGTEXT NOT NULL COLLATE 'utf8mb4_general_ci',
-	`pos` LONGTEXT NULL DEFAULT NULL COLLATE 'utf8mb4_general_ci',
-	PRIMARY KEY (`id`) USING BTREE,
-	UNIQUE INDEX `page_id` (`id`, `pageId`) USING BTREE,
-	INDEX `pos_ibfk_1` (`pageId`) USING BTREE,
-	CONSTRAINT `pos_ibfk_1` FOREIGN KEY (`pageId`) REFERENCES `pages` (`pageId`) ON UPDATE RESTRICT ON DELETE CASCADE
+CREATE TABLE `token_analysis` (
+	`tokenId` INT(11) NOT NULL,
+	`pos` TEXT NULL DEFAULT NULL COLLATE 'utf8mb4_general_ci',
+	`lemma` TEXT NULL DEFAULT NULL COLLATE 'utf8mb4_general_ci',
+	`root` TEXT NULL DEFAULT NULL COLLATE 'utf8mb4_general_ci',
+	`stem` TEXT NULL DEFAULT NULL COLLATE 'utf8mb4_general_ci',
+	`segment` TEXT NULL DEFAULT NULL COLLATE 'utf8mb4_general_ci',
+	PRIMARY KEY (`tokenId`) USING BTREE,
+	CONSTRAINT `token_analysis_ibfk_1` FOREIGN KEY (`tokenId`) REFERENCES `tokens` (`tokenId`) ON UPDATE RESTRICT ON DELETE CASCADE
 )
 COLLATE='utf8mb4_general_ci'
 ENGINE=InnoDB
-AUTO_INCREMENT=613
 ;
 
-CREATE TABLE `rootextraction` (
-	`id` INT(11) NOT NULL AUTO_INCREMENT,
+CREATE TABLE `page_tokens` (
 	`pageId` INT(11) NOT NULL,
-	`word` LONGTEXT NOT NULL COLLATE 'utf8mb4_general_ci',
-	`root` LONGTEXT NULL DEFAULT NULL COLLATE 'utf8mb4_general_ci',
-	PRIMARY KEY (`id`) USING BTREE,
-	UNIQUE INDEX `page_id` (`id`, `pageId`) USING BTREE,
-	INDEX `rootExtraction_ibfk_1` (`pageId`) USING BTREE,
-	CONSTRAINT `rootExtraction_ibfk_1` FOREIGN KEY (`pageId`) REFERENCES `pages` (`pageId`) ON UPDATE RESTRICT ON DELETE CASCADE
+	`tokenId` INT(11) NOT NULL,
+	PRIMARY KEY (`pageId`, `tokenId`) USING BTREE,
+	INDEX `page_tokens_token` (`tokenId`) USING BTREE,
+	CONSTRAINT `page_tokens_ibfk_1` FOREIGN KEY (`pageId`) REFERENCES `pages` (`pageId`) ON UPDATE RESTRICT ON DELETE CASCADE,
+	CONSTRAINT `page_tokens_ibfk_2` FOREIGN KEY (`tokenId`) REFERENCES `tokens` (`tokenId`) ON UPDATE RESTRICT ON DELETE RESTRICT
 )
 COLLATE='utf8mb4_general_ci'
 ENGINE=InnoDB
-AUTO_INCREMENT=14506
 ;
 
-CREATE TABLE `stemmation` (
-	`id` INT(11) NOT NULL AUTO_INCREMENT,
+CREATE TABLE `page_pkl` (
 	`pageId` INT(11) NOT NULL,
-	`word` LONGTEXT NOT NULL COLLATE 'utf8mb4_general_ci',
-	`stem` LONGTEXT NULL DEFAULT NULL COLLATE 'utf8mb4_general_ci',
-	PRIMARY KEY (`id`) USING BTREE,
-	UNIQUE INDEX `page_id` (`id`, `pageId`) USING BTREE,
-	INDEX `stemmation_ibfk_1` (`pageId`) USING BTREE,
-	CONSTRAINT `stemmation_ibfk_1` FOREIGN KEY (`pageId`) REFERENCES `pages` (`pageId`) ON UPDATE RESTRICT ON DELETE CASCADE
+	`tokenId` INT(11) NOT NULL,
+	`leftTokenId` INT(11) NOT NULL,
+	`rightTokenId` INT(11) NOT NULL,
+	`pklScore` DOUBLE NOT NULL DEFAULT '0',
+	PRIMARY KEY (`pageId`, `tokenId`, `leftTokenId`, `rightTokenId`) USING BTREE,
+	INDEX `page_pkl_token` (`tokenId`) USING BTREE,
+	CONSTRAINT `page_pkl_ibfk_1` FOREIGN KEY (`pageId`) REFERENCES `pages` (`pageId`) ON UPDATE RESTRICT ON DELETE CASCADE
 )
 COLLATE='utf8mb4_general_ci'
 ENGINE=InnoDB
-AUTO_INCREMENT=14460
 ;
 
-CREATE TABLE `wordsegementation` (
-	`id` INT(11) NOT NULL AUTO_INCREMENT,
+CREATE TABLE `page_pmi` (
 	`pageId` INT(11) NOT NULL,
-	`word` LONGTEXT NOT NULL COLLATE 'utf8mb4_general_ci',
-	`segment` LONGTEXT NULL DEFAULT NULL COLLATE 'utf8mb4_general_ci',
-	PRIMARY KEY (`id`) USING BTREE,
-	UNIQUE INDEX `page_id` (`id`, `pageId`) USING BTREE,
-	INDEX `wordSegementation_ibfk_1` (`pageId`) USING BTREE,
-	CONSTRAINT `wordSegementation_ibfk_1` FOREIGN KEY (`pageId`) REFERENCES `pages` (`pageId`) ON UPDATE RESTRICT ON DELETE CASCADE
+	`firstTokenId` INT(11) NOT NULL,
+	`secondTokenId` INT(11) NOT NULL,
+	`pmiScore` DOUBLE NOT NULL DEFAULT '0',
+	PRIMARY KEY (`pageId`, `firstTokenId`, `secondTokenId`) USING BTREE,
+	INDEX `page_pmi_bigram` (`firstTokenId`, `secondTokenId`) USING BTREE,
+	CONSTRAINT `page_pmi_ibfk_1` FOREIGN KEY (`pageId`) REFERENCES `pages` (`pageId`) ON UPDATE RESTRICT ON DELETE CASCADE
 )
 COLLATE='utf8mb4_general_ci'
 ENGINE=InnoDB
-AUTO_INCREMENT=14475
 ;
 
-CREATE TABLE `pkl` (
-	`id` INT(11) NOT NULL AUTO_INCREMENT,
-	`pageId` INT(11) NOT NULL,
-	`word` LONGTEXT NOT NULL COLLATE 'utf8mb4_general_ci',
-	`pklScore` DOUBLE NOT NULL DEFAULT '0',
-	PRIMARY KEY (`id`) USING BTREE,
-	UNIQUE INDEX `page_id` (`id`, `pageId`) USING BTREE,
-	INDEX `pkl_ibfk_1` (`pageId`) USING BTREE,
-	CONSTRAINT `pkl_ibfk_1` FOREIGN KEY (`pageId`) REFERENCES `pages` (`pageId`) ON UPDATE RESTRICT ON DELETE CASCADE
+CREATE TABLE `tfidf` (
+	`tfidfId` INT(11) NOT NULL AUTO_INCREMENT,
+	`fileId` INT(11) NOT NULL,
+	`tfidfScore` DOUBLE NOT NULL DEFAULT '0',
+	PRIMARY KEY (`tfidfId`) USING BTREE,
+	INDEX `tfidf_fk` (`fileId`) USING BTREE,
+	CONSTRAINT `tfidf_fk` FOREIGN KEY (`fileId`) REFERENCES `files` (`fileid`) ON UPDATE RESTRICT ON DELETE CASCADE
 )
 COLLATE='utf8mb4_general_ci'
 ENGINE=InnoDB
-AUTO_INCREMENT=14394
+AUTO_INCREMENT=14517
 ;
-CREATE TABLE `pmi` (
-	`id` INT(11) NOT NULL AUTO_INCREMENT,
-	`pageId` INT(11) NOT NULL,
-	`word` LONGTEXT NOT NULL COLLATE 'utf8mb4_general_ci',
-	`pmiScore` DOUBLE NOT NULL DEFAULT '0',
-	PRIMARY KEY (`id`) USING BTREE,
-	UNIQUE INDEX `page_id` (`id`, `pageId`) USING BTREE,
-	INDEX `pmi_ibfk_1` (`pageId`) USING BTREE,
-	CONSTRAINT `pmi_ibfk_1` FOREIGN KEY (`pageId`) REFERENCES `pages` (`pageId`) ON UPDATE RESTRICT ON DELETE CASCADE
+
+CREATE TABLE `document_terms` (
+	`fileId` INT(11) NOT NULL,
+	`tokenId` INT(11) NOT NULL,
+	`termCount` INT(11) NOT NULL,
+	PRIMARY KEY (`fileId`, `tokenId`) USING BTREE,
+	INDEX `document_terms_token` (`tokenId`) USING BTREE,
+	CONSTRAINT `document_terms_ibfk_1` FOREIGN KEY (`fileId`) REFERENCES `files` (`fileid`) ON UPDATE RESTRICT ON DELETE CASCADE,
+	CONSTRAINT `document_terms_ibfk_2` FOREIGN KEY (`tokenId`) REFERENCES `tokens` (`tokenId`) ON UPDATE RESTRICT ON DELETE RESTRICT
 )
 COLLATE='utf8mb4_general_ci'
 ENGINE=InnoDB
-AUTO_INCREMENT=14386
 ;
-CREATE TABLE `tfidf` (
-	`tfidfId` INT(11) NOT NULL AUTO_INCREMENT,
+
+CREATE TABLE `document_frequency` (
+	`tokenId` INT(11) NOT NULL,
+	`df` INT(11) NOT NULL DEFAULT '0',
+	PRIMARY KEY (`tokenId`) USING BTREE,
+	CONSTRAINT `document_frequency_ibfk_1` FOREIGN KEY (`tokenId`) REFERENCES `tokens` (`tokenId`) ON UPDATE RESTRICT ON DELETE RESTRICT
+)
+COLLATE='utf8mb4_general_ci'
+ENGINE=InnoDB
+;
+
+CREATE TABLE `corpus_stats` (
+	`statName` VARCHAR(64) NOT NULL COLLATE 'utf8mb4_general_ci',
+	`statValue` BIGINT(20) NOT NULL DEFAULT '0',
+	PRIMARY KEY (`statName`) USING BTREE
+)
+COLLATE='utf8mb4_general_ci'
+ENGINE=InnoDB
+;
+
+CREATE TABLE `document_vectors` (
 	`fileId` INT(11) NOT NULL,
-	`tfidfScore` DOUBLE NOT NULL DEFAULT '0',
-	PRIMARY KEY (`tfidfId`) USING BTREE,
-	INDEX `tfidf_fk` (`fileId`) USING BTREE,
-	CONSTRAINT `tfidf_fk` FOREIGN KEY (`fileId`) REFERENCES `files` (`fileid`) ON UPDATE RESTRICT ON DELETE CASCADE
+	`tokenId` INT(11) NOT NULL,
+	`weight` DOUBLE NOT NULL,
+	PRIMARY KEY (`fileId`, `tokenId`) USING BTREE,
+	INDEX `document_vectors_postings` (`tokenId`, `fileId`, `weight`) USING BTREE,
+	CONSTRAINT `document_vectors_ibfk_1` FOREIGN KEY (`fileId`) REFERENCES `files` (`fileid`) ON UPDATE RESTRICT ON DELETE CASCADE
+)
+COLLATE='utf8mb4_general_ci'
+ENGINE=InnoDB
+;
+
+CREATE TABLE `document_norms` (
+	`fileId` INT(11) NOT NULL,
+	`norm` DOUBLE NOT NULL DEFAULT '0',
+	PRIMARY KEY (`fileId`) USING BTREE,
+	CONSTRAINT `document_norms_ibfk_1` FOREIGN KEY (`fileId`) REFERENCES `files` (`fileid`) ON UPDATE RESTRICT ON DELETE CASCADE
+)
+COLLATE='utf8mb4_general_ci'
+ENGINE=InnoDB
+;
+
+CREATE TABLE `corpus_unigrams` (
+	`tokenId` INT(11) NOT NULL,
+	`unigramCount` INT(11) NOT NULL DEFAULT '0',
+	PRIMARY KEY (`tokenId`) USING BTREE,
+	CONSTRAINT `corpus_unigrams_ibfk_1` FOREIGN KEY (`tokenId`) REFERENCES `tokens` (`tokenId`) ON UPDATE RESTRICT ON DELETE RESTRICT
+)
+COLLATE='utf8mb4_general_ci'
+ENGINE=InnoDB
+;
+
+CREATE TABLE `corpus_bigrams` (
+	`firstTokenId` INT(11) NOT NULL,
+	`secondTokenId` INT(11) NOT NULL,
+	`bigramCount` INT(11) NOT NULL DEFAULT '0',
+	PRIMARY KEY (`firstTokenId`, `secondTokenId`) USING BTREE,
+	CONSTRAINT `corpus_bigrams_ibfk_1` FOREIGN KEY (`firstTokenId`) REFERENCES `tokens` (`tokenId`) ON UPDATE RESTRICT ON DELETE RESTRICT,
+	CONSTRAINT `corpus_bigrams_ibfk_2` FOREIGN KEY (`secondTokenId`) REFERENCES `tokens` (`tokenId`) ON UPDATE RESTRICT ON DELETE RESTRICT
 )
 COLLATE='utf8mb4_general_ci'
 ENGINE=InnoDB
-AUTO_INCREMENT=14517
 ;
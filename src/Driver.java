@@ -2,6 +2,7 @@ import bll.EditorBO;
 import bll.FacadeBO;
 import bll.IFacadeBO;
 import dal.AbstractDAOEditorFactory;
+import dal.AnalyzerWarmup;
 import dal.FacadeDAO;
 import dal.IEditorDBDAO;
 import dal.IFacadeDAO;
@@ -13,6 +14,7 @@ public class Driver {
     }
 
     public static void main(String[] args) {
+    	AnalyzerWarmup.start();
 
     	IEditorDBDAO editorDAO = AbstractDAOEditorFactory.getInstance().createEditorDAO();
         IFacadeDAO facadeDAO = new FacadeDAO(editorDAO);
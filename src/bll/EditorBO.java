@@ -4,6 +4,7 @@ import java.io.BufferedReader;
 import java.io.File;
 import java.io.FileReader;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
@@ -11,15 +12,27 @@ import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
 
+import dal.ConfigProperties;
 import dal.IFacadeDAO;
 import dto.Documents;
 import dto.Pages;
+import dto.SearchHit;
+import dto.SimilarDocument;
 import pl.EditorPO;
 
 public class EditorBO implements IEditorBO {
 	private static final Logger LOGGER = LogManager.getLogger(EditorPO.class);
 
+	private static final long STREAMING_THRESHOLD_BYTES = ConfigProperties.getLong("import.streamingThresholdBytes",
+			4L * 1024 * 1024);
+	private static final int SEARCH_TOP_K = Math.max(1, ConfigProperties.getInt("search.topK", 50));
+
 	private IFacadeDAO db;
+	// Built from all pages on the first search, then kept current file by file
+	private final SearchIndex searchIndex = new SearchIndex(ConfigProperties.getDouble("search.bm25.k1", 1.2),
+			ConfigProperties.getDouble("search.bm25.b", 0.75));
+	// Only until the first search builds the index; changes before that are picked up by the build
+	private volatile boolean searchIndexStale = true;
 
 	public EditorBO(IFacadeDAO db) {
 		this.db = db;
@@ -28,7 +41,7 @@ public class EditorBO implements IEditorBO {
 	@Override
 	public boolean createFile(String nameOfFile, String content) {
 		try {
-			return db.createFileInDB(nameOfFile, content);
+			return indexNewFiles(db.createFileInDB(nameOfFile, content));
 		} catch (Exception e) {
 			e.printStackTrace();
 			LOGGER.error(e.getMessage());
@@ -39,7 +52,22 @@ public class EditorBO implements IEditorBO {
 	@Override
 	public boolean updateFile(int id, String fileName, int pageNumber, String content) {
 		try {
-			return db.updateFileInDB(id, fileName, pageNumber, content);
+			boolean updated = db.updateFileInDB(id, fileName, pageNumber, content);
+			if (updated && !searchIndexStale && !searchIndex.updatePage(id, pageNumber, content)) {
+				reindexFile(true, id);
+			}
+			return updated;
+		} catch (Exception e) {
+			e.printStackTrace();
+			LOGGER.error(e.getMessage());
+			return false;
+		}
+	}
+
+	@Override
+	public boolean rebalancePages(int fileId, int pageNumber) {
+		try {
+			return reindexFile(db.rebalancePagesInDB(fileId, pageNumber), fileId);
 		} catch (Exception e) {
 			e.printStackTrace();
 			LOGGER.error(e.getMessage());
@@ -50,7 +78,11 @@ public class EditorBO implements IEditorBO {
 	@Override
 	public boolean deleteFile(int id) {
 		try {
-			return db.deleteFileInDB(id);
+			boolean deleted = db.deleteFileInDB(id);
+			if (deleted) {
+				searchIndex.removeFile(id);
+			}
+			return deleted;
 		} catch (Exception e) {
 			e.printStackTrace();
 			LOGGER.error(e.getMessage());
@@ -65,6 +97,15 @@ public class EditorBO implements IEditorBO {
 		BufferedReader reader;
 		try {
 			reader = new BufferedReader(new FileReader(file));
+
+			// Large files are paginated and analyzed while they are read instead of being loaded first
+			if (file.length() > STREAMING_THRESHOLD_BYTES) {
+				try (BufferedReader streamed = reader) {
+					return indexNewFiles((fileExtension.equalsIgnoreCase("txt")
+							|| fileExtension.equalsIgnoreCase("md5")) && db.importFileInDB(fileName, streamed));
+				}
+			}
+
 			String line;
 
 			while ((line = reader.readLine()) != null) {
@@ -73,7 +114,7 @@ public class EditorBO implements IEditorBO {
 			reader.close();
 
 			if (fileExtension.equalsIgnoreCase("txt") || fileExtension.equalsIgnoreCase("md5")) {
-				return db.createFileInDB(fileName, fileContent.toString());
+				return indexNewFiles(db.createFileInDB(fileName, fileContent.toString()));
 			}
 		} catch (Exception e) {
 			e.printStackTrace();
@@ -93,6 +134,42 @@ public class EditorBO implements IEditorBO {
 		return null;
 	}
 
+	@Override
+	public List<SimilarDocument> findSimilarDocuments(int fileId, int k) {
+		if (k <= 0) {
+			return new ArrayList<>();
+		}
+		try {
+			return db.findSimilarDocumentsInDB(fileId, k);
+		} catch (Exception e) {
+			e.printStackTrace();
+			LOGGER.error(e.getMessage());
+			return new ArrayList<>();
+		}
+	}
+
+	@Override
+	public double getTfidfScore(int fileId) {
+		try {
+			return db.getTfidfScoreFromDB(fileId);
+		} catch (Exception e) {
+			e.printStackTrace();
+			LOGGER.error(e.getMessage());
+			return 0.0;
+		}
+	}
+
+	@Override
+	public Map<Integer, Double> getTfidfScores() {
+		try {
+			return db.getTfidfScoresFromDB();
+		} catch (Exception e) {
+			e.printStackTrace();
+			LOGGER.error(e.getMessage());
+			return new HashMap<>();
+		}
+	}
+
 	@Override
 	public String getFileExtension(String fileName) {
 		int lastIndexOfDot = fileName.lastIndexOf('.');
@@ -110,9 +187,59 @@ public class EditorBO implements IEditorBO {
 	}
 
 	@Override
-	public List<String> searchKeyword(String keyword) {
+	public List<SearchHit> searchKeyword(String keyword) {
+		return searchKeyword(keyword, SEARCH_TOP_K);
+	}
+
+	@Override
+	public List<SearchHit> searchKeyword(String keyword, int k) {
+		if (keyword.length() < 3) {
+			throw new IllegalArgumentException("Could not Search, Please Enter at least 3 letter to search");
+		}
+		if (searchIndexStale) {
+			synchronized (searchIndex) {
+				if (searchIndexStale) {
+					searchIndexStale = false;
+					searchIndex.rebuild(getAllFiles());
+				}
+			}
+		}
+		return searchIndex.search(keyword, k);
+	}
+
+	/**
+	 * Indexes the files the search index has not seen, which after a create or
+	 * import is the new file. Only file ids and that file's pages are read.
+	 */
+	private boolean indexNewFiles(boolean changed) {
+		if (changed && !searchIndexStale) {
+			synchronized (searchIndex) {
+				for (int fileId : db.getFileIdsFromDB()) {
+					if (!searchIndex.containsFile(fileId)) {
+						reindex(fileId);
+					}
+				}
+			}
+		}
+		return changed;
+	}
+
+	private boolean reindexFile(boolean changed, int fileId) {
+		if (changed && !searchIndexStale) {
+			synchronized (searchIndex) {
+				reindex(fileId);
+			}
+		}
+		return changed;
+	}
 
-		return SearchWord.searchKeyword(keyword, getAllFiles());
+	private void reindex(int fileId) {
+		Documents doc = db.getFileFromDB(fileId);
+		if (doc == null) {
+			searchIndex.removeFile(fileId);
+		} else {
+			searchIndex.putFile(doc);
+		}
 	}
 
 	@Override
@@ -144,6 +271,28 @@ public class EditorBO implements IEditorBO {
 		return db.performPMI(content);
 	}
 
+	@Override
+	public double getCorpusPMI(String word1, String word2) {
+		try {
+			return db.getCorpusPMIFromDB(word1, word2);
+		} catch (Exception e) {
+			e.printStackTrace();
+			LOGGER.error(e.getMessage());
+			return Double.NEGATIVE_INFINITY;
+		}
+	}
+
+	@Override
+	public Map<String, Double> getCorpusPMI(String content) {
+		try {
+			return db.getCorpusPMIFromDB(content);
+		} catch (Exception e) {
+			e.printStackTrace();
+			LOGGER.error(e.getMessage());
+			return new HashMap<>();
+		}
+	}
+
 	@Override
 	public Map<String, Double> performPKL(String content) {
 		return db.performPKL(content);
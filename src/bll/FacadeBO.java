@@ -5,6 +5,8 @@ import java.util.List;
 import java.util.Map;
 
 import dto.Documents;
+import dto.SearchHit;
+import dto.SimilarDocument;
 
 public class FacadeBO implements IFacadeBO {
 
@@ -26,6 +28,11 @@ public class FacadeBO implements IFacadeBO {
 		return bo.updateFile(id, fileName, pageNumber, content);
 	}
 
+	@Override
+	public boolean rebalancePages(int fileId, int pageNumber) {
+		return bo.rebalancePages(fileId, pageNumber);
+	}
+
 	@Override
 	public boolean deleteFile(int id) {
 		// TODO Auto-generated method stub
@@ -50,6 +57,21 @@ public class FacadeBO implements IFacadeBO {
 		return bo.getAllFiles();
 	}
 
+	@Override
+	public List<SimilarDocument> findSimilarDocuments(int fileId, int k) {
+		return bo.findSimilarDocuments(fileId, k);
+	}
+
+	@Override
+	public double getTfidfScore(int fileId) {
+		return bo.getTfidfScore(fileId);
+	}
+
+	@Override
+	public Map<Integer, Double> getTfidfScores() {
+		return bo.getTfidfScores();
+	}
+
 	@Override
 	public String getFileExtension(String fileName) {
 		// TODO Auto-generated method stub
@@ -62,10 +84,15 @@ public class FacadeBO implements IFacadeBO {
 	}
 
 	@Override
-	public List<String> searchKeyword(String keyword) {
+	public List<SearchHit> searchKeyword(String keyword) {
 		return bo.searchKeyword(keyword);
 	}
 
+	@Override
+	public List<SearchHit> searchKeyword(String keyword, int k) {
+		return bo.searchKeyword(keyword, k);
+	}
+
 	@Override
 	public Map<String, String> lemmatizeWords(String text) {
 		// TODO Auto-generated method stub
@@ -96,6 +123,16 @@ public class FacadeBO implements IFacadeBO {
 		return bo.performPMI(content);
 	}
 
+	@Override
+	public double getCorpusPMI(String word1, String word2) {
+		return bo.getCorpusPMI(word1, word2);
+	}
+
+	@Override
+	public Map<String, Double> getCorpusPMI(String content) {
+		return bo.getCorpusPMI(content);
+	}
+
 	@Override
 	public Map<String, Double> performPKL(String content) {
 		// TODO Auto-generated method stub
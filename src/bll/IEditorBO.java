@@ -5,12 +5,16 @@ import java.util.List;
 import java.util.Map;
 
 import dto.Documents;
+import dto.SearchHit;
+import dto.SimilarDocument;
 
 public interface IEditorBO {
 	boolean createFile(String nameOfFile, String content);
 
 	boolean updateFile(int id, String fileName, int pageNumber, String content);
 
+	boolean rebalancePages(int fileId, int pageNumber);
+
 	boolean deleteFile(int id);
 
 	boolean importTextFiles(File file, String fileName);
@@ -19,11 +23,19 @@ public interface IEditorBO {
 
 	List<Documents> getAllFiles();
 
+	List<SimilarDocument> findSimilarDocuments(int fileId, int k);
+
+	double getTfidfScore(int fileId);
+
+	Map<Integer, Double> getTfidfScores();
+
 	String getFileExtension(String fileName);
 
 	String transliterate(int pageId, String arabicText);
 
-	List<String> searchKeyword(String keyword);
+	List<SearchHit> searchKeyword(String keyword);
+
+	List<SearchHit> searchKeyword(String keyword, int k);
 
 	Map<String, String> lemmatizeWords(String text);
 
@@ -35,6 +47,10 @@ public interface IEditorBO {
 
 	Map<String, Double> performPMI(String content);
 
+	double getCorpusPMI(String word1, String word2);
+
+	Map<String, Double> getCorpusPMI(String content);
+
 	Map<String, Double> performPKL(String content);
 
 	Map<String, String> stemWords(String text);
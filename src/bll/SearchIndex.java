@@ -0,0 +1,332 @@
+package bll;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+
+import dto.Documents;
+import dto.Pages;
+import dto.SearchHit;
+import util.Harakat;
+import util.Tokenizer;
+
+/**
+ * In-memory inverted index over every page, ranked with BM25. Each posting
+ * holds a page slot and the term's frequency in that page, so a query only
+ * visits the pages containing one of its words and ranking k hits out of n
+ * matching pages costs O(n log k). Offsets are worked out for the returned
+ * hits only, by rescanning their pages.
+ * <p>
+ * Words are matched the way the old search matched them, whole
+ * whitespace-separated tokens ignoring case, and additionally ignoring
+ * harakat and surrounding punctuation. Pages and whole files can be replaced
+ * and files removed in place. All methods synchronize on the index.
+ */
+class SearchIndex {
+
+	private final double k1;
+	private final double b;
+
+	private final List<IndexedPage> pages = new ArrayList<>();
+	private final Deque<Integer> freeSlots = new ArrayDeque<>();
+	private final Map<Integer, Map<Integer, Integer>> slotsByFile = new HashMap<>();
+	private final Map<String, Postings> postings = new HashMap<>();
+	private long totalLength;
+	private int pageCount;
+
+	SearchIndex(double k1, double b) {
+		this.k1 = k1;
+		this.b = b;
+	}
+
+	private static final class IndexedPage {
+		final int fileId;
+		final String fileName;
+		final int pageId;
+		final int pageNumber;
+		final String content;
+		final Map<String, Integer> termCounts;
+		final int length;
+
+		IndexedPage(int fileId, String fileName, int pageId, int pageNumber, String content) {
+			this.fileId = fileId;
+			this.fileName = fileName;
+			this.pageId = pageId;
+			this.pageNumber = pageNumber;
+			this.content = content;
+			this.termCounts = new HashMap<>();
+			int words = 0;
+			Tokenizer tokenizer = new Tokenizer(content);
+			while (tokenizer.next()) {
+				String key = key(tokenizer.token());
+				if (!key.isEmpty()) {
+					termCounts.merge(key, 1, Integer::sum);
+					words++;
+				}
+			}
+			this.length = words;
+		}
+	}
+
+	/** Page slots and term frequencies of one term; removal swaps the last entry in. */
+	private static final class Postings {
+		int[] slots = new int[4];
+		int[] frequencies = new int[4];
+		int size;
+
+		void add(int slot, int frequency) {
+			if (size == slots.length) {
+				slots = Arrays.copyOf(slots, size * 2);
+				frequencies = Arrays.copyOf(frequencies, size * 2);
+			}
+			slots[size] = slot;
+			frequencies[size] = frequency;
+			size++;
+		}
+
+		void remove(int slot) {
+			for (int i = 0; i < size; i++) {
+				if (slots[i] == slot) {
+					size--;
+					slots[i] = slots[size];
+					frequencies[i] = frequencies[size];
+					return;
+				}
+			}
+		}
+	}
+
+	/** Replaces the whole index with the pages of {@code docs}. */
+	synchronized void rebuild(List<Documents> docs) {
+		pages.clear();
+		freeSlots.clear();
+		slotsByFile.clear();
+		postings.clear();
+		totalLength = 0;
+		pageCount = 0;
+		if (docs == null) {
+			return;
+		}
+		for (Documents doc : docs) {
+			for (Pages page : doc.getPages()) {
+				putPage(doc.getId(), doc.getName(), page.getPageId(), page.getPageNumber(), page.getPageContent());
+			}
+		}
+	}
+
+	synchronized void putPage(int fileId, String fileName, int pageId, int pageNumber, String content) {
+		removePage(fileId, pageNumber);
+		IndexedPage page = new IndexedPage(fileId, fileName, pageId, pageNumber, content == null ? "" : content);
+		int slot;
+		if (freeSlots.isEmpty()) {
+			slot = pages.size();
+			pages.add(page);
+		} else {
+			slot = freeSlots.pop();
+			pages.set(slot, page);
+		}
+		for (Map.Entry<String, Integer> entry : page.termCounts.entrySet()) {
+			postings.computeIfAbsent(entry.getKey(), key -> new Postings()).add(slot, entry.getValue());
+		}
+		slotsByFile.computeIfAbsent(fileId, id -> new HashMap<>()).put(pageNumber, slot);
+		totalLength += page.length;
+		pageCount++;
+	}
+
+	/**
+	 * New text for a page already in the index, keeping its pageId and file
+	 * name. Returns false when the page is not indexed.
+	 */
+	synchronized boolean updatePage(int fileId, int pageNumber, String content) {
+		Map<Integer, Integer> fileSlots = slotsByFile.get(fileId);
+		Integer slot = fileSlots == null ? null : fileSlots.get(pageNumber);
+		if (slot == null) {
+			return false;
+		}
+		IndexedPage old = pages.get(slot);
+		putPage(fileId, old.fileName, old.pageId, pageNumber, content);
+		return true;
+	}
+
+	/** Replaces every indexed page of the file with the pages of {@code doc}. */
+	synchronized void putFile(Documents doc) {
+		removeFile(doc.getId());
+		for (Pages page : doc.getPages()) {
+			putPage(doc.getId(), doc.getName(), page.getPageId(), page.getPageNumber(), page.getPageContent());
+		}
+	}
+
+	synchronized boolean containsFile(int fileId) {
+		return slotsByFile.containsKey(fileId);
+	}
+
+	synchronized void removeFile(int fileId) {
+		Map<Integer, Integer> fileSlots = slotsByFile.get(fileId);
+		if (fileSlots != null) {
+			for (int pageNumber : new ArrayList<>(fileSlots.keySet())) {
+				removePage(fileId, pageNumber);
+			}
+		}
+	}
+
+	private void removePage(int fileId, int pageNumber) {
+		Map<Integer, Integer> fileSlots = slotsByFile.get(fileId);
+		Integer slot = fileSlots == null ? null : fileSlots.remove(pageNumber);
+		if (slot == null) {
+			return;
+		}
+		if (fileSlots.isEmpty()) {
+			slotsByFile.remove(fileId);
+		}
+		IndexedPage page = pages.get(slot);
+		for (String term : page.termCounts.keySet()) {
+			Postings list = postings.get(term);
+			list.remove(slot);
+			if (list.size == 0) {
+				postings.remove(term);
+			}
+		}
+		pages.set(slot, null);
+		freeSlots.push(slot);
+		totalLength -= page.length;
+		pageCount--;
+	}
+
+	synchronized int size() {
+		return pageCount;
+	}
+
+	/** The {@code k} pages ranked highest by BM25 for the words of {@code query}, best first. */
+	synchronized List<SearchHit> search(String query, int k) {
+		Set<String> terms = queryTerms(query);
+		if (terms.isEmpty() || pageCount == 0 || k <= 0) {
+			return Collections.emptyList();
+		}
+
+		double averageLength = Math.max(1.0, totalLength / (double) pageCount);
+		double[] scores = new double[pages.size()];
+		int[] touched = new int[16];
+		int touchedCount = 0;
+		for (String term : terms) {
+			Postings list = postings.get(term);
+			if (list == null) {
+				continue;
+			}
+			double idf = idf(list.size, pageCount);
+			for (int i = 0; i < list.size; i++) {
+				int slot = list.slots[i];
+				if (scores[slot] == 0.0) {
+					if (touchedCount == touched.length) {
+						touched = Arrays.copyOf(touched, touchedCount * 2);
+					}
+					touched[touchedCount++] = slot;
+				}
+				scores[slot] += termScore(idf, list.frequencies[i], pages.get(slot).length, averageLength);
+			}
+		}
+
+		// Min-heap of the best k slots seen so far; ties go to the earlier file and page
+		PriorityQueue<Integer> heap = new PriorityQueue<>(k, (x, y) -> compare(x, y, scores));
+		for (int i = 0; i < touchedCount; i++) {
+			int slot = touched[i];
+			if (heap.size() < k) {
+				heap.add(slot);
+			} else if (compare(slot, heap.peek(), scores) > 0) {
+				heap.poll();
+				heap.add(slot);
+			}
+		}
+		List<Integer> ranked = new ArrayList<>(heap);
+		ranked.sort((x, y) -> compare(y, x, scores));
+
+		List<SearchHit> hits = new ArrayList<>(ranked.size());
+		for (int slot : ranked) {
+			hits.add(toHit(pages.get(slot), scores[slot], terms));
+		}
+		return hits;
+	}
+
+	private int compare(int slot, int other, double[] scores) {
+		int byScore = Double.compare(scores[slot], scores[other]);
+		if (byScore != 0) {
+			return byScore;
+		}
+		IndexedPage page = pages.get(slot);
+		IndexedPage otherPage = pages.get(other);
+		if (page.fileId != otherPage.fileId) {
+			return Integer.compare(otherPage.fileId, page.fileId);
+		}
+		return Integer.compare(otherPage.pageNumber, page.pageNumber);
+	}
+
+	/** BM25 IDF, always positive: ln(1 + (N - df + 0.5) / (df + 0.5)). */
+	static double idf(int documentFrequency, int pageCount) {
+		return Math.log(1 + (pageCount - documentFrequency + 0.5) / (documentFrequency + 0.5));
+	}
+
+	double termScore(double idf, int frequency, int length, double averageLength) {
+		double norm = k1 * (1 - b + b * length / averageLength);
+		return idf * frequency * (k1 + 1) / (frequency + norm);
+	}
+
+	private static SearchHit toHit(IndexedPage page, double score, Set<String> terms) {
+		int[] offsets = new int[8];
+		int count = 0;
+		String prefix = null;
+		int previousStart = -1;
+		int previousEnd = -1;
+		Tokenizer tokenizer = new Tokenizer(page.content);
+		while (tokenizer.next()) {
+			if (terms.contains(key(tokenizer.token()))) {
+				if (count == offsets.length) {
+					offsets = Arrays.copyOf(offsets, count * 2);
+				}
+				offsets[count++] = tokenizer.start();
+				offsets[count++] = tokenizer.end();
+				if (prefix == null) {
+					prefix = previousStart < 0 ? "" : page.content.substring(previousStart, previousEnd);
+				}
+			}
+			previousStart = tokenizer.start();
+			previousEnd = tokenizer.end();
+		}
+		return new SearchHit(page.fileId, page.fileName, page.pageId, page.pageNumber, score,
+				Arrays.copyOf(offsets, count), prefix == null ? "" : prefix);
+	}
+
+	/** Distinct index keys of the words in {@code query}, in query order. */
+	static Set<String> queryTerms(String query) {
+		Set<String> terms = new LinkedHashSet<>();
+		Tokenizer tokenizer = new Tokenizer(query);
+		while (tokenizer.next()) {
+			String key = key(tokenizer.token());
+			if (!key.isEmpty()) {
+				terms.add(key);
+			}
+		}
+		return terms;
+	}
+
+	/** A token as it is indexed: no harakat, no leading or trailing punctuation, lower case. */
+	static String key(String token) {
+		String word = Harakat.remove(token);
+		int start = 0;
+		int end = word.length();
+		while (start < end && !Character.isLetterOrDigit(word.charAt(start))) {
+			start++;
+		}
+		while (end > start && !Character.isLetterOrDigit(word.charAt(end - 1))) {
+			end--;
+		}
+		return word.substring(start, end).toLowerCase(Locale.ROOT);
+	}
+}
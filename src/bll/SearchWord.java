@@ -9,6 +9,7 @@ import org.apache.logging.log4j.Logger;
 import dto.Documents;
 import dto.Pages;
 import pl.EditorPO;
+import util.Tokenizer;
 
 public class SearchWord {
 	public static List<String> searchKeyword(String keyword, List<Documents> docs) {
@@ -24,20 +25,19 @@ public class SearchWord {
 				String pageContent = page.getPageContent();
 				if (pageContent.contains(keyword)) {
 
-					String[] words = pageContent.split("\\s+");
+					Tokenizer tokenizer = new Tokenizer(pageContent);
+					int prefixStart = 0;
+					int prefixEnd = 0;
 
-					for (int i = 0; i < words.length; i++) {
-						if (words[i].equalsIgnoreCase(keyword)) {
+					while (tokenizer.next()) {
+						if (tokenizer.tokenEquals(keyword, true)) {
 
-							String prefixWord;
-							if (i > 0) {
-								prefixWord = words[i - 1];
-							} else {
-								prefixWord = "";
-							}
+							String prefixWord = pageContent.substring(prefixStart, prefixEnd);
 							getFiles.add(doc.getName() + " - " + prefixWord + " " + keyword + "...");
 							break;
 						}
+						prefixStart = tokenizer.start();
+						prefixEnd = tokenizer.end();
 					}
 					break;
 				}
@@ -0,0 +1,108 @@
+package dal;
+
+import java.util.Arrays;
+
+/**
+ * Char trie over a fixed affix list, built once and matched without
+ * allocation. A reverse trie is built from the reversed affixes so suffixes
+ * are matched by walking the word from its end.
+ * <p>
+ * Stacked clitics are listed with {@code +} between their parts (for example
+ * {@code و+ال}); the trie matches the joined form and reports the parts
+ * separated by {@code -} so they line up with the rest of the segment.
+ */
+class AffixTrie {
+
+	private static final int ROOT = 0;
+
+	private final boolean reverse;
+	private char[][] labels = new char[16][];
+	private int[][] children = new int[16][];
+	private String[] terminals = new String[16];
+	private int[] depths = new int[16];
+	private int nodeCount = 1;
+
+	AffixTrie(String[] affixes, boolean reverse) {
+		this.reverse = reverse;
+		labels[ROOT] = new char[0];
+		children[ROOT] = new int[0];
+		for (String affix : affixes) {
+			add(affix.trim());
+		}
+	}
+
+	private void add(String affix) {
+		String joined = affix.replace("+", "");
+		if (joined.isEmpty()) {
+			return;
+		}
+		int node = ROOT;
+		for (int i = 0; i < joined.length(); i++) {
+			char c = joined.charAt(reverse ? joined.length() - 1 - i : i);
+			int child = child(node, c);
+			if (child < 0) {
+				child = newNode();
+				int size = labels[node].length;
+				labels[node] = Arrays.copyOf(labels[node], size + 1);
+				children[node] = Arrays.copyOf(children[node], size + 1);
+				labels[node][size] = c;
+				children[node][size] = child;
+			}
+			node = child;
+		}
+		terminals[node] = affix.replace('+', '-');
+		depths[node] = joined.length();
+	}
+
+	private int newNode() {
+		if (nodeCount == labels.length) {
+			labels = Arrays.copyOf(labels, nodeCount * 2);
+			children = Arrays.copyOf(children, nodeCount * 2);
+			terminals = Arrays.copyOf(terminals, nodeCount * 2);
+			depths = Arrays.copyOf(depths, nodeCount * 2);
+		}
+		labels[nodeCount] = new char[0];
+		children[nodeCount] = new int[0];
+		return nodeCount++;
+	}
+
+	private int child(int node, char c) {
+		char[] nodeLabels = labels[node];
+		for (int i = 0; i < nodeLabels.length; i++) {
+			if (nodeLabels[i] == c) {
+				return children[node][i];
+			}
+		}
+		return -1;
+	}
+
+	/**
+	 * Returns the node of the longest affix that fits within {@code maxLength}
+	 * chars of {@code word}, or -1 when no affix matches.
+	 */
+	int longestMatch(CharSequence word, int maxLength) {
+		int length = Math.min(maxLength, word.length());
+		int node = ROOT;
+		int best = -1;
+		for (int i = 0; i < length; i++) {
+			node = child(node, word.charAt(reverse ? word.length() - 1 - i : i));
+			if (node < 0) {
+				break;
+			}
+			if (terminals[node] != null) {
+				best = node;
+			}
+		}
+		return best;
+	}
+
+	/** Segment form of a matched affix, e.g. {@code و-ال}. */
+	String affixAt(int node) {
+		return terminals[node];
+	}
+
+	/** Number of word chars consumed by a matched affix. */
+	int lengthAt(int node) {
+		return depths[node];
+	}
+}
@@ -0,0 +1,217 @@
+package dal;
+
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import net.oujda_nlp_team.AlKhalil2Analyzer;
+import net.oujda_nlp_team.entity.ResultList;
+import pl.EditorPO;
+
+/**
+ * Bounds how long a caller waits for a single AlKhalil2Analyzer.processToken
+ * call. The analyzer singleton is not thread-safe, so calls from every
+ * analysis thread run one at a time on a single worker thread. A caller waits
+ * for its turn no longer than the budget (analysis.tokenTimeBudgetMs) and then
+ * skips its token, so nobody waits without a deadline.
+ * <p>
+ * A call that exceeds the budget is cancelled and the caller moves on, but the
+ * call keeps the analyzer until it really returns: no other call starts on the
+ * singleton meanwhile, and callers skip their tokens at once instead of
+ * queueing behind it. The worker thread is therefore never replaced and no
+ * threads pile up behind hung tokens.
+ * <p>
+ * A token whose analysis timed out or failed analysis.maxTokenFailures times
+ * is not sent to the analyzer again; tokens longer than
+ * analysis.maxTokenLength are skipped outright. Callers receive null for
+ * skipped tokens.
+ */
+class AnalyzerGuard {
+	private static final Logger LOGGER = LogManager.getLogger(EditorPO.class);
+	private static final int MAX_TRACKED_TOKENS = 10000;
+	private static final long WORKER_KEEP_ALIVE_SECONDS = 30;
+
+	private static final AnalyzerGuard DEFAULT = new AnalyzerGuard(
+			TimeUnit.MILLISECONDS.toNanos(ConfigProperties.getLong("analysis.tokenTimeBudgetMs", 2000)),
+			ConfigProperties.getInt("analysis.maxTokenLength", 64),
+			ConfigProperties.getInt("analysis.maxTokenFailures", 3));
+
+	private final long budgetNanos;
+	private final int maxTokenLength;
+	private final int maxFailures;
+	// One permit: held from submit until the call returns, even when its caller gave up
+	private final Semaphore analyzerFree = new Semaphore(1);
+	private final ExecutorService worker;
+	private final LatencyHistogram latency = new LatencyHistogram();
+	private final Map<String, Integer> failures = new ConcurrentHashMap<>();
+	private final AtomicLong skipped = new AtomicLong();
+	private final AtomicBoolean trackingFull = new AtomicBoolean();
+	private volatile boolean abandonedCallRunning;
+
+	AnalyzerGuard(long budgetNanos, int maxTokenLength, int maxFailures) {
+		this.budgetNanos = budgetNanos;
+		this.maxTokenLength = maxTokenLength;
+		this.maxFailures = Math.max(1, maxFailures);
+		ThreadPoolExecutor executor = new ThreadPoolExecutor(1, 1, WORKER_KEEP_ALIVE_SECONDS, TimeUnit.SECONDS,
+				new LinkedBlockingQueue<>(), runnable -> {
+					Thread thread = new Thread(runnable, "alkhalil-analyzer");
+					thread.setDaemon(true);
+					return thread;
+				});
+		executor.allowCoreThreadTimeOut(true);
+		this.worker = executor;
+	}
+
+	static ResultList processToken(AlKhalil2Analyzer analyzer, String token) {
+		return DEFAULT.run(token, () -> analyzer.processToken(token));
+	}
+
+	<T> T run(String token, Callable<T> call) {
+		if (token.length() > maxTokenLength || isBad(token) || abandonedCallRunning) {
+			skipped.incrementAndGet();
+			return null;
+		}
+
+		try {
+			if (!analyzerFree.tryAcquire(budgetNanos, TimeUnit.NANOSECONDS)) {
+				// Not the token's fault: it is skipped this time but not counted against it
+				skipped.incrementAndGet();
+				LOGGER.warn("Analyzer busy for " + TimeUnit.NANOSECONDS.toMillis(budgetNanos)
+						+ " ms, skipping token of length " + token.length() + ": " + token);
+				return null;
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			return null;
+		}
+
+		PendingCall pending = new PendingCall();
+		Future<T> future;
+		try {
+			future = worker.submit(() -> {
+				if (!pending.start()) {
+					return null;
+				}
+				long start = System.nanoTime();
+				try {
+					return call.call();
+				} finally {
+					latency.record(System.nanoTime() - start);
+					if (pending.finish()) {
+						abandonedCallRunning = false;
+						LOGGER.info("Timed-out token analysis returned after "
+								+ TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) + " ms");
+					}
+					analyzerFree.release();
+				}
+			});
+		} catch (RuntimeException e) {
+			analyzerFree.release();
+			throw e;
+		}
+
+		try {
+			return future.get(budgetNanos, TimeUnit.NANOSECONDS);
+		} catch (TimeoutException e) {
+			abandon(future, pending);
+			recordFailure(token, "exceeded " + TimeUnit.NANOSECONDS.toMillis(budgetNanos) + " ms budget");
+			return null;
+		} catch (ExecutionException e) {
+			recordFailure(token, "failed: " + e.getCause());
+			return null;
+		} catch (InterruptedException e) {
+			abandon(future, pending);
+			Thread.currentThread().interrupt();
+			return null;
+		}
+	}
+
+	private void abandon(Future<?> future, PendingCall pending) {
+		synchronized (pending) {
+			if (pending.state == PendingCall.QUEUED) {
+				// Never started and now never will, so the analyzer is free again
+				pending.state = PendingCall.DONE;
+				analyzerFree.release();
+			} else if (pending.state == PendingCall.RUNNING) {
+				pending.abandoned = true;
+				abandonedCallRunning = true;
+			}
+		}
+		future.cancel(true);
+	}
+
+	/** Lifecycle of one submitted call; the analyzer permit is released exactly once. */
+	private static final class PendingCall {
+		static final int QUEUED = 0;
+		static final int RUNNING = 1;
+		static final int DONE = 2;
+
+		int state = QUEUED;
+		boolean abandoned;
+
+		synchronized boolean start() {
+			if (state != QUEUED) {
+				return false;
+			}
+			state = RUNNING;
+			return true;
+		}
+
+		/** True if the caller gave up on this call while it ran. */
+		synchronized boolean finish() {
+			state = DONE;
+			return abandoned;
+		}
+	}
+
+	private boolean isBad(String token) {
+		Integer count = failures.get(token);
+		return count != null && count >= maxFailures;
+	}
+
+	private void recordFailure(String token, String reason) {
+		skipped.incrementAndGet();
+		Integer count = null;
+		if (failures.size() < MAX_TRACKED_TOKENS || failures.containsKey(token)) {
+			count = failures.merge(token, 1, Integer::sum);
+		} else if (trackingFull.compareAndSet(false, true)) {
+			LOGGER.error("Failures of " + MAX_TRACKED_TOKENS + " tokens recorded; further failing tokens will be "
+					+ "retried every time");
+		}
+		String action = count != null && count >= maxFailures ? ", no longer analyzing" : ", skipping";
+		LOGGER.warn("Token analysis " + reason + action + " token of length " + token.length() + ": " + token);
+	}
+
+	LatencyHistogram latency() {
+		return latency;
+	}
+
+	boolean isBadToken(String token) {
+		return isBad(token);
+	}
+
+	long skippedCount() {
+		return skipped.get();
+	}
+
+	static LatencyHistogram getLatencyHistogram() {
+		return DEFAULT.latency;
+	}
+
+	static long getSkippedCount() {
+		return DEFAULT.skipped.get();
+	}
+}
@@ -0,0 +1,76 @@
+package dal;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import net.oujda_nlp_team.AlKhalil2Analyzer;
+import pl.EditorPO;
+import util.Tokenizer;
+
+/**
+ * Loads the AlKhalil dictionaries and runs a short Arabic sample through every
+ * analysis path on a background thread, so the first page opened in the editor
+ * does not pay the cold-start cost. Each pass also sends the sample's tokens
+ * straight to AlKhalil, past the token cache and lexicon, which would otherwise
+ * answer every pass after the first and leave processToken cold.
+ */
+public class AnalyzerWarmup {
+	private static final Logger LOGGER = LogManager.getLogger(EditorPO.class);
+	private static final String SAMPLE_TEXT = "بسم الله الرحمن الرحيم الحمد لله رب العالمين "
+			+ "ذهب الولد إلى المدرسة وقرأ الكتاب في المكتبة ثم كتب الدرس في دفتره";
+	private static final int ITERATIONS = 20;
+	private static Thread warmupThread;
+
+	public static synchronized void start() {
+		if (warmupThread != null) {
+			return;
+		}
+		warmupThread = new Thread(new Runnable() {
+
+			@Override
+			public void run() {
+				long start = System.currentTimeMillis();
+				try {
+					AlKhalil2Analyzer analyzer = MorphologyAnalyzer.getAnalyzer();
+					if (analyzer == null) {
+						LOGGER.error("Failed to initialize AlKhalil2Analyzer.");
+						return;
+					}
+					PageAnalyzer.getPool();
+					warmUp(analyzer, ITERATIONS);
+					LOGGER.info("Analyzer warm-up complete in " + (System.currentTimeMillis() - start) + " ms ("
+							+ MorphologyAnalyzer.getLatencyHistogram() + ")");
+				} catch (Exception e) {
+					e.printStackTrace();
+					LOGGER.error("Analyzer warm-up failed: " + e.getMessage());
+				}
+			}
+		}, "analyzer-warmup");
+		warmupThread.setDaemon(true);
+		warmupThread.start();
+	}
+
+	static void warmUp(AlKhalil2Analyzer analyzer, int iterations) {
+		for (int i = 0; i < iterations && !Thread.currentThread().isInterrupted(); i++) {
+			runSample(analyzer);
+		}
+	}
+
+	private static void runSample(AlKhalil2Analyzer analyzer) {
+		for (String token : Tokenizer.tokens(SAMPLE_TEXT)) {
+			AnalyzerGuard.processToken(analyzer, token);
+		}
+
+		String text = PreProcessText.preprocessText(SAMPLE_TEXT);
+		POSTagger.extractPOS(text);
+		Lemmatization.lemmatizeWords(text);
+		RootExtraction.extractRoots(text);
+		Stemmation.stemWords(text);
+		WordSegmentation.extractSegments(text);
+		PageAnalyzer.analyze(SAMPLE_TEXT);
+
+		TFIDFCalculator tfidf = new TFIDFCalculator();
+		tfidf.addDocumentToCorpus(SAMPLE_TEXT);
+		tfidf.calculateDocumentTfIdf(text);
+	}
+}
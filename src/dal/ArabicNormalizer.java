@@ -0,0 +1,176 @@
+package dal;
+
+import java.text.Normalizer;
+
+import util.Harakat;
+import util.Tokenizer;
+
+/**
+ * Single-pass text normalizer used by every analytic path. Each char is
+ * looked up once in a precomputed 64K-entry class table that fuses harakat
+ * removal, the non-Arabic filter and the optional extended normalizations,
+ * and the result is written into a per-thread buffer that is reused across
+ * calls.
+ * <p>
+ * With no options the output is identical to the original three-pass
+ * {@code removeHarakat} / {@code [^\p{IsArabic}\s]} / {@code toLowerCase}
+ * pipeline (Arabic script has no case, so lowering was a no-op). Tatweel is
+ * Common script rather than Arabic, so the base filter already drops it.
+ */
+public final class ArabicNormalizer {
+
+	/** Fold alef and hamza-seat variants (أ إ آ ٱ ؤ ئ ى) to their base letters. */
+	public static final int ALEF_HAMZA = 1;
+	/** Replace Arabic presentation forms with their NFKC base letters. */
+	public static final int PRESENTATION_FORMS = 2;
+
+	private static final byte DROP = 0;
+	private static final byte KEEP = 1;
+	private static final byte MAP = 2;
+	private static final byte EXPAND = 3;
+	private static final byte SURROGATE = 4;
+
+	private static ArabicNormalizer instance;
+
+	private final int options;
+	private final byte[] classes = new byte[Character.MAX_VALUE + 1];
+	private final char[] mapped = new char[Character.MAX_VALUE + 1];
+	private final String[] expansions = new String[Character.MAX_VALUE + 1];
+	private final ThreadLocal<char[]> buffer = ThreadLocal.withInitial(() -> new char[1024]);
+
+	public ArabicNormalizer(int options) {
+		this.options = options;
+		for (int c = 0; c <= Character.MAX_VALUE; c++) {
+			classes[c] = baseClass((char) c);
+		}
+		if ((options & ALEF_HAMZA) != 0) {
+			map("أإآٱ", 'ا');
+			map("ؤ", 'و');
+			map("ئى", 'ي');
+		}
+		if ((options & PRESENTATION_FORMS) != 0) {
+			expandRange('\uFB50', '\uFDFF');
+			expandRange('\uFE70', '\uFEFF');
+		}
+	}
+
+	public static synchronized ArabicNormalizer getInstance() {
+		if (instance == null) {
+			int options = 0;
+			if (ConfigProperties.getBoolean("normalization.alefHamza", false)) {
+				options |= ALEF_HAMZA;
+			}
+			if (ConfigProperties.getBoolean("normalization.presentationForms", false)) {
+				options |= PRESENTATION_FORMS;
+			}
+			instance = new ArabicNormalizer(options);
+		}
+		return instance;
+	}
+
+	public int getOptions() {
+		return options;
+	}
+
+	static boolean isHarakah(char c) {
+		return Harakat.isHarakah(c);
+	}
+
+	static boolean isWhitespace(char c) {
+		return Tokenizer.isWhitespace(c);
+	}
+
+	private static byte baseClass(char c) {
+		if (Character.isSurrogate(c)) {
+			return SURROGATE;
+		}
+		if (isWhitespace(c)) {
+			return KEEP;
+		}
+		if (isHarakah(c) || Character.UnicodeScript.of(c) != Character.UnicodeScript.ARABIC) {
+			return DROP;
+		}
+		return KEEP;
+	}
+
+	private void map(String from, char to) {
+		for (int i = 0; i < from.length(); i++) {
+			classes[from.charAt(i)] = MAP;
+			mapped[from.charAt(i)] = to;
+		}
+	}
+
+	private void expandRange(char first, char last) {
+		for (int c = first; c <= last; c++) {
+			if (classes[c] == DROP) {
+				continue;
+			}
+			String decomposed = Normalizer.normalize(String.valueOf((char) c), Normalizer.Form.NFKC);
+			if (decomposed.length() == 1 && decomposed.charAt(0) == c) {
+				continue;
+			}
+			StringBuilder expansion = new StringBuilder(decomposed.length());
+			for (int i = 0; i < decomposed.length(); i++) {
+				char d = decomposed.charAt(i);
+				byte dClass = classes[d];
+				if (dClass == KEEP) {
+					expansion.append(d);
+				} else if (dClass == MAP) {
+					expansion.append(mapped[d]);
+				}
+			}
+			classes[c] = EXPAND;
+			expansions[c] = expansion.toString();
+		}
+	}
+
+	public String normalize(CharSequence text) {
+		int length = text.length();
+		char[] out = buffer.get();
+		if (out.length < length) {
+			out = new char[Math.max(length, out.length * 2)];
+			buffer.set(out);
+		}
+
+		int n = 0;
+		for (int i = 0; i < length; i++) {
+			char c = text.charAt(i);
+			switch (classes[c]) {
+			case KEEP:
+				out[n++] = c;
+				break;
+			case MAP:
+				out[n++] = mapped[c];
+				break;
+			case EXPAND:
+				String expansion = expansions[c];
+				if (n + expansion.length() > out.length - (length - i - 1)) {
+					out = grow(out, n + expansion.length() + (length - i - 1));
+				}
+				expansion.getChars(0, expansion.length(), out, n);
+				n += expansion.length();
+				break;
+			case SURROGATE:
+				if (Character.isHighSurrogate(c) && i + 1 < length && Character.isLowSurrogate(text.charAt(i + 1))) {
+					char low = text.charAt(++i);
+					int codePoint = Character.toCodePoint(c, low);
+					if (Character.UnicodeScript.of(codePoint) == Character.UnicodeScript.ARABIC) {
+						out[n++] = c;
+						out[n++] = low;
+					}
+				}
+				break;
+			default:
+				break;
+			}
+		}
+		return new String(out, 0, n);
+	}
+
+	private char[] grow(char[] out, int required) {
+		char[] grown = new char[Math.max(required, out.length * 2)];
+		System.arraycopy(out, 0, grown, 0, out.length);
+		buffer.set(grown);
+		return grown;
+	}
+}
@@ -0,0 +1,65 @@
+package dal;
+
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.Properties;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import pl.EditorPO;
+
+public class ConfigProperties {
+	private static final Logger LOGGER = LogManager.getLogger(EditorPO.class);
+	private static Properties properties;
+
+	private static synchronized Properties getProperties() {
+		if (properties == null) {
+			properties = new Properties();
+			try (FileInputStream input = new FileInputStream("config.properties")) {
+				properties.load(new InputStreamReader(input, StandardCharsets.UTF_8));
+			} catch (IOException e) {
+				LOGGER.error(e.getMessage());
+			}
+		}
+		return properties;
+	}
+
+	public static String getString(String key, String defaultValue) {
+		String value = getProperties().getProperty(key);
+		return value == null ? defaultValue : value.trim();
+	}
+
+	public static int getInt(String key, int defaultValue) {
+		try {
+			return Integer.parseInt(getString(key, String.valueOf(defaultValue)));
+		} catch (NumberFormatException e) {
+			LOGGER.error("Invalid value for " + key + ": " + e.getMessage());
+			return defaultValue;
+		}
+	}
+
+	public static long getLong(String key, long defaultValue) {
+		try {
+			return Long.parseLong(getString(key, String.valueOf(defaultValue)));
+		} catch (NumberFormatException e) {
+			LOGGER.error("Invalid value for " + key + ": " + e.getMessage());
+			return defaultValue;
+		}
+	}
+
+	public static double getDouble(String key, double defaultValue) {
+		try {
+			return Double.parseDouble(getString(key, String.valueOf(defaultValue)));
+		} catch (NumberFormatException e) {
+			LOGGER.error("Invalid value for " + key + ": " + e.getMessage());
+			return defaultValue;
+		}
+	}
+
+	public static boolean getBoolean(String key, boolean defaultValue) {
+		return Boolean.parseBoolean(getString(key, String.valueOf(defaultValue)));
+	}
+}
@@ -0,0 +1,334 @@
+package dal;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import pl.EditorPO;
+
+/**
+ * Corpus-wide unigram and bigram counts for PMI, kept in the database and
+ * updated by difference as pages are written. corpus_unigrams holds each
+ * token's count, corpus_bigrams each adjacent pair's count and corpus_stats
+ * the total number of tokens. Pages are counted one by one, the way the page
+ * PMI counts them, so no bigram spans two pages and a page's contribution can
+ * be taken out again from its old content alone.
+ * <p>
+ * PMI of one bigram is three primary-key lookups, whatever the corpus size.
+ * Updates run on the caller's connection, inside the caller's transaction.
+ */
+class CorpusNGramIndex {
+	private static final Logger LOGGER = LogManager.getLogger(EditorPO.class);
+	static final String TOKEN_COUNT = "tokenCount";
+	private static final int LOOKUP_CHUNK_SIZE = 500;
+	private static final int REBUILD_BATCH_PAGES = 1000;
+
+	private final TokenDictionary tokenDictionary;
+
+	CorpusNGramIndex(TokenDictionary tokenDictionary) {
+		this.tokenDictionary = tokenDictionary;
+	}
+
+	/**
+	 * Count changes collected over one transaction: pages added with +1 and
+	 * removed with -1 (by their old content). Changes that cancel out, as for
+	 * an unchanged word on an edited page, are never written.
+	 */
+	static final class Delta {
+		private final Map<String, Integer> unigrams = new HashMap<>();
+		private final Map<String, Integer> bigrams = new HashMap<>();
+		private long tokens;
+
+		void addPage(String content) {
+			add(PreprocessedText.of(content == null ? "" : content).getNGramCounts(), 1);
+		}
+
+		void removePage(String content) {
+			add(PreprocessedText.of(content == null ? "" : content).getNGramCounts(), -1);
+		}
+
+		void add(NGramCounts counts, int sign) {
+			for (int id = 0; id < counts.distinctCount(); id++) {
+				unigrams.merge(counts.token(id), sign * counts.unigramCount(id), Integer::sum);
+			}
+			LongIntHashMap seen = new LongIntHashMap(Math.max(1, counts.length() - 1));
+			for (int i = 0; i + 1 < counts.length(); i++) {
+				int first = counts.idAt(i);
+				int second = counts.idAt(i + 1);
+				if (seen.add(NGramCounts.bigramKey(first, second), 1) == 1) {
+					bigrams.merge(counts.token(first) + " " + counts.token(second),
+							sign * counts.bigramCount(first, second), Integer::sum);
+				}
+			}
+			tokens += (long) sign * counts.length();
+		}
+
+		int unigramChange(String word) {
+			return unigrams.getOrDefault(word, 0);
+		}
+
+		int bigramChange(String word1, String word2) {
+			return bigrams.getOrDefault(word1 + " " + word2, 0);
+		}
+
+		long tokenChange() {
+			return tokens;
+		}
+
+		boolean isEmpty() {
+			if (tokens != 0) {
+				return false;
+			}
+			for (int change : unigrams.values()) {
+				if (change != 0) {
+					return false;
+				}
+			}
+			for (int change : bigrams.values()) {
+				if (change != 0) {
+					return false;
+				}
+			}
+			return true;
+		}
+	}
+
+	/** Writes the nonzero changes of {@code delta} and drops rows whose count reaches zero. */
+	void apply(Connection conn, Delta delta) throws SQLException {
+		if (delta.isEmpty()) {
+			return;
+		}
+		// Words of a reordered pair need ids even when their own counts do not change
+		Set<String> words = new HashSet<>();
+		for (Map.Entry<String, Integer> entry : delta.unigrams.entrySet()) {
+			if (entry.getValue() != 0) {
+				words.add(entry.getKey());
+			}
+		}
+		for (Map.Entry<String, Integer> entry : delta.bigrams.entrySet()) {
+			if (entry.getValue() != 0) {
+				words.addAll(Arrays.asList(PMICalculator.splitKey(entry.getKey())));
+			}
+		}
+		Map<String, Integer> tokenIds = tokenDictionary.resolve(conn, words);
+
+		try (PreparedStatement upsertStmt = conn.prepareStatement("INSERT INTO corpus_unigrams (tokenId, unigramCount) "
+				+ "VALUES (?, ?) ON DUPLICATE KEY UPDATE unigramCount = unigramCount + VALUES(unigramCount)");
+				PreparedStatement pruneStmt = conn
+						.prepareStatement("DELETE FROM corpus_unigrams WHERE tokenId = ? AND unigramCount <= 0")) {
+			for (Map.Entry<String, Integer> entry : delta.unigrams.entrySet()) {
+				Integer tokenId = tokenIds.get(entry.getKey());
+				int change = entry.getValue();
+				if (tokenId == null || change == 0) {
+					continue;
+				}
+				upsertStmt.setInt(1, tokenId);
+				upsertStmt.setInt(2, change);
+				upsertStmt.addBatch();
+				if (change < 0) {
+					pruneStmt.setInt(1, tokenId);
+					pruneStmt.addBatch();
+				}
+			}
+			upsertStmt.executeBatch();
+			pruneStmt.executeBatch();
+		}
+
+		try (PreparedStatement upsertStmt = conn.prepareStatement("INSERT INTO corpus_bigrams "
+				+ "(firstTokenId, secondTokenId, bigramCount) VALUES (?, ?, ?) "
+				+ "ON DUPLICATE KEY UPDATE bigramCount = bigramCount + VALUES(bigramCount)");
+				PreparedStatement pruneStmt = conn.prepareStatement("DELETE FROM corpus_bigrams "
+						+ "WHERE firstTokenId = ? AND secondTokenId = ? AND bigramCount <= 0")) {
+			for (Map.Entry<String, Integer> entry : delta.bigrams.entrySet()) {
+				String[] pair = PMICalculator.splitKey(entry.getKey());
+				Integer firstTokenId = tokenIds.get(pair[0]);
+				Integer secondTokenId = tokenIds.get(pair[1]);
+				int change = entry.getValue();
+				if (firstTokenId == null || secondTokenId == null || change == 0) {
+					continue;
+				}
+				upsertStmt.setInt(1, firstTokenId);
+				upsertStmt.setInt(2, secondTokenId);
+				upsertStmt.setInt(3, change);
+				upsertStmt.addBatch();
+				if (change < 0) {
+					pruneStmt.setInt(1, firstTokenId);
+					pruneStmt.setInt(2, secondTokenId);
+					pruneStmt.addBatch();
+				}
+			}
+			upsertStmt.executeBatch();
+			pruneStmt.executeBatch();
+		}
+
+		if (delta.tokens != 0) {
+			try (PreparedStatement stmt = conn.prepareStatement("INSERT INTO corpus_stats (statName, statValue) "
+					+ "VALUES (?, ?) ON DUPLICATE KEY UPDATE statValue = statValue + VALUES(statValue)")) {
+				stmt.setString(1, TOKEN_COUNT);
+				stmt.setLong(2, delta.tokens);
+				stmt.executeUpdate();
+			}
+		}
+	}
+
+	static long getTokenCount(Connection conn) throws SQLException {
+		try (PreparedStatement stmt = conn.prepareStatement("SELECT statValue FROM corpus_stats WHERE statName = ?")) {
+			stmt.setString(1, TOKEN_COUNT);
+			try (ResultSet rs = stmt.executeQuery()) {
+				return rs.next() ? rs.getLong(1) : 0;
+			}
+		}
+	}
+
+	/** Corpus PMI of one bigram of preprocessed words; -Infinity when it never occurs. */
+	static double pmi(Connection conn, String word1, String word2) throws SQLException {
+		long totalWords = getTokenCount(conn);
+		try (PreparedStatement stmt = conn.prepareStatement("SELECT b.bigramCount, u1.unigramCount, u2.unigramCount "
+				+ "FROM tokens t1 JOIN tokens t2 "
+				+ "JOIN corpus_bigrams b ON b.firstTokenId = t1.tokenId AND b.secondTokenId = t2.tokenId "
+				+ "JOIN corpus_unigrams u1 ON u1.tokenId = t1.tokenId JOIN corpus_unigrams u2 ON u2.tokenId = t2.tokenId "
+				+ "WHERE t1.surface = ? AND t2.surface = ?")) {
+			stmt.setString(1, word1);
+			stmt.setString(2, word2);
+			try (ResultSet rs = stmt.executeQuery()) {
+				if (!rs.next()) {
+					return Double.NEGATIVE_INFINITY;
+				}
+				return PMICalculator.pmi(rs.getInt(1), rs.getInt(2), rs.getInt(3), totalWords);
+			}
+		}
+	}
+
+	/**
+	 * The bigrams of {@code content} in order of first appearance, as the page
+	 * PMI lists them, each scored from the corpus counts.
+	 */
+	static Map<String, Double> pmiOfText(Connection conn, String content) throws SQLException {
+		NGramCounts counts = PreprocessedText.of(content == null ? "" : content).getNGramCounts();
+		Map<String, Double> scores = new LinkedHashMap<>();
+		if (counts.length() < 2) {
+			return scores;
+		}
+		long totalWords = getTokenCount(conn);
+
+		// Corpus counts of the text's words, indexed by their ids in the text
+		int[] unigramCounts = new int[counts.distinctCount()];
+		for (int from = 0; from < counts.distinctCount(); from += LOOKUP_CHUNK_SIZE) {
+			int to = Math.min(from + LOOKUP_CHUNK_SIZE, counts.distinctCount());
+			StringBuilder query = new StringBuilder(
+					"SELECT t.surface, u.unigramCount FROM tokens t JOIN corpus_unigrams u ON u.tokenId = t.tokenId "
+							+ "WHERE t.surface IN (");
+			for (int id = from; id < to; id++) {
+				query.append(id == from ? "?" : ", ?");
+			}
+			query.append(")");
+			try (PreparedStatement stmt = conn.prepareStatement(query.toString())) {
+				for (int id = from; id < to; id++) {
+					stmt.setString(id - from + 1, counts.token(id));
+				}
+				try (ResultSet rs = stmt.executeQuery()) {
+					while (rs.next()) {
+						int id = counts.id(rs.getString(1));
+						if (id >= 0) {
+							unigramCounts[id] = rs.getInt(2);
+						}
+					}
+				}
+			}
+		}
+
+		List<long[]> bigrams = new ArrayList<>();
+		LongIntHashMap seen = new LongIntHashMap(counts.length() - 1);
+		for (int i = 0; i + 1 < counts.length(); i++) {
+			int first = counts.idAt(i);
+			int second = counts.idAt(i + 1);
+			if (seen.add(NGramCounts.bigramKey(first, second), 1) == 1) {
+				bigrams.add(new long[] { first, second });
+			}
+		}
+		LongIntHashMap bigramCounts = new LongIntHashMap(bigrams.size());
+		for (int from = 0; from < bigrams.size(); from += LOOKUP_CHUNK_SIZE) {
+			List<long[]> chunk = bigrams.subList(from, Math.min(from + LOOKUP_CHUNK_SIZE, bigrams.size()));
+			StringBuilder query = new StringBuilder("SELECT t1.surface, t2.surface, b.bigramCount FROM corpus_bigrams b "
+					+ "JOIN tokens t1 ON t1.tokenId = b.firstTokenId JOIN tokens t2 ON t2.tokenId = b.secondTokenId "
+					+ "WHERE (t1.surface, t2.surface) IN (");
+			for (int i = 0; i < chunk.size(); i++) {
+				query.append(i == 0 ? "(?, ?)" : ", (?, ?)");
+			}
+			query.append(")");
+			try (PreparedStatement stmt = conn.prepareStatement(query.toString())) {
+				for (int i = 0; i < chunk.size(); i++) {
+					stmt.setString(2 * i + 1, counts.token((int) chunk.get(i)[0]));
+					stmt.setString(2 * i + 2, counts.token((int) chunk.get(i)[1]));
+				}
+				try (ResultSet rs = stmt.executeQuery()) {
+					while (rs.next()) {
+						int first = counts.id(rs.getString(1));
+						int second = counts.id(rs.getString(2));
+						if (first >= 0 && second >= 0) {
+							bigramCounts.add(NGramCounts.bigramKey(first, second), rs.getInt(3));
+						}
+					}
+				}
+			}
+		}
+
+		for (long[] bigram : bigrams) {
+			int first = (int) bigram[0];
+			int second = (int) bigram[1];
+			scores.put(counts.token(first) + " " + counts.token(second),
+					PMICalculator.pmi(bigramCounts.get(NGramCounts.bigramKey(first, second)), unigramCounts[first],
+							unigramCounts[second], totalWords));
+		}
+		return scores;
+	}
+
+	/** Recounts every stored page from scratch. */
+	void rebuild(Connection conn) throws SQLException {
+		try (Statement stmt = conn.createStatement()) {
+			stmt.executeUpdate("DELETE FROM corpus_bigrams");
+			stmt.executeUpdate("DELETE FROM corpus_unigrams");
+			stmt.executeUpdate("DELETE FROM corpus_stats WHERE statName = '" + TOKEN_COUNT + "'");
+		}
+
+		// Pages are read in pageId order, one batch at a time
+		int lastPageId = 0;
+		int pageCount = 0;
+		while (true) {
+			Delta delta = new Delta();
+			int read = 0;
+			try (PreparedStatement stmt = conn.prepareStatement(
+					"SELECT pageId, pageContent FROM pages WHERE pageId > ? ORDER BY pageId LIMIT " + REBUILD_BATCH_PAGES)) {
+				stmt.setInt(1, lastPageId);
+				try (ResultSet rs = stmt.executeQuery()) {
+					while (rs.next()) {
+						lastPageId = rs.getInt(1);
+						// Every page is read once here; caching them would only evict the pages being edited
+						String content = rs.getString(2);
+						delta.add(PreprocessedText.uncached(content == null ? "" : content).getNGramCounts(), 1);
+						read++;
+					}
+				}
+			}
+			apply(conn, delta);
+			pageCount += read;
+			if (read < REBUILD_BATCH_PAGES) {
+				break;
+			}
+		}
+		LOGGER.info("Rebuilt corpus n-gram counts for " + pageCount + " pages");
+	}
+}
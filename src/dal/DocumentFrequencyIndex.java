@@ -0,0 +1,268 @@
+package dal;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import pl.EditorPO;
+import util.Tokenizer;
+
+/**
+ * Keeps the corpus statistics TF-IDF needs in the database so that scoring a
+ * document never rereads the corpus. document_terms holds each file's term
+ * counts, document_frequency the number of files containing each term and
+ * corpus_stats the number of files. All updates run on the caller's
+ * connection, inside the caller's transaction, and touch only the rows of the
+ * document being written.
+ * <p>
+ * The IDF of the stored corpus is read into one {@link TFIDFCalculator.IdfModel}
+ * keyed by tokenId and shared by stored-score reads and the recompute job until
+ * the statistics next change. Callers hold the lock that guards the connection.
+ */
+class DocumentFrequencyIndex {
+	private static final Logger LOGGER = LogManager.getLogger(EditorPO.class);
+	static final String DOCUMENT_COUNT = "documentCount";
+
+	private final TokenDictionary tokenDictionary;
+	// Bumped by every change to the statistics; the cached model belongs to one version
+	private long version;
+	private TFIDFCalculator.IdfModel<Integer> idfModel;
+
+	DocumentFrequencyIndex(TokenDictionary tokenDictionary) {
+		this.tokenDictionary = tokenDictionary;
+	}
+
+	/** Normalized term counts of a whole document, the same terms TFIDFCalculator scores. */
+	static Map<String, Integer> countTerms(String content) {
+		Map<String, Integer> termCounts = new HashMap<>();
+		Tokenizer tokenizer = new Tokenizer(PreProcessText.preprocessText(content));
+		while (tokenizer.next()) {
+			termCounts.merge(tokenizer.token(), 1, Integer::sum);
+		}
+		return termCounts;
+	}
+
+	static long totalWords(Map<String, Integer> termCounts) {
+		long total = 0;
+		for (int count : termCounts.values()) {
+			total += count;
+		}
+		return total;
+	}
+
+	/**
+	 * Stores the term counts of {@code fileId}, replacing any earlier version of
+	 * the document, and moves the document frequencies of old and new terms.
+	 */
+	void putDocument(Connection conn, int fileId, Map<String, Integer> termCounts) throws SQLException {
+		removeDocument(conn, fileId);
+
+		Map<String, Integer> tokenIds = tokenDictionary.resolve(conn, termCounts.keySet());
+		try (PreparedStatement termStmt = conn
+				.prepareStatement("INSERT INTO document_terms (fileId, tokenId, termCount) VALUES (?, ?, ?)")) {
+			for (Map.Entry<String, Integer> entry : termCounts.entrySet()) {
+				Integer tokenId = tokenIds.get(entry.getKey());
+				if (tokenId != null) {
+					termStmt.setInt(1, fileId);
+					termStmt.setInt(2, tokenId);
+					termStmt.setInt(3, entry.getValue());
+					termStmt.addBatch();
+				}
+			}
+			termStmt.executeBatch();
+		}
+
+		try (PreparedStatement dfStmt = conn.prepareStatement("INSERT INTO document_frequency (tokenId, df) "
+				+ "SELECT tokenId, 1 FROM document_terms WHERE fileId = ? ON DUPLICATE KEY UPDATE df = df + 1")) {
+			dfStmt.setInt(1, fileId);
+			dfStmt.executeUpdate();
+		}
+	}
+
+	/** Takes the document's terms out of the frequencies; a no-op for unknown files. */
+	void removeDocument(Connection conn, int fileId) throws SQLException {
+		invalidate();
+		try (PreparedStatement dfStmt = conn.prepareStatement("UPDATE document_frequency f JOIN document_terms t "
+				+ "ON f.tokenId = t.tokenId SET f.df = f.df - 1 WHERE t.fileId = ?")) {
+			dfStmt.setInt(1, fileId);
+			dfStmt.executeUpdate();
+		}
+		try (PreparedStatement pruneStmt = conn.prepareStatement("DELETE f FROM document_frequency f JOIN document_terms t "
+				+ "ON f.tokenId = t.tokenId WHERE t.fileId = ? AND f.df <= 0")) {
+			pruneStmt.setInt(1, fileId);
+			pruneStmt.executeUpdate();
+		}
+		try (PreparedStatement termStmt = conn.prepareStatement("DELETE FROM document_terms WHERE fileId = ?")) {
+			termStmt.setInt(1, fileId);
+			termStmt.executeUpdate();
+		}
+	}
+
+	void adjustDocumentCount(Connection conn, int delta) throws SQLException {
+		invalidate();
+		try (PreparedStatement stmt = conn.prepareStatement("INSERT INTO corpus_stats (statName, statValue) VALUES (?, ?) "
+				+ "ON DUPLICATE KEY UPDATE statValue = statValue + VALUES(statValue)")) {
+			stmt.setString(1, DOCUMENT_COUNT);
+			stmt.setLong(2, delta);
+			stmt.executeUpdate();
+		}
+	}
+
+	private void invalidate() {
+		version++;
+		idfModel = null;
+	}
+
+	/**
+	 * IDF of every stored term keyed by tokenId, read on the first call after
+	 * the statistics changed. Terms without a document frequency get the
+	 * smoothed IDF of an unseen term.
+	 */
+	TFIDFCalculator.IdfModel<Integer> getIdfModel(Connection conn) throws SQLException {
+		if (idfModel == null) {
+			int corpusSize = getDocumentCount(conn);
+			Map<Integer, Integer> documentFrequencies = new HashMap<>();
+			try (Statement stmt = conn.createStatement();
+					ResultSet rs = stmt.executeQuery("SELECT tokenId, df FROM document_frequency")) {
+				while (rs.next()) {
+					documentFrequencies.put(rs.getInt(1), rs.getInt(2));
+				}
+			}
+			idfModel = TFIDFCalculator.IdfModel.fromDocumentFrequencies(version, corpusSize, documentFrequencies);
+		}
+		return idfModel;
+	}
+
+	static int getDocumentCount(Connection conn) throws SQLException {
+		try (PreparedStatement stmt = conn.prepareStatement("SELECT statValue FROM corpus_stats WHERE statName = ?")) {
+			stmt.setString(1, DOCUMENT_COUNT);
+			try (ResultSet rs = stmt.executeQuery()) {
+				return rs.next() ? (int) rs.getLong(1) : 0;
+			}
+		}
+	}
+
+	/**
+	 * TF-IDF of a stored document against the corpus that contains it, the
+	 * same convention as {@link #scoreDocuments} and the recompute job. Reads
+	 * only the document's own frequency rows, so saving stays cheap while the
+	 * shared model is stale.
+	 */
+	double score(Connection conn, int fileId, long totalWords) throws SQLException {
+		int corpusSize = getDocumentCount(conn);
+		List<int[]> rows = new ArrayList<>();
+		try (PreparedStatement stmt = conn.prepareStatement("SELECT t.termCount, f.df FROM document_terms t "
+				+ "JOIN document_frequency f ON f.tokenId = t.tokenId WHERE t.fileId = ?")) {
+			stmt.setInt(1, fileId);
+			try (ResultSet rs = stmt.executeQuery()) {
+				while (rs.next()) {
+					rows.add(new int[] { rs.getInt(1), rs.getInt(2) });
+				}
+			}
+		}
+
+		int[] termCounts = new int[rows.size()];
+		int[] documentFrequencies = new int[rows.size()];
+		for (int i = 0; i < rows.size(); i++) {
+			termCounts[i] = rows.get(i)[0];
+			documentFrequencies[i] = rows.get(i)[1];
+		}
+		return TFIDFCalculator.calculateDocumentTfIdf(termCounts, documentFrequencies, corpusSize, totalWords);
+	}
+
+	/**
+	 * TF-IDF of every stored file, or of {@code fileId} alone when it is not
+	 * null, against the corpus that contains it. One ordered pass over the
+	 * term rows with the shared IDF model; files without terms score 0.
+	 */
+	Map<Integer, Double> scoreDocuments(Connection conn, Integer fileId) throws SQLException {
+		TFIDFCalculator.IdfModel<Integer> idf = getIdfModel(conn);
+		Map<Integer, Double> scores = new LinkedHashMap<>();
+		String query = "SELECT fl.fileId, t.tokenId, t.termCount FROM files fl "
+				+ "LEFT JOIN document_terms t ON t.fileId = fl.fileId "
+				+ (fileId == null ? "" : "WHERE fl.fileId = ? ") + "ORDER BY fl.fileId";
+		try (PreparedStatement stmt = conn.prepareStatement(query)) {
+			if (fileId != null) {
+				stmt.setInt(1, fileId);
+			}
+			try (ResultSet rs = stmt.executeQuery()) {
+				int current = 0;
+				double weightedCount = 0.0;
+				long totalWords = 0;
+				boolean any = false;
+				while (rs.next()) {
+					int rowFileId = rs.getInt(1);
+					if (any && rowFileId != current) {
+						scores.put(current, documentScore(weightedCount, totalWords));
+						weightedCount = 0.0;
+						totalWords = 0;
+					}
+					current = rowFileId;
+					any = true;
+					int tokenId = rs.getInt(2);
+					if (!rs.wasNull()) {
+						int termCount = rs.getInt(3);
+						weightedCount += termCount * idf.idf(tokenId);
+						totalWords += termCount;
+					}
+				}
+				if (any) {
+					scores.put(current, documentScore(weightedCount, totalWords));
+				}
+			}
+		}
+		return scores;
+	}
+
+	// sum(tf * idf) / totalWords with tf = count / totalWords, as in TFIDFCalculator
+	private static double documentScore(double weightedCount, long totalWords) {
+		return totalWords == 0 ? 0.0 : weightedCount / ((double) totalWords * totalWords);
+	}
+
+	/** Rebuilds all statistics from the stored pages, one file at a time. */
+	void rebuild(Connection conn) throws SQLException {
+		invalidate();
+		try (Statement stmt = conn.createStatement()) {
+			stmt.executeUpdate("DELETE FROM document_terms");
+			stmt.executeUpdate("DELETE FROM document_frequency");
+			stmt.executeUpdate("DELETE FROM corpus_stats WHERE statName = '" + DOCUMENT_COUNT + "'");
+		}
+
+		List<Integer> fileIds = new ArrayList<>();
+		try (Statement stmt = conn.createStatement(); ResultSet rs = stmt.executeQuery("SELECT fileId FROM files")) {
+			while (rs.next()) {
+				fileIds.add(rs.getInt(1));
+			}
+		}
+		for (int fileId : fileIds) {
+			putDocument(conn, fileId, countTerms(readDocument(conn, fileId)));
+		}
+		adjustDocumentCount(conn, fileIds.size());
+		LOGGER.info("Rebuilt document frequencies for " + fileIds.size() + " files");
+	}
+
+	/** A file's text as its pages concatenated in page order. */
+	static String readDocument(Connection conn, int fileId) throws SQLException {
+		StringBuilder content = new StringBuilder();
+		try (PreparedStatement stmt = conn
+				.prepareStatement("SELECT pageContent FROM pages WHERE fileId = ? ORDER BY pageNumber")) {
+			stmt.setInt(1, fileId);
+			try (ResultSet rs = stmt.executeQuery()) {
+				while (rs.next()) {
+					content.append(rs.getString(1));
+				}
+			}
+		}
+		return content.toString();
+	}
+}
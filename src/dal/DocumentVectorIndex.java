@@ -0,0 +1,214 @@
+package dal;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import dto.SimilarDocument;
+import pl.EditorPO;
+
+/**
+ * Sparse TF-IDF vectors of the stored documents, one (tokenId, weight) row per
+ * term in document_vectors plus the vector length in document_norms. The
+ * tokenId index on document_vectors is the inverted index: the neighbours of
+ * a document are found by joining its postings only, never by scanning the
+ * corpus, and ranked by cosine similarity with a heap bounded by k.
+ * <p>
+ * Weights come from document_terms and document_frequency, so a vector is
+ * written after {@link DocumentFrequencyIndex#putDocument}. Terms with no
+ * positive weight (those in nearly every document) are left out; they do not
+ * help ranking and would make the longest postings lists. Rows go with their
+ * file through the foreign keys. A vector is weighted against the corpus of
+ * its save; {@link TfidfRecomputeJob} reweights all of them as the corpus
+ * changes.
+ */
+class DocumentVectorIndex {
+	private static final Logger LOGGER = LogManager.getLogger(EditorPO.class);
+
+	/** Writes the vector of {@code fileId} against the current corpus statistics. */
+	void putVector(Connection conn, int fileId) throws SQLException {
+		removeVector(conn, fileId);
+
+		int corpusSize = DocumentFrequencyIndex.getDocumentCount(conn);
+		List<int[]> rows = new ArrayList<>();
+		long totalWords = 0;
+		try (PreparedStatement stmt = conn.prepareStatement("SELECT t.tokenId, t.termCount, f.df FROM document_terms t "
+				+ "JOIN document_frequency f ON f.tokenId = t.tokenId WHERE t.fileId = ?")) {
+			stmt.setInt(1, fileId);
+			try (ResultSet rs = stmt.executeQuery()) {
+				while (rs.next()) {
+					rows.add(new int[] { rs.getInt(1), rs.getInt(2), rs.getInt(3) });
+					totalWords += rs.getInt(2);
+				}
+			}
+		}
+
+		double squaredNorm = 0.0;
+		try (PreparedStatement vectorStmt = conn
+				.prepareStatement("INSERT INTO document_vectors (fileId, tokenId, weight) VALUES (?, ?, ?)")) {
+			for (int[] row : rows) {
+				double weight = TFIDFCalculator.termWeight(row[1], row[2], corpusSize, totalWords);
+				if (weight > 0) {
+					vectorStmt.setInt(1, fileId);
+					vectorStmt.setInt(2, row[0]);
+					vectorStmt.setDouble(3, weight);
+					vectorStmt.addBatch();
+					squaredNorm += weight * weight;
+				}
+			}
+			vectorStmt.executeBatch();
+		}
+
+		try (PreparedStatement normStmt = conn.prepareStatement("INSERT INTO document_norms (fileId, norm) VALUES (?, ?)")) {
+			normStmt.setInt(1, fileId);
+			normStmt.setDouble(2, Math.sqrt(squaredNorm));
+			normStmt.executeUpdate();
+		}
+	}
+
+	void removeVector(Connection conn, int fileId) throws SQLException {
+		try (PreparedStatement vectorStmt = conn.prepareStatement("DELETE FROM document_vectors WHERE fileId = ?");
+				PreparedStatement normStmt = conn.prepareStatement("DELETE FROM document_norms WHERE fileId = ?")) {
+			vectorStmt.setInt(1, fileId);
+			vectorStmt.executeUpdate();
+			normStmt.setInt(1, fileId);
+			normStmt.executeUpdate();
+		}
+	}
+
+	/**
+	 * The {@code k} stored documents most similar to {@code fileId}, best first.
+	 * Documents sharing no weighted term with it are never looked at.
+	 */
+	List<SimilarDocument> findSimilar(Connection conn, int fileId, int k) throws SQLException {
+		if (k <= 0) {
+			return Collections.emptyList();
+		}
+		double queryNorm = 0.0;
+		try (PreparedStatement stmt = conn.prepareStatement("SELECT norm FROM document_norms WHERE fileId = ?")) {
+			stmt.setInt(1, fileId);
+			try (ResultSet rs = stmt.executeQuery()) {
+				if (rs.next()) {
+					queryNorm = rs.getDouble(1);
+				}
+			}
+		}
+		if (queryNorm == 0.0) {
+			return Collections.emptyList();
+		}
+
+		TopK topK = new TopK(k);
+		try (PreparedStatement stmt = conn.prepareStatement("SELECT o.fileId, SUM(q.weight * o.weight), n.norm "
+				+ "FROM document_vectors q JOIN document_vectors o ON o.tokenId = q.tokenId "
+				+ "JOIN document_norms n ON n.fileId = o.fileId WHERE q.fileId = ? AND o.fileId <> ? "
+				+ "GROUP BY o.fileId, n.norm")) {
+			stmt.setInt(1, fileId);
+			stmt.setInt(2, fileId);
+			try (ResultSet rs = stmt.executeQuery()) {
+				while (rs.next()) {
+					topK.offer(rs.getInt(1), cosine(rs.getDouble(2), queryNorm, rs.getDouble(3)));
+				}
+			}
+		}
+		return withFileNames(conn, topK.sorted());
+	}
+
+	/** Recomputes every stored vector from the current statistics. */
+	void rebuild(Connection conn) throws SQLException {
+		try (Statement stmt = conn.createStatement()) {
+			stmt.executeUpdate("DELETE FROM document_vectors");
+			stmt.executeUpdate("DELETE FROM document_norms");
+		}
+		List<Integer> fileIds = new ArrayList<>();
+		try (Statement stmt = conn.createStatement(); ResultSet rs = stmt.executeQuery("SELECT fileId FROM files")) {
+			while (rs.next()) {
+				fileIds.add(rs.getInt(1));
+			}
+		}
+		for (int fileId : fileIds) {
+			putVector(conn, fileId);
+		}
+		LOGGER.info("Rebuilt TF-IDF vectors for " + fileIds.size() + " files");
+	}
+
+	static double cosine(double dotProduct, double norm, double otherNorm) {
+		if (norm == 0.0 || otherNorm == 0.0) {
+			return 0.0;
+		}
+		return dotProduct / (norm * otherNorm);
+	}
+
+	private static List<SimilarDocument> withFileNames(Connection conn, List<SimilarDocument> ranked)
+			throws SQLException {
+		if (ranked.isEmpty()) {
+			return ranked;
+		}
+		StringBuilder placeholders = new StringBuilder();
+		for (int i = 0; i < ranked.size(); i++) {
+			placeholders.append(i == 0 ? "?" : ", ?");
+		}
+		Map<Integer, String> names = new HashMap<>();
+		try (PreparedStatement stmt = conn
+				.prepareStatement("SELECT fileId, fileName FROM files WHERE fileId IN (" + placeholders + ")")) {
+			for (int i = 0; i < ranked.size(); i++) {
+				stmt.setInt(i + 1, ranked.get(i).getFileId());
+			}
+			try (ResultSet rs = stmt.executeQuery()) {
+				while (rs.next()) {
+					names.put(rs.getInt(1), rs.getString(2));
+				}
+			}
+		}
+		List<SimilarDocument> named = new ArrayList<>(ranked.size());
+		for (SimilarDocument doc : ranked) {
+			named.add(new SimilarDocument(doc.getFileId(), names.get(doc.getFileId()), doc.getSimilarity()));
+		}
+		return named;
+	}
+
+	/**
+	 * Keeps the {@code k} best scores seen so far in a min-heap, so ranking n
+	 * candidates costs O(n log k) and O(k) memory. Ties go to the lower fileId.
+	 */
+	static final class TopK {
+		private static final Comparator<SimilarDocument> WORST_FIRST = Comparator
+				.comparingDouble(SimilarDocument::getSimilarity)
+				.thenComparing(Comparator.comparingInt(SimilarDocument::getFileId).reversed());
+
+		private final int k;
+		private final PriorityQueue<SimilarDocument> heap;
+
+		TopK(int k) {
+			this.k = k;
+			this.heap = new PriorityQueue<>(k, WORST_FIRST);
+		}
+
+		void offer(int fileId, double similarity) {
+			SimilarDocument candidate = new SimilarDocument(fileId, null, similarity);
+			if (heap.size() < k) {
+				heap.add(candidate);
+			} else if (WORST_FIRST.compare(candidate, heap.peek()) > 0) {
+				heap.poll();
+				heap.add(candidate);
+			}
+		}
+
+		List<SimilarDocument> sorted() {
+			List<SimilarDocument> sorted = new ArrayList<>(heap);
+			sorted.sort(WORST_FIRST.reversed());
+			return sorted;
+		}
+	}
+}
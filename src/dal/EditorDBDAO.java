@@ -1,50 +1,64 @@
 package dal;
 
+import java.io.Reader;
 import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Statement;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
 
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
 import dto.Documents;
 import dto.Pages;
+import dto.SimilarDocument;
 import pl.EditorPO;
 
 public class EditorDBDAO implements IEditorDBDAO {
 	private static final Logger LOGGER = LogManager.getLogger(EditorPO.class);
+	private static final String INSERT_FILE_QUERY = "INSERT INTO files (fileName, fileHash) VALUES (?, ?)";
+	private static final String INSERT_PAGE_QUERY = "INSERT INTO pages (fileId, pageNumber, pageContent) VALUES (?, ?, ?)";
+	private static final String INSERT_TRANSLITERATION_QUERY = "INSERT INTO transliteratedpages (pageId, transliteratedText) VALUES (?, ?)";
+	private static final String INSERT_TFIDF_QUERY = "INSERT INTO tfidf (fileId, tfidfScore) VALUES (?, ?)";
+	private static final String PAGE_TOKEN_QUERY = "INSERT INTO page_tokens (pageId, tokenId) VALUES (?, ?)";
+	private static final String PAGE_PKL_QUERY = "INSERT INTO page_pkl (pageId, tokenId, leftTokenId, rightTokenId, pklScore) VALUES (?, ?, ?, ?, ?)";
+	private static final String PAGE_PMI_QUERY = "INSERT INTO page_pmi (pageId, firstTokenId, secondTokenId, pmiScore) VALUES (?, ?, ?, ?)";
+	private static final int PAGE_WINDOW_PER_THREAD = 4;
+	// Shared with the TF-IDF recompute job; every method that uses it is synchronized on this DAO
 	Connection conn = null;
+	private final TokenDictionary tokenDictionary = new TokenDictionary();
+	private final DocumentFrequencyIndex documentFrequencies = new DocumentFrequencyIndex(tokenDictionary);
+	private final DocumentVectorIndex documentVectors = new DocumentVectorIndex();
+	private final CorpusNGramIndex corpusNGrams = new CorpusNGramIndex(tokenDictionary);
+	private final TfidfRecomputeJob tfidfRecompute;
+	// Corpus of the last performTFIDF call and its calculator
+	private List<String> tfidfCorpus;
+	private TFIDFCalculator tfidfCalculator;
 
 	public EditorDBDAO() {
 		this.conn = DatabaseConnection.getInstance().getConnection();
+		// Scores written at save time go stale as the corpus grows; the job refreshes them
+		this.tfidfRecompute = new TfidfRecomputeJob(conn, this, documentFrequencies);
 
 	}
 
 	@Override
 	public synchronized boolean createFileInDB(String nameOfFile, String content) {
 		String hash = null;
-		List<Pages> pages = null;
-
-		String insertQuery = "INSERT INTO files (fileName, fileHash) VALUES (?, ?)";
-		String pageQuery = "INSERT INTO pages (fileId, pageNumber, pageContent) VALUES (?, ?, ?)";
-		String transliterateQuery = "INSERT INTO transliteratedpages (pageId, transliteratedText) VALUES (?, ?)";
-		;
-		String posQuery = "INSERT INTO pos (pageId, word, pos) VALUES (?, ?, ?)";
-		String lemmaQuery = "INSERT INTO lemmatization (pageId, word, lemma) VALUES (?, ?, ?)";
-		String rootQuery = "INSERT INTO rootextraction (pageId, word, root) VALUES (?, ?, ?)";
-		String stemQuery = "INSERT INTO stemmation (pageId, word, stem) VALUES (?, ?, ?)";
-		String segmentQuery = "INSERT INTO wordsegementation (pageId, word, segment) VALUES (?, ?, ?)";
-		String tfidfQuery = "INSERT INTO tfidf (fileId, tfidfScore) VALUES (?, ?)";
-		String pklQuery = "INSERT INTO pkl (pageId, word, pklScore) VALUES (?, ?, ?)";
-		String pmiQuery = "INSERT INTO pmi (pageId, word, pmiScore) VALUES (?, ?, ?)";
-		Map<String, String> analyticsMap = new HashMap<>();
-		Map<String, Double> scoreMap = new HashMap<>();
+		Iterator<Pages> pages = null;
 
 //		PreparedStatement fileStmt = null;
 //		PreparedStatement transliteratetStmt = null;
@@ -59,25 +73,20 @@ public class EditorDBDAO implements IEditorDBDAO {
 		try {
 
 			hash = HashCalculator.calculateHash(content);
-			pages = PaginationDAO.paginate(content);
+			pages = PaginationDAO.iterate(content);
 		} catch (Exception e) {
 			e.printStackTrace();
 			LOGGER.error(e.getMessage());
 		}
 
-		try (PreparedStatement fileStmt = conn.prepareStatement(insertQuery, PreparedStatement.RETURN_GENERATED_KEYS);
-				PreparedStatement pageStmt = conn.prepareStatement(pageQuery, PreparedStatement.RETURN_GENERATED_KEYS);
-				PreparedStatement transliteratetStmt = conn.prepareStatement(transliterateQuery);
-				PreparedStatement posStmt = conn.prepareStatement(posQuery);
-				PreparedStatement lemmaStmt = conn.prepareStatement(lemmaQuery);
-				PreparedStatement rootStmt = conn.prepareStatement(rootQuery);
-				PreparedStatement segmentStmt = conn.prepareStatement(segmentQuery);
-				PreparedStatement stemStmt = conn.prepareStatement(stemQuery);
-				PreparedStatement pklStmt = conn.prepareStatement(pklQuery);
-				PreparedStatement pmiStmt = conn.prepareStatement(pmiQuery);
-				PreparedStatement tfidfStmt = conn.prepareStatement(tfidfQuery)) {
+		try (PreparedStatement fileStmt = conn.prepareStatement(INSERT_FILE_QUERY, PreparedStatement.RETURN_GENERATED_KEYS);
+				PreparedStatement pageStmt = conn.prepareStatement(INSERT_PAGE_QUERY, PreparedStatement.RETURN_GENERATED_KEYS);
+				PreparedStatement transliteratetStmt = conn.prepareStatement(INSERT_TRANSLITERATION_QUERY);
+				PreparedStatement pageTokenStmt = conn.prepareStatement(PAGE_TOKEN_QUERY);
+				PreparedStatement pklStmt = conn.prepareStatement(PAGE_PKL_QUERY);
+				PreparedStatement pmiStmt = conn.prepareStatement(PAGE_PMI_QUERY);
+				PreparedStatement tfidfStmt = conn.prepareStatement(INSERT_TFIDF_QUERY)) {
 			conn = DatabaseConnection.getInstance().getConnection();
-			double tfidf = performTFIDF(getAllExistingFilesContent(conn), content);
 			conn.setAutoCommit(false);
 
 			// Insert into files table
@@ -90,142 +99,93 @@ public class EditorDBDAO implements IEditorDBDAO {
 			fileRS.next();
 			int fileID = fileRS.getInt(1);
 
-			for (Pages page : pages) {
-				// Insert into pages table
-//				pageStmt = conn.prepareStatement(pageQuery, PreparedStatement.RETURN_GENERATED_KEYS);
-				pageStmt.setInt(1, fileID);
-				pageStmt.setInt(2, page.getPageNumber());
-				pageStmt.setString(3, page.getPageContent());
-				pageStmt.executeUpdate();
-
-				ResultSet pageRS = pageStmt.getGeneratedKeys();
-				pageRS.next();
-				int pageId = pageRS.getInt(1);
-
-				// Transliteration
-				String transliteratedText = Transliteration.transliterate(page.getPageContent());
-//				transliteratetStmt = conn.prepareStatement(transliterateQuery);
-				transliteratetStmt.setInt(1, pageId);
-				transliteratetStmt.setString(2, transliteratedText);
-				transliteratetStmt.executeUpdate();
-
-				// POS Tagging
-				Map<String, List<String>> posTagsMap = POSTagger.extractPOS(page.getPageContent());
-
-//				posStmt = conn.prepareStatement(posQuery);
-
-				for (Map.Entry<String, List<String>> entry : posTagsMap.entrySet()) {
-					String word = entry.getKey();
-					List<String> posTags = entry.getValue();
-					String posTagString = String.join("|", posTags);
-
-					posStmt.setInt(1, pageId);
-					posStmt.setString(2, word);
-					posStmt.setString(3, posTagString);
-					posStmt.addBatch();
-				}
-				posStmt.executeBatch();
-
-				analyticsMap = Lemmatization.lemmatizeWords(page.getPageContent());
-
-//				lemmaStmt = conn.prepareStatement(lemmaQuery);
-
-				for (Map.Entry<String, String> entry : analyticsMap.entrySet()) {
-					String word = entry.getKey();
-					String lemma = entry.getValue();
-					String lemmaString = String.join("|", lemma);
+			CorpusNGramIndex.Delta nGrams = new CorpusNGramIndex.Delta();
+			insertPages(fileID, pages, page -> {
+			}, nGrams, pageStmt, transliteratetStmt, pageTokenStmt, pklStmt, pmiStmt);
+			corpusNGrams.apply(conn, nGrams);
 
-					lemmaStmt.setInt(1, pageId);
-					lemmaStmt.setString(2, word);
-					lemmaStmt.setString(3, lemmaString);
-					lemmaStmt.addBatch();
-				}
-				lemmaStmt.executeBatch();
-				analyticsMap = RootExtraction.extractRoots(page.getPageContent());
-
-//				rootStmt = conn.prepareStatement(rootQuery);
+			// Scored against the corpus that now contains this file, from the stored frequencies
+			Map<String, Integer> termCounts = DocumentFrequencyIndex.countTerms(content);
+			documentFrequencies.putDocument(conn, fileID, termCounts);
+			documentFrequencies.adjustDocumentCount(conn, 1);
+			double tfidf = documentFrequencies.score(conn, fileID, DocumentFrequencyIndex.totalWords(termCounts));
+			documentVectors.putVector(conn, fileID);
 
-				for (Map.Entry<String, String> entry : analyticsMap.entrySet()) {
-					String word = entry.getKey();
-					String root = entry.getValue();
-					String rootString = String.join("|", root);
-
-					rootStmt.setInt(1, pageId);
-					rootStmt.setString(2, word);
-					rootStmt.setString(3, rootString);
-					rootStmt.addBatch();
-				}
-				rootStmt.executeBatch();
-
-				analyticsMap = WordSegmentation.extractSegments(page.getPageContent());
-//				segmentStmt = conn.prepareStatement(segmentQuery);
-
-				for (Map.Entry<String, String> entry : analyticsMap.entrySet()) {
-					String word = entry.getKey();
-					String segment = entry.getValue();
-					String segmentString = String.join("|", segment);
-
-					segmentStmt.setInt(1, pageId);
-					segmentStmt.setString(2, word);
-					segmentStmt.setString(3, segmentString);
-					segmentStmt.addBatch();
-				}
-				segmentStmt.executeBatch();
-
-				analyticsMap = Stemmation.stemWords(page.getPageContent());
-//				stemStmt = conn.prepareStatement(stemQuery);
+//			tfidfStmt = conn.prepareStatement(tfidfQuery);
+			tfidfStmt.setInt(1, fileID);
+			tfidfStmt.setDouble(2, tfidf);
+			tfidfStmt.executeUpdate();
 
-				for (Map.Entry<String, String> entry : analyticsMap.entrySet()) {
-					String word = entry.getKey();
-					String stem = entry.getValue();
-					String stemString = String.join("|", stem);
+			conn.commit();
+			tfidfRecompute.requestRecompute();
+			return true;
 
-					stemStmt.setInt(1, pageId);
-					stemStmt.setString(2, word);
-					stemStmt.setString(3, stemString);
-					stemStmt.addBatch();
-				}
-				stemStmt.executeBatch();
+		} catch (Exception e) {
+			tokenDictionary.discard();
+			try {
+				conn.rollback();
+			} catch (SQLException e1) {
+				e1.printStackTrace();
+				LOGGER.error(e1.getMessage());
+			}
+			e.printStackTrace();
+			LOGGER.error(e.getMessage());
+		}
 
-				scoreMap = performPKL(page.getPageContent());
-//				pklStmt = conn.prepareStatement(pklQuery);
+		return false;
+	}
 
-				for (Map.Entry<String, Double> entry : scoreMap.entrySet()) {
-					String word = entry.getKey();
-					Double pkl = entry.getValue();
+	@Override
+	public synchronized boolean importFileInDB(String nameOfFile, Reader content) {
+		try (PageStream stream = new PageStream(content);
+				PreparedStatement fileStmt = conn.prepareStatement(INSERT_FILE_QUERY,
+						PreparedStatement.RETURN_GENERATED_KEYS);
+				PreparedStatement pageStmt = conn.prepareStatement(INSERT_PAGE_QUERY,
+						PreparedStatement.RETURN_GENERATED_KEYS);
+				PreparedStatement transliteratetStmt = conn.prepareStatement(INSERT_TRANSLITERATION_QUERY);
+				PreparedStatement pageTokenStmt = conn.prepareStatement(PAGE_TOKEN_QUERY);
+				PreparedStatement pklStmt = conn.prepareStatement(PAGE_PKL_QUERY);
+				PreparedStatement pmiStmt = conn.prepareStatement(PAGE_PMI_QUERY);
+				PreparedStatement hashStmt = conn.prepareStatement("UPDATE files SET fileHash = ? WHERE fileId = ?");
+				PreparedStatement tfidfStmt = conn.prepareStatement(INSERT_TFIDF_QUERY)) {
+			Map<String, Integer> termCounts = new HashMap<>();
+			StreamingTokenizer tokenizer = new StreamingTokenizer(ArabicNormalizer.getInstance(),
+					(token, pageNumber) -> termCounts.merge(token, 1, Integer::sum));
 
-					pklStmt.setInt(1, pageId);
-					pklStmt.setString(2, word);
-					pklStmt.setDouble(3, pkl);
-					pklStmt.addBatch();
-				}
-				pklStmt.executeBatch();
+			conn.setAutoCommit(false);
 
-				scoreMap = performPMI(page.getPageContent());
-//				pmiStmt = conn.prepareStatement(pmiQuery);
+			// The hash is only known after the last page, so it is filled in below
+			fileStmt.setString(1, nameOfFile);
+			fileStmt.setString(2, "");
+			fileStmt.executeUpdate();
 
-				for (Map.Entry<String, Double> entry : scoreMap.entrySet()) {
-					String word = entry.getKey();
-					Double pmi = entry.getValue();
+			ResultSet fileRS = fileStmt.getGeneratedKeys();
+			fileRS.next();
+			int fileID = fileRS.getInt(1);
 
-					pmiStmt.setInt(1, pageId);
-					pmiStmt.setString(2, word);
-					pmiStmt.setDouble(3, pmi);
-					pmiStmt.addBatch();
-				}
-				pmiStmt.executeBatch();
+			CorpusNGramIndex.Delta nGrams = new CorpusNGramIndex.Delta();
+			insertPages(fileID, stream, page -> tokenizer.feed(page.getPageContent(), page.getPageNumber()), nGrams,
+					pageStmt, transliteratetStmt, pageTokenStmt, pklStmt, pmiStmt);
+			tokenizer.finish();
+			corpusNGrams.apply(conn, nGrams);
 
-			}
+			hashStmt.setString(1, stream.getHash());
+			hashStmt.setInt(2, fileID);
+			hashStmt.executeUpdate();
 
-//			tfidfStmt = conn.prepareStatement(tfidfQuery);
+			documentFrequencies.putDocument(conn, fileID, termCounts);
+			documentFrequencies.adjustDocumentCount(conn, 1);
 			tfidfStmt.setInt(1, fileID);
-			tfidfStmt.setDouble(2, tfidf);
+			tfidfStmt.setDouble(2, documentFrequencies.score(conn, fileID, tokenizer.getTokenCount()));
 			tfidfStmt.executeUpdate();
+			documentVectors.putVector(conn, fileID);
 
 			conn.commit();
+			tfidfRecompute.requestRecompute();
 			return true;
 
 		} catch (Exception e) {
+			tokenDictionary.discard();
 			try {
 				conn.rollback();
 			} catch (SQLException e1) {
@@ -239,22 +199,74 @@ public class EditorDBDAO implements IEditorDBDAO {
 		return false;
 	}
 
+	/**
+	 * Writes pages in order while the following ones are analyzed on the
+	 * analysis pool. Pages are pulled lazily and at most a fixed window of them
+	 * is in flight, so memory does not grow with the length of the file. The
+	 * pages' n-gram counts are added to {@code nGrams}.
+	 */
+	private void insertPages(int fileId, Iterator<Pages> pages, Consumer<Pages> onRead, CorpusNGramIndex.Delta nGrams,
+			PreparedStatement pageStmt, PreparedStatement transliteratetStmt, PreparedStatement pageTokenStmt,
+			PreparedStatement pklStmt, PreparedStatement pmiStmt) throws Exception {
+		int window = PageAnalyzer.getPool().getParallelism() * PAGE_WINDOW_PER_THREAD;
+		Deque<Pages> pendingPages = new ArrayDeque<>();
+		Deque<Future<PageAnalysis>> pendingAnalyses = new ArrayDeque<>();
+		try {
+			while (pages.hasNext()) {
+				Pages page = pages.next();
+				onRead.accept(page);
+				pendingPages.add(page);
+				pendingAnalyses.add(PageAnalyzer.submit(page.getPageContent()));
+				if (pendingPages.size() >= window) {
+					insertPage(fileId, pendingPages.poll(), pendingAnalyses.poll().get(), nGrams, pageStmt,
+							transliteratetStmt, pageTokenStmt, pklStmt, pmiStmt);
+				}
+			}
+			while (!pendingPages.isEmpty()) {
+				insertPage(fileId, pendingPages.poll(), pendingAnalyses.poll().get(), nGrams, pageStmt,
+						transliteratetStmt, pageTokenStmt, pklStmt, pmiStmt);
+			}
+		} catch (Exception e) {
+			PageAnalyzer.cancelAll(pendingAnalyses);
+			throw e;
+		}
+	}
+
+	private int insertPage(int fileId, Pages page, PageAnalysis analysis, CorpusNGramIndex.Delta nGrams,
+			PreparedStatement pageStmt, PreparedStatement transliteratetStmt, PreparedStatement pageTokenStmt,
+			PreparedStatement pklStmt, PreparedStatement pmiStmt) throws SQLException {
+		// Insert into pages table
+		pageStmt.setInt(1, fileId);
+		pageStmt.setInt(2, page.getPageNumber());
+		pageStmt.setString(3, page.getPageContent());
+		pageStmt.executeUpdate();
+
+		ResultSet pageRS = pageStmt.getGeneratedKeys();
+		pageRS.next();
+		int pageId = pageRS.getInt(1);
+
+		// Transliteration
+		transliteratetStmt.setInt(1, pageId);
+		transliteratetStmt.setString(2, analysis.getTransliteratedText());
+		transliteratetStmt.executeUpdate();
+
+		// Morphology, PKL and PMI
+		insertPageAnalytics(pageId, analysis, pageTokenStmt, pklStmt, pmiStmt);
+		nGrams.add(analysis.getNGramCounts(), 1);
+		return pageId;
+	}
+
 	@Override
-	public boolean updateFileInDB(int fileId, String fileName, int pageNumber, String content) {
+	public synchronized boolean updateFileInDB(int fileId, String fileName, int pageNumber, String content) {
 
 		PreparedStatement fileStmt = null;
 		PreparedStatement pageStmt = null;
 		// PreparedStatement transliterateStmt = null;
-		PreparedStatement posStmt = null;
-		PreparedStatement lemmaStmt = null;
-		PreparedStatement rootStmt = null;
-		PreparedStatement segmentStmt = null;
-		PreparedStatement stemStmt = null;
-		PreparedStatement pklStmt = null;
-		PreparedStatement pmiStmt = null;
 		PreparedStatement tfidfStmt = null;
 
 		try {
+			// Analyzed before the transaction opens, so the connection is not held for it
+			PageAnalysis analysis = PageAnalyzer.analyze(content);
 
 			conn.setAutoCommit(false);
 
@@ -265,16 +277,8 @@ public class EditorDBDAO implements IEditorDBDAO {
 			fileStmt.setInt(2, fileId);
 			fileStmt.executeUpdate();
 
-			// Update page content
-			String pageQuery = "UPDATE pages SET pageContent = ? WHERE fileId = ? AND pageNumber = ?";
-			pageStmt = conn.prepareStatement(pageQuery);
-			pageStmt.setString(1, content);
-			pageStmt.setInt(2, fileId);
-			pageStmt.setInt(3, pageNumber);
-			pageStmt.executeUpdate();
-
-			// Get the pageId of the updated page
-			String pageIdQuery = "SELECT pageId FROM pages WHERE fileId = ? AND pageNumber = ?";
+			// Get the pageId and old content of the page, before it is overwritten
+			String pageIdQuery = "SELECT pageId, pageContent FROM pages WHERE fileId = ? AND pageNumber = ?";
 			PreparedStatement pageIdStmt = conn.prepareStatement(pageIdQuery);
 			pageIdStmt.setInt(1, fileId);
 			pageIdStmt.setInt(2, pageNumber);
@@ -283,6 +287,15 @@ public class EditorDBDAO implements IEditorDBDAO {
 				throw new SQLException("Page not found for the given fileId and pageNumber");
 			}
 			int pageId = pageIdRS.getInt("pageId");
+			String oldContent = pageIdRS.getString("pageContent");
+
+			// Update page content
+			String pageQuery = "UPDATE pages SET pageContent = ? WHERE fileId = ? AND pageNumber = ?";
+			pageStmt = conn.prepareStatement(pageQuery);
+			pageStmt.setString(1, content);
+			pageStmt.setInt(2, fileId);
+			pageStmt.setInt(3, pageNumber);
+			pageStmt.executeUpdate();
 
 //	        // Update transliteration
 //	        String transliteratedText = Transliteration.transliterate(content);
@@ -292,129 +305,27 @@ public class EditorDBDAO implements IEditorDBDAO {
 //	        transliterateStmt.setInt(2, pageId);
 //	        transliterateStmt.executeUpdate();
 
-			// Update POS tagging
-			Map<String, List<String>> posTagsMap = POSTagger.extractPOS(content);
-			String deletePosQuery = "DELETE FROM pos WHERE pageId = ?";
-			posStmt = conn.prepareStatement(deletePosQuery);
-			posStmt.setInt(1, pageId);
-			posStmt.executeUpdate();
-
-			String insertPosQuery = "INSERT INTO pos (pageId, word, pos) VALUES (?, ?, ?)";
-			posStmt = conn.prepareStatement(insertPosQuery);
-			for (Map.Entry<String, List<String>> entry : posTagsMap.entrySet()) {
-				String word = entry.getKey();
-				String posTags = String.join("|", entry.getValue());
-				posStmt.setInt(1, pageId);
-				posStmt.setString(2, word);
-				posStmt.setString(3, posTags);
-				posStmt.addBatch();
-			}
-			posStmt.executeBatch();
-
-			// Update lemmatization
-			Map<String, String> lemmaMap = Lemmatization.lemmatizeWords(content);
-			String deleteLemmaQuery = "DELETE FROM lemmatization WHERE pageId = ?";
-			lemmaStmt = conn.prepareStatement(deleteLemmaQuery);
-			lemmaStmt.setInt(1, pageId);
-			lemmaStmt.executeUpdate();
-
-			String insertLemmaQuery = "INSERT INTO lemmatization (pageId, word, lemma) VALUES (?, ?, ?)";
-			lemmaStmt = conn.prepareStatement(insertLemmaQuery);
-			for (Map.Entry<String, String> entry : lemmaMap.entrySet()) {
-				lemmaStmt.setInt(1, pageId);
-				lemmaStmt.setString(2, entry.getKey());
-				lemmaStmt.setString(3, entry.getValue());
-				lemmaStmt.addBatch();
-			}
-			lemmaStmt.executeBatch();
-
-			// Update root extraction
-			Map<String, String> rootMap = RootExtraction.extractRoots(content);
-			String deleteRootQuery = "DELETE FROM rootextraction WHERE pageId = ?";
-			rootStmt = conn.prepareStatement(deleteRootQuery);
-			rootStmt.setInt(1, pageId);
-			rootStmt.executeUpdate();
-
-			String insertRootQuery = "INSERT INTO rootextraction (pageId, word, root) VALUES (?, ?, ?)";
-			rootStmt = conn.prepareStatement(insertRootQuery);
-			for (Map.Entry<String, String> entry : rootMap.entrySet()) {
-				rootStmt.setInt(1, pageId);
-				rootStmt.setString(2, entry.getKey());
-				rootStmt.setString(3, entry.getValue());
-				rootStmt.addBatch();
-			}
-			rootStmt.executeBatch();
-
-			// Update word segmentation
-			Map<String, String> segmentMap = WordSegmentation.extractSegments(content);
-			String deleteSegmentQuery = "DELETE FROM wordsegementation WHERE pageId = ?";
-			segmentStmt = conn.prepareStatement(deleteSegmentQuery);
-			segmentStmt.setInt(1, pageId);
-			segmentStmt.executeUpdate();
-
-			String insertSegmentQuery = "INSERT INTO wordsegementation (pageId, word, segment) VALUES (?, ?, ?)";
-			segmentStmt = conn.prepareStatement(insertSegmentQuery);
-			for (Map.Entry<String, String> entry : segmentMap.entrySet()) {
-				segmentStmt.setInt(1, pageId);
-				segmentStmt.setString(2, entry.getKey());
-				segmentStmt.setString(3, entry.getValue());
-				segmentStmt.addBatch();
-			}
-			segmentStmt.executeBatch();
-
-			// Update stemming
-			Map<String, String> stemMap = Stemmation.stemWords(content);
-			String deleteStemQuery = "DELETE FROM stemmation WHERE pageId = ?";
-			stemStmt = conn.prepareStatement(deleteStemQuery);
-			stemStmt.setInt(1, pageId);
-			stemStmt.executeUpdate();
-
-			String insertStemQuery = "INSERT INTO stemmation (pageId, word, stem) VALUES (?, ?, ?)";
-			stemStmt = conn.prepareStatement(insertStemQuery);
-			for (Map.Entry<String, String> entry : stemMap.entrySet()) {
-				stemStmt.setInt(1, pageId);
-				stemStmt.setString(2, entry.getKey());
-				stemStmt.setString(3, entry.getValue());
-				stemStmt.addBatch();
-			}
-			stemStmt.executeBatch();
-
-			// Update PKL
-			Map<String, Double> pklMap = performPKL(content);
-			String deletePklQuery = "DELETE FROM pkl WHERE pageId = ?";
-			pklStmt = conn.prepareStatement(deletePklQuery);
-			pklStmt.setInt(1, pageId);
-			pklStmt.executeUpdate();
-
-			String insertPklQuery = "INSERT INTO pkl (pageId, word, pklScore) VALUES (?, ?, ?)";
-			pklStmt = conn.prepareStatement(insertPklQuery);
-			for (Map.Entry<String, Double> entry : pklMap.entrySet()) {
-				pklStmt.setInt(1, pageId);
-				pklStmt.setString(2, entry.getKey());
-				pklStmt.setDouble(3, entry.getValue());
-				pklStmt.addBatch();
+			// Update morphology, PKL and PMI
+			deletePageAnalytics(pageId);
+			try (PreparedStatement pageTokenStmt = conn.prepareStatement(PAGE_TOKEN_QUERY);
+					PreparedStatement pklStmt = conn.prepareStatement(PAGE_PKL_QUERY);
+					PreparedStatement pmiStmt = conn.prepareStatement(PAGE_PMI_QUERY)) {
+				insertPageAnalytics(pageId, analysis, pageTokenStmt, pklStmt, pmiStmt);
 			}
-			pklStmt.executeBatch();
 
-			// Update PMI
-			Map<String, Double> pmiMap = performPMI(content);
-			String deletePmiQuery = "DELETE FROM pmi WHERE pageId = ?";
-			pmiStmt = conn.prepareStatement(deletePmiQuery);
-			pmiStmt.setInt(1, pageId);
-			pmiStmt.executeUpdate();
-
-			String insertPmiQuery = "INSERT INTO pmi (pageId, word, pmiScore) VALUES (?, ?, ?)";
-			pmiStmt = conn.prepareStatement(insertPmiQuery);
-			for (Map.Entry<String, Double> entry : pmiMap.entrySet()) {
-				pmiStmt.setInt(1, pageId);
-				pmiStmt.setString(2, entry.getKey());
-				pmiStmt.setDouble(3, entry.getValue());
-				pmiStmt.addBatch();
-			}
-			pmiStmt.executeBatch();
+			// Corpus n-gram counts move by the difference between old and new page
+			CorpusNGramIndex.Delta nGrams = new CorpusNGramIndex.Delta();
+			nGrams.removePage(oldContent);
+			nGrams.add(analysis.getNGramCounts(), 1);
+			corpusNGrams.apply(conn, nGrams);
 
 			// Update TF-IDF
-			double tfidf = performTFIDF(getAllExistingFilesContent(conn), content);
+			// The whole document is rescored; only its own term rows are touched
+			Map<String, Integer> termCounts = DocumentFrequencyIndex
+					.countTerms(DocumentFrequencyIndex.readDocument(conn, fileId));
+			documentFrequencies.putDocument(conn, fileId, termCounts);
+			double tfidf = documentFrequencies.score(conn, fileId, DocumentFrequencyIndex.totalWords(termCounts));
+			documentVectors.putVector(conn, fileId);
 			String tfidfQuery = "UPDATE tfidf SET tfidfScore = ? WHERE fileId = ?";
 			tfidfStmt = conn.prepareStatement(tfidfQuery);
 			tfidfStmt.setDouble(1, tfidf);
@@ -422,8 +333,10 @@ public class EditorDBDAO implements IEditorDBDAO {
 			tfidfStmt.executeUpdate();
 
 			conn.commit();
+			tfidfRecompute.requestRecompute();
 			return true;
 		} catch (Exception e) {
+			tokenDictionary.discard();
 			try {
 
 				conn.rollback();
@@ -439,16 +352,236 @@ public class EditorDBDAO implements IEditorDBDAO {
 	}
 
 	@Override
-	public boolean deleteFileInDB(int id) {
+	public synchronized boolean rebalancePagesInDB(int fileId, int pageNumber) {
+		String neighbourQuery = "SELECT pageId, fileId, pageNumber, pageContent FROM pages "
+				+ "WHERE fileId = ? AND pageNumber BETWEEN ? AND ?";
+		Map<Integer, Pages> neighbours = new HashMap<>();
+		List<Future<PageAnalysis>> analyses = new ArrayList<>();
+
+		try {
+			conn.setAutoCommit(false);
+
+			try (PreparedStatement neighbourStmt = conn.prepareStatement(neighbourQuery)) {
+				neighbourStmt.setInt(1, fileId);
+				neighbourStmt.setInt(2, pageNumber - 1);
+				neighbourStmt.setInt(3, pageNumber + 1);
+				try (ResultSet rs = neighbourStmt.executeQuery()) {
+					while (rs.next()) {
+						neighbours.put(rs.getInt("pageNumber"), new Pages(rs.getInt("pageId"), rs.getInt("fileId"),
+								rs.getInt("pageNumber"), rs.getString("pageContent")));
+					}
+				}
+			}
+			Pages current = neighbours.get(pageNumber);
+			if (current == null) {
+				throw new SQLException("Page not found for the given fileId and pageNumber");
+			}
+
+			PaginationDAO.Rebalance plan = PaginationDAO.planRebalance(contentOf(neighbours.get(pageNumber - 1)),
+					current.getPageContent(), contentOf(neighbours.get(pageNumber + 1)), pageNumber);
+			if (plan == null) {
+				conn.commit();
+				return true;
+			}
+
+			// Only pages whose text changes are analyzed again
+			int newCount = plan.contents.size();
+			for (int i = 0; i < newCount; i++) {
+				Pages old = i < plan.oldCount ? neighbours.get(plan.firstPageNumber + i) : null;
+				String content = plan.contents.get(i);
+				analyses.add(old != null && old.getPageContent().equals(content) ? null : PageAnalyzer.submit(content));
+			}
+
+			int lastOldNumber = plan.firstPageNumber + plan.oldCount - 1;
+			int shift = newCount - plan.oldCount;
+			CorpusNGramIndex.Delta nGrams = new CorpusNGramIndex.Delta();
+			try (PreparedStatement deleteStmt = conn.prepareStatement("DELETE FROM pages WHERE pageId = ?")) {
+				for (int i = newCount; i < plan.oldCount; i++) {
+					Pages old = neighbours.get(plan.firstPageNumber + i);
+					nGrams.removePage(old.getPageContent());
+					deleteStmt.setInt(1, old.getPageId());
+					deleteStmt.addBatch();
+				}
+				deleteStmt.executeBatch();
+			}
+			if (shift != 0) {
+				// One set-based renumbering; the order keeps (fileId, pageNumber) unique at every row
+				String shiftQuery = "UPDATE pages SET pageNumber = pageNumber + ? WHERE fileId = ? AND pageNumber > ? "
+						+ "ORDER BY pageNumber " + (shift > 0 ? "DESC" : "ASC");
+				try (PreparedStatement shiftStmt = conn.prepareStatement(shiftQuery)) {
+					shiftStmt.setInt(1, shift);
+					shiftStmt.setInt(2, fileId);
+					shiftStmt.setInt(3, lastOldNumber);
+					shiftStmt.executeUpdate();
+				}
+			}
+
+			try (PreparedStatement contentStmt = conn.prepareStatement("UPDATE pages SET pageContent = ? WHERE pageId = ?");
+					PreparedStatement transliterationDeleteStmt = conn
+							.prepareStatement("DELETE FROM transliteratedpages WHERE pageId = ?");
+					PreparedStatement pageStmt = conn.prepareStatement(INSERT_PAGE_QUERY,
+							PreparedStatement.RETURN_GENERATED_KEYS);
+					PreparedStatement transliteratetStmt = conn.prepareStatement(INSERT_TRANSLITERATION_QUERY);
+					PreparedStatement pageTokenStmt = conn.prepareStatement(PAGE_TOKEN_QUERY);
+					PreparedStatement pklStmt = conn.prepareStatement(PAGE_PKL_QUERY);
+					PreparedStatement pmiStmt = conn.prepareStatement(PAGE_PMI_QUERY)) {
+				for (int i = 0; i < newCount; i++) {
+					if (analyses.get(i) == null) {
+						continue;
+					}
+					PageAnalysis analysis = analyses.get(i).get();
+					String content = plan.contents.get(i);
+					if (i < plan.oldCount) {
+						Pages old = neighbours.get(plan.firstPageNumber + i);
+						int pageId = old.getPageId();
+						contentStmt.setString(1, content);
+						contentStmt.setInt(2, pageId);
+						contentStmt.executeUpdate();
+
+						transliterationDeleteStmt.setInt(1, pageId);
+						transliterationDeleteStmt.executeUpdate();
+						transliteratetStmt.setInt(1, pageId);
+						transliteratetStmt.setString(2, analysis.getTransliteratedText());
+						transliteratetStmt.executeUpdate();
+
+						deletePageAnalytics(pageId);
+						insertPageAnalytics(pageId, analysis, pageTokenStmt, pklStmt, pmiStmt);
+						nGrams.removePage(old.getPageContent());
+						nGrams.add(analysis.getNGramCounts(), 1);
+					} else {
+						insertPage(fileId, new Pages(0, fileId, plan.firstPageNumber + i, content), analysis, nGrams,
+								pageStmt, transliteratetStmt, pageTokenStmt, pklStmt, pmiStmt);
+					}
+				}
+			}
+			corpusNGrams.apply(conn, nGrams);
+
+			conn.commit();
+			return true;
+		} catch (Exception e) {
+			PageAnalyzer.cancelAll(analyses);
+			tokenDictionary.discard();
+			try {
+				conn.rollback();
+			} catch (SQLException rollbackEx) {
+				rollbackEx.printStackTrace();
+				LOGGER.error(rollbackEx.getMessage());
+			}
+			e.printStackTrace();
+			LOGGER.error(e.getMessage());
+			return false;
+		}
+	}
+
+	private static String contentOf(Pages page) {
+		return page == null ? null : page.getPageContent();
+	}
+
+	private void insertPageAnalytics(int pageId, PageAnalysis analysis, PreparedStatement pageTokenStmt,
+			PreparedStatement pklStmt, PreparedStatement pmiStmt) throws SQLException {
+		MorphologyBatch morphology = analysis.getMorphology();
+		String[] tokens = morphology.getTokens();
+
+		Set<String> surfaces = new HashSet<>(Arrays.asList(tokens));
+		for (String key : analysis.getPklScores().keySet()) {
+			surfaces.addAll(Arrays.asList(PKLCalculator.splitKey(key)));
+		}
+		for (String key : analysis.getPmiScores().keySet()) {
+			surfaces.addAll(Arrays.asList(PMICalculator.splitKey(key)));
+		}
+
+		Map<String, Integer> tokenIds = tokenDictionary.resolve(conn, surfaces);
+		tokenDictionary.writeAnalyses(conn, tokenIds, morphology);
+
+		// POS, lemma, root, stem and segment are stored once per token in token_analysis
+		for (int i = 0; i < tokens.length; i++) {
+			Integer tokenId = tokenIds.get(tokens[i]);
+			if (tokenId != null) {
+				pageTokenStmt.setInt(1, pageId);
+				pageTokenStmt.setInt(2, tokenId);
+				pageTokenStmt.addBatch();
+			}
+		}
+		pageTokenStmt.executeBatch();
+
+		for (Map.Entry<String, Double> entry : analysis.getPklScores().entrySet()) {
+			String[] words = PKLCalculator.splitKey(entry.getKey());
+			Integer tokenId = tokenIds.get(words[0]);
+			Integer leftTokenId = tokenIds.get(words[1]);
+			Integer rightTokenId = tokenIds.get(words[2]);
+			if (tokenId != null && leftTokenId != null && rightTokenId != null) {
+				pklStmt.setInt(1, pageId);
+				pklStmt.setInt(2, tokenId);
+				pklStmt.setInt(3, leftTokenId);
+				pklStmt.setInt(4, rightTokenId);
+				pklStmt.setDouble(5, entry.getValue());
+				pklStmt.addBatch();
+			}
+		}
+		pklStmt.executeBatch();
+
+		for (Map.Entry<String, Double> entry : analysis.getPmiScores().entrySet()) {
+			String[] words = PMICalculator.splitKey(entry.getKey());
+			Integer firstTokenId = tokenIds.get(words[0]);
+			Integer secondTokenId = tokenIds.get(words[1]);
+			if (firstTokenId != null && secondTokenId != null) {
+				pmiStmt.setInt(1, pageId);
+				pmiStmt.setInt(2, firstTokenId);
+				pmiStmt.setInt(3, secondTokenId);
+				pmiStmt.setDouble(4, entry.getValue());
+				pmiStmt.addBatch();
+			}
+		}
+		pmiStmt.executeBatch();
+	}
+
+	private void deletePageAnalytics(int pageId) throws SQLException {
+		for (String table : new String[] { "page_tokens", "page_pkl", "page_pmi" }) {
+			try (PreparedStatement deleteStmt = conn.prepareStatement("DELETE FROM " + table + " WHERE pageId = ?")) {
+				deleteStmt.setInt(1, pageId);
+				deleteStmt.executeUpdate();
+			}
+		}
+	}
+
+	@Override
+	public synchronized boolean deleteFileInDB(int id) {
 		String query = "DELETE FROM FILES WHERE fileId = ?";
 		try (PreparedStatement fileStmt = conn.prepareStatement(query)) {
+			conn.setAutoCommit(false);
 
+			// The file's terms leave the document frequencies, and its pages the corpus
+			// n-gram counts, in the same transaction
+			documentFrequencies.removeDocument(conn, id);
+			CorpusNGramIndex.Delta nGrams = new CorpusNGramIndex.Delta();
+			try (PreparedStatement pageStmt = conn.prepareStatement("SELECT pageContent FROM pages WHERE fileId = ?")) {
+				pageStmt.setInt(1, id);
+				try (ResultSet rs = pageStmt.executeQuery()) {
+					while (rs.next()) {
+						nGrams.removePage(rs.getString(1));
+					}
+				}
+			}
+			corpusNGrams.apply(conn, nGrams);
 			fileStmt.setInt(1, id);
 			int rowsAffected = fileStmt.executeUpdate();
+			if (rowsAffected > 0) {
+				documentFrequencies.adjustDocumentCount(conn, -1);
+			}
 
+			conn.commit();
+			if (rowsAffected > 0) {
+				tfidfRecompute.requestRecompute();
+			}
 			return rowsAffected > 0;
 
 		} catch (SQLException e) {
+			try {
+				conn.rollback();
+			} catch (SQLException rollbackEx) {
+				rollbackEx.printStackTrace();
+				LOGGER.error(rollbackEx.getMessage());
+			}
 			e.printStackTrace();
 			LOGGER.error(e.getMessage());
 			return false;
@@ -474,7 +607,7 @@ public class EditorDBDAO implements IEditorDBDAO {
 //	}
 
 	@Override
-	public List<Documents> getFilesFromDB() {
+	public synchronized List<Documents> getFilesFromDB() {
 		List<Documents> documents = new ArrayList<>();
 
 		PreparedStatement stmt = null;
@@ -521,8 +654,105 @@ public class EditorDBDAO implements IEditorDBDAO {
 		return documents;
 	}
 
+	/** One file with its pages in page order, or null if there is no such file. */
+	@Override
+	public synchronized Documents getFileFromDB(int fileId) {
+		try (PreparedStatement fileStmt = conn.prepareStatement(
+				"SELECT fileId, fileName, fileHash, dateCreated, lastModified FROM files WHERE fileId = ?");
+				PreparedStatement pageStmt = conn.prepareStatement(
+						"SELECT pageId, fileId, pageNumber, pageContent FROM pages WHERE fileId = ? ORDER BY pageNumber")) {
+			conn.setAutoCommit(false);
+			Documents document = null;
+			fileStmt.setInt(1, fileId);
+			try (ResultSet rs = fileStmt.executeQuery()) {
+				if (rs.next()) {
+					List<Pages> pages = new ArrayList<>();
+					pageStmt.setInt(1, fileId);
+					try (ResultSet pageRS = pageStmt.executeQuery()) {
+						while (pageRS.next()) {
+							pages.add(new Pages(pageRS.getInt("pageId"), pageRS.getInt("fileId"),
+									pageRS.getInt("pageNumber"), pageRS.getString("pageContent")));
+						}
+					}
+					document = new Documents(rs.getInt("fileId"), rs.getString("fileName"), rs.getString("fileHash"),
+							rs.getString("lastModified"), rs.getString("dateCreated"), pages);
+				}
+			}
+			conn.commit();
+			return document;
+		} catch (Exception e) {
+			try {
+				conn.rollback();
+			} catch (SQLException rollbackEx) {
+				rollbackEx.printStackTrace();
+				LOGGER.error(rollbackEx.getMessage());
+			}
+			e.printStackTrace();
+			LOGGER.error(e.getMessage());
+			return null;
+		}
+	}
+
+	@Override
+	public synchronized List<Integer> getFileIdsFromDB() {
+		List<Integer> fileIds = new ArrayList<>();
+		try (Statement stmt = conn.createStatement()) {
+			conn.setAutoCommit(false);
+			try (ResultSet rs = stmt.executeQuery("SELECT fileId FROM files")) {
+				while (rs.next()) {
+					fileIds.add(rs.getInt(1));
+				}
+			}
+			// Do not leave a read transaction, and its snapshot, open on the connection
+			conn.commit();
+		} catch (SQLException e) {
+			try {
+				conn.rollback();
+			} catch (SQLException rollbackEx) {
+				rollbackEx.printStackTrace();
+				LOGGER.error(rollbackEx.getMessage());
+			}
+			e.printStackTrace();
+			LOGGER.error(e.getMessage());
+		}
+		return fileIds;
+	}
+
+	@Override
+	public synchronized List<SimilarDocument> findSimilarDocumentsInDB(int fileId, int k) {
+		try {
+			return documentVectors.findSimilar(conn, fileId, k);
+		} catch (SQLException e) {
+			e.printStackTrace();
+			LOGGER.error(e.getMessage());
+			return new ArrayList<>();
+		}
+	}
+
+	@Override
+	public synchronized double getTfidfScoreFromDB(int fileId) {
+		try {
+			return documentFrequencies.scoreDocuments(conn, fileId).getOrDefault(fileId, 0.0);
+		} catch (SQLException e) {
+			e.printStackTrace();
+			LOGGER.error(e.getMessage());
+			return 0.0;
+		}
+	}
+
+	@Override
+	public synchronized Map<Integer, Double> getTfidfScoresFromDB() {
+		try {
+			return documentFrequencies.scoreDocuments(conn, null);
+		} catch (SQLException e) {
+			e.printStackTrace();
+			LOGGER.error(e.getMessage());
+			return new HashMap<>();
+		}
+	}
+
 	@Override
-	public String transliterateInDB(int pageId, String arabicText) {
+	public synchronized String transliterateInDB(int pageId, String arabicText) {
 		String content;
 		String deleteQuery = "DELETE FROM transliteratedpages WHERE pageId = ?";
 		String insertQuery = "INSERT INTO transliteratedpages (pageId, transliteratedText) VALUES (?, ?)";
@@ -566,44 +796,35 @@ public class EditorDBDAO implements IEditorDBDAO {
 		}
 	}
 
-	private List<String> getAllExistingFilesContent(Connection conn) throws SQLException {
-		List<String> allFilesContent = new ArrayList<>();
-		String query = "SELECT f.fileId, GROUP_CONCAT(p.pageContent ORDER BY p.pageNumber SEPARATOR '') AS fileContent "
-				+ "FROM files f " + "JOIN pages p ON f.fileId = p.fileId " + "GROUP BY f.fileId";
-
-		try (Statement stmt = conn.createStatement(); ResultSet rs = stmt.executeQuery(query)) {
-			while (rs.next()) {
-				allFilesContent.add(rs.getString("fileContent"));
-			}
-		}
-		return allFilesContent;
-	}
-
 	@Override
 	public synchronized Map<String, String> lemmatizeWords(String text) {
 		// TODO Auto-generated method stub
-		return Lemmatization.lemmatizeWords(PreProcessText.preprocessText(text));
+		return Lemmatization.lemmatizeWords(MorphologyAnalyzer.analyzeWords(PreprocessedText.of(text)));
 	}
 
 	@Override
 	public synchronized Map<String, List<String>> extractPOS(String text) {
 		// TODO Auto-generated method stub
-		return POSTagger.extractPOS(PreProcessText.preprocessText(text));
+		return POSTagger.extractPOS(MorphologyAnalyzer.analyzeWords(PreprocessedText.of(text)));
 	}
 
 	@Override
 	public synchronized Map<String, String> extractRoots(String text) {
 		// TODO Auto-generated method stub
-		return RootExtraction.extractRoots(PreProcessText.preprocessText(text));
+		return RootExtraction.extractRoots(MorphologyAnalyzer.analyzeWords(PreprocessedText.of(text)));
 	}
 
 	@Override
 	public synchronized double performTFIDF(List<String> unSelectedDocsContent, String selectedDocContent) {
-		TFIDFCalculator tfidf = new TFIDFCalculator();
-		for (String unSelectedDocContent : unSelectedDocsContent) {
-			tfidf.addDocumentToCorpus(unSelectedDocContent);
+		// Scoring several documents against the same corpus reuses its IDF model
+		if (!unSelectedDocsContent.equals(tfidfCorpus)) {
+			tfidfCorpus = new ArrayList<>(unSelectedDocsContent);
+			tfidfCalculator = new TFIDFCalculator();
+			for (String unSelectedDocContent : tfidfCorpus) {
+				tfidfCalculator.addDocumentToCorpus(unSelectedDocContent);
+			}
 		}
-		return tfidf.calculateDocumentTfIdf(selectedDocContent);
+		return tfidfCalculator.calculateDocumentTfIdf(selectedDocContent);
 	}
 
 	@Override
@@ -615,6 +836,28 @@ public class EditorDBDAO implements IEditorDBDAO {
 		return pmiScores;
 	}
 
+	@Override
+	public synchronized double getCorpusPMIFromDB(String word1, String word2) {
+		try {
+			return CorpusNGramIndex.pmi(conn, word1, word2);
+		} catch (SQLException e) {
+			e.printStackTrace();
+			LOGGER.error(e.getMessage());
+			return Double.NEGATIVE_INFINITY;
+		}
+	}
+
+	@Override
+	public synchronized Map<String, Double> getCorpusPMIFromDB(String content) {
+		try {
+			return CorpusNGramIndex.pmiOfText(conn, content);
+		} catch (SQLException e) {
+			e.printStackTrace();
+			LOGGER.error(e.getMessage());
+			return new HashMap<>();
+		}
+	}
+
 	@Override
 	public synchronized Map<String, Double> performPKL(String content) {
 		// TODO Auto-generated method stub
@@ -626,13 +869,13 @@ public class EditorDBDAO implements IEditorDBDAO {
 	@Override
 	public synchronized Map<String, String> stemWords(String text) {
 		// TODO Auto-generated method stub
-		return Stemmation.stemWords(PreProcessText.preprocessText(text));
+		return Stemmation.stemWords(MorphologyAnalyzer.analyzeWords(PreprocessedText.of(text)));
 	}
 
 	@Override
 	public synchronized Map<String, String> segmentWords(String text) {
 		// TODO Auto-generated method stub
-		return WordSegmentation.extractSegments(PreProcessText.preprocessText(text));
+		return WordSegmentation.extractSegments(MorphologyAnalyzer.analyzeWords(PreprocessedText.of(text)));
 	}
 
 }
\ No newline at end of file
@@ -1,9 +1,11 @@
 package dal;
 
+import java.io.Reader;
 import java.util.List;
 import java.util.Map;
 
 import dto.Documents;
+import dto.SimilarDocument;
 
 public class FacadeDAO implements IFacadeDAO {
 
@@ -18,11 +20,21 @@ public class FacadeDAO implements IFacadeDAO {
 		return mariaDB.createFileInDB(nameOfFile, content);
 	}
 
+	@Override
+	public boolean importFileInDB(String nameOfFile, Reader content) {
+		return mariaDB.importFileInDB(nameOfFile, content);
+	}
+
 	@Override
 	public boolean updateFileInDB(int id, String fileName, int pageNumber, String content) {
 		return mariaDB.updateFileInDB(id, fileName, pageNumber, content);
 	}
 
+	@Override
+	public boolean rebalancePagesInDB(int fileId, int pageNumber) {
+		return mariaDB.rebalancePagesInDB(fileId, pageNumber);
+	}
+
 	@Override
 	public boolean deleteFileInDB(int id) {
 		return mariaDB.deleteFileInDB(id);
@@ -33,6 +45,31 @@ public class FacadeDAO implements IFacadeDAO {
 		return mariaDB.getFilesFromDB();
 	}
 
+	@Override
+	public Documents getFileFromDB(int fileId) {
+		return mariaDB.getFileFromDB(fileId);
+	}
+
+	@Override
+	public List<Integer> getFileIdsFromDB() {
+		return mariaDB.getFileIdsFromDB();
+	}
+
+	@Override
+	public List<SimilarDocument> findSimilarDocumentsInDB(int fileId, int k) {
+		return mariaDB.findSimilarDocumentsInDB(fileId, k);
+	}
+
+	@Override
+	public double getTfidfScoreFromDB(int fileId) {
+		return mariaDB.getTfidfScoreFromDB(fileId);
+	}
+
+	@Override
+	public Map<Integer, Double> getTfidfScoresFromDB() {
+		return mariaDB.getTfidfScoresFromDB();
+	}
+
 	@Override
 	public String transliterateInDB(int pageId, String arabicText) {
 		// TODO Auto-generated method stub
@@ -70,6 +107,16 @@ public class FacadeDAO implements IFacadeDAO {
 		return mariaDB.performPMI(content);
 	}
 
+	@Override
+	public double getCorpusPMIFromDB(String word1, String word2) {
+		return mariaDB.getCorpusPMIFromDB(word1, word2);
+	}
+
+	@Override
+	public Map<String, Double> getCorpusPMIFromDB(String content) {
+		return mariaDB.getCorpusPMIFromDB(content);
+	}
+
 	@Override
 	public Map<String, Double> performPKL(String content) {
 		// TODO Auto-generated method stub
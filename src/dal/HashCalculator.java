@@ -2,14 +2,23 @@ package dal;
 
 import java.nio.charset.StandardCharsets;
 import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 
 public class HashCalculator {
 	  public static String calculateHash(String text) throws Exception {
-	        MessageDigest md = MessageDigest.getInstance("MD5");
+	        MessageDigest md = newDigest();
 	        byte[] textBytes = text.getBytes(StandardCharsets.UTF_8);
-	        byte[] hashBytes = md.digest(textBytes);
-	        String hexHash = bytesToHex(hashBytes);
-	        return hexHash;
+	        md.update(textBytes);
+	        return digestToHex(md);
+	    }
+
+	    /** Digest for hashing content that arrives in pieces; see {@link PageStream}. */
+	    static MessageDigest newDigest() throws NoSuchAlgorithmException {
+	        return MessageDigest.getInstance("MD5");
+	    }
+
+	    static String digestToHex(MessageDigest md) {
+	        return bytesToHex(md.digest());
 	    }
 
 	    private static String bytesToHex(byte[] bytes) {
@@ -1,19 +1,35 @@
 package dal;
 
+import java.io.Reader;
 import java.util.List;
 import java.util.Map;
 
 import dto.Documents;
+import dto.SimilarDocument;
 
 public interface IEditorDBDAO {
 	boolean createFileInDB(String nameOfFile, String content);
 
+	boolean importFileInDB(String nameOfFile, Reader content);
+
 	boolean updateFileInDB(int id, String fileName, int pageNumber, String content);
 
+	boolean rebalancePagesInDB(int fileId, int pageNumber);
+
 	boolean deleteFileInDB(int id);
 
 	List<Documents> getFilesFromDB();
 
+	Documents getFileFromDB(int fileId);
+
+	List<Integer> getFileIdsFromDB();
+
+	List<SimilarDocument> findSimilarDocumentsInDB(int fileId, int k);
+
+	double getTfidfScoreFromDB(int fileId);
+
+	Map<Integer, Double> getTfidfScoresFromDB();
+
 	String transliterateInDB(int pageId, String arabicText);
 
 	Map<String, String> lemmatizeWords(String text);
@@ -26,6 +42,10 @@ public interface IEditorDBDAO {
 
 	Map<String, Double> performPMI(String content);
 
+	double getCorpusPMIFromDB(String word1, String word2);
+
+	Map<String, Double> getCorpusPMIFromDB(String content);
+
 	Map<String, Double> performPKL(String content);
 
 	Map<String, String> stemWords(String text);
@@ -0,0 +1,60 @@
+package dal;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Lock-free latency histogram with power-of-two microsecond buckets. Bucket i
+ * counts samples in [2^(i-1), 2^i) microseconds; percentiles report the upper
+ * bound of the bucket they fall in.
+ */
+public class LatencyHistogram {
+	private static final int BUCKETS = 40;
+
+	private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+	private final AtomicLong total = new AtomicLong();
+	private final AtomicLong max = new AtomicLong();
+
+	public void record(long nanos) {
+		long micros = Math.max(0, nanos / 1000);
+		int bucket = Math.min(BUCKETS - 1, 64 - Long.numberOfLeadingZeros(micros));
+		counts.incrementAndGet(bucket);
+		total.incrementAndGet();
+
+		long currentMax;
+		while (micros > (currentMax = max.get()) && !max.compareAndSet(currentMax, micros)) {
+			// retry until max is updated or another thread recorded a larger value
+		}
+	}
+
+	public long getCount() {
+		return total.get();
+	}
+
+	public long getMaxMicros() {
+		return max.get();
+	}
+
+	public long getPercentileMicros(double percentile) {
+		long count = total.get();
+		if (count == 0) {
+			return 0;
+		}
+		long rank = (long) Math.ceil(count * percentile / 100.0);
+		long seen = 0;
+		for (int i = 0; i < BUCKETS; i++) {
+			seen += counts.get(i);
+			if (seen >= rank) {
+				return Math.min(i == 0 ? 0 : 1L << i, max.get());
+			}
+		}
+		return max.get();
+	}
+
+	@Override
+	public String toString() {
+		return "count=" + getCount() + ", p50=" + getPercentileMicros(50) + "us, p90=" + getPercentileMicros(90)
+				+ "us, p99=" + getPercentileMicros(99) + "us, p99.9=" + getPercentileMicros(99.9) + "us, max="
+				+ getMaxMicros() + "us";
+	}
+}
@@ -3,40 +3,19 @@ package dal;
 import java.util.HashMap;
 import java.util.Map;
 
-import org.apache.logging.log4j.LogManager;
-import org.apache.logging.log4j.Logger;
-
-import net.oujda_nlp_team.AlKhalil2Analyzer;
-import pl.EditorPO;
+import dto.TokenAnalysis;
 
 public class Lemmatization {
 
 	public static Map<String, String> lemmatizeWords(String text) {
-		final Logger logger = LogManager.getLogger(EditorPO.class);
-		Map<String, String> wordLemmaMap = new HashMap<>();
-
-		String[] words = text.split("\\s+");
-
-		try {
-			AlKhalil2Analyzer analyzer = AlKhalil2Analyzer.getInstance();
+		return lemmatizeWords(MorphologyAnalyzer.analyzeWords(text));
+	}
 
-			if (analyzer != null) {
-				for (String word : words) {
-					String lemma = analyzer.processToken(word).getAllLemmasString();
+	static Map<String, String> lemmatizeWords(Map<String, TokenAnalysis> analyses) {
+		Map<String, String> wordLemmaMap = new HashMap<>();
 
-					if (lemma != null && !lemma.isEmpty()) {
-						wordLemmaMap.put(word, PreProcessText.preprocessText(lemma));
-					} else {
-						wordLemmaMap.put(word, "Not found");
-					}
-				}
-			} else {
-				System.err.println("Failed to initialize AlKhalil2Analyzer.");
-				logger.error("Failed to initialize AlKhalil2Analyzer.");
-			}
-		} catch (Exception e) {
-			System.err.println("Error while lemmatizing words: " + e.getMessage());
-			logger.error("Error while lemmatizing words: " + e.getMessage());
+		for (TokenAnalysis analysis : analyses.values()) {
+			wordLemmaMap.put(analysis.getWord(), analysis.getLemma());
 		}
 
 		return wordLemmaMap;
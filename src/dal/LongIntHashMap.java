@@ -0,0 +1,91 @@
+package dal;
+
+import java.util.Arrays;
+
+/**
+ * Open-addressing map from {@code long} keys to {@code int} values, with
+ * linear probing over power-of-two tables. Nothing is boxed on get or add.
+ * {@code -1} marks a free slot and cannot be used as a key; keys packed from
+ * two non-negative ints ({@link NGramCounts#bigramKey}) never equal it.
+ */
+final class LongIntHashMap {
+	private static final long EMPTY = -1L;
+	private static final float LOAD_FACTOR = 0.6f;
+
+	private long[] keys;
+	private int[] values;
+	private int size;
+	private int resizeAt;
+
+	LongIntHashMap() {
+		this(16);
+	}
+
+	LongIntHashMap(int expectedSize) {
+		int capacity = Integer.highestOneBit(Math.max(4, (int) (expectedSize / LOAD_FACTOR)) - 1) << 1;
+		allocate(capacity);
+	}
+
+	private void allocate(int capacity) {
+		keys = new long[capacity];
+		Arrays.fill(keys, EMPTY);
+		values = new int[capacity];
+		resizeAt = (int) (capacity * LOAD_FACTOR);
+	}
+
+	private static int slot(long key, int mask) {
+		long h = key * 0x9E3779B97F4A7C15L;
+		return (int) (h ^ (h >>> 32)) & mask;
+	}
+
+	int get(long key) {
+		int mask = keys.length - 1;
+		for (int i = slot(key, mask);; i = (i + 1) & mask) {
+			if (keys[i] == key) {
+				return values[i];
+			}
+			if (keys[i] == EMPTY) {
+				return 0;
+			}
+		}
+	}
+
+	/** Adds {@code delta} to the value of {@code key} (absent keys count as 0) and returns the new value. */
+	int add(long key, int delta) {
+		int mask = keys.length - 1;
+		int i = slot(key, mask);
+		while (keys[i] != EMPTY) {
+			if (keys[i] == key) {
+				return values[i] += delta;
+			}
+			i = (i + 1) & mask;
+		}
+		keys[i] = key;
+		values[i] = delta;
+		if (++size > resizeAt) {
+			rehash();
+		}
+		return delta;
+	}
+
+	int size() {
+		return size;
+	}
+
+	private void rehash() {
+		long[] oldKeys = keys;
+		int[] oldValues = values;
+		allocate(oldKeys.length * 2);
+		int mask = keys.length - 1;
+		for (int j = 0; j < oldKeys.length; j++) {
+			if (oldKeys[j] != EMPTY) {
+				int i = slot(oldKeys[j], mask);
+				while (keys[i] != EMPTY) {
+					i = (i + 1) & mask;
+				}
+				keys[i] = oldKeys[j];
+				values[i] = oldValues[j];
+			}
+		}
+	}
+}
@@ -0,0 +1,151 @@
+package dal;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import dto.TokenAnalysis;
+import net.oujda_nlp_team.AlKhalil2Analyzer;
+import net.oujda_nlp_team.entity.Result;
+import net.oujda_nlp_team.entity.ResultList;
+import pl.EditorPO;
+import util.Tokenizer;
+
+/**
+ * Runs AlKhalil once per token and derives POS, lemma, root, stem and segment
+ * from that single result, so the individual analysis classes and the DAO no
+ * longer call processToken five times for the same word. Results are shared
+ * through {@link TokenAnalysisCache} and persisted in {@link MorphologyLexicon}
+ * so that AlKhalil only sees tokens no earlier session has analyzed.
+ */
+public class MorphologyAnalyzer {
+	static final String NOT_ANALYZED = "Not analyzed";
+	private static AlKhalil2Analyzer analyzer;
+
+	static synchronized AlKhalil2Analyzer getAnalyzer() {
+		if (analyzer == null) {
+			analyzer = AlKhalil2Analyzer.getInstance();
+		}
+		return analyzer;
+	}
+
+	public static Map<String, TokenAnalysis> analyzeWords(String text) {
+		return analyzeDistinct(Tokenizer.tokens(text));
+	}
+
+	static Map<String, TokenAnalysis> analyzeWords(PreprocessedText text) {
+		return analyzeDistinct(text.getTokens());
+	}
+
+	/**
+	 * Columnar variant of {@link #analyzeWords(String)} for callers that bind
+	 * results straight into JDBC batches. Each distinct token is analyzed once.
+	 */
+	public static MorphologyBatch analyzeBatch(String[] tokens) {
+		return MorphologyBatch.of(tokens, analyzeDistinct(tokens));
+	}
+
+	private static Map<String, TokenAnalysis> analyzeDistinct(String[] words) {
+		final Logger logger = LogManager.getLogger(EditorPO.class);
+		Map<String, TokenAnalysis> wordAnalysisMap = new LinkedHashMap<>();
+
+		try {
+			AlKhalil2Analyzer analyzer = getAnalyzer();
+
+			if (analyzer != null) {
+				for (String word : words) {
+					if (!wordAnalysisMap.containsKey(word)) {
+						wordAnalysisMap.put(word, analyzeToken(analyzer, word));
+					}
+				}
+			} else {
+				System.err.println("Failed to initialize AlKhalil2Analyzer.");
+				logger.error("Failed to initialize AlKhalil2Analyzer.");
+			}
+		} catch (Exception e) {
+			System.err.println("Error while analyzing words: " + e.getMessage());
+			logger.error("Error while analyzing words: " + e.getMessage());
+		}
+
+		return wordAnalysisMap;
+	}
+
+	static TokenAnalysis analyzeToken(AlKhalil2Analyzer analyzer, String word) {
+		TokenAnalysisCache cache = TokenAnalysisCache.getInstance();
+		String key = TokenAnalysisCache.normalize(word);
+
+		TokenAnalysis analysis = cache.get(key);
+		if (analysis == null) {
+			MorphologyLexicon lexicon = MorphologyLexicon.getInstance();
+			if (lexicon != null) {
+				analysis = lexicon.get(key);
+			}
+			if (analysis == null) {
+				// The normalized form is only the key; AlKhalil sees the word as written, harakat included
+				analysis = runAnalyzer(analyzer, word);
+				if (analysis == null) {
+					return notAnalyzed(word);
+				}
+				if (lexicon != null) {
+					lexicon.append(key, analysis);
+				}
+			}
+			cache.put(key, analysis);
+		}
+
+		if (analysis.getWord().equals(word)) {
+			return analysis;
+		}
+		return new TokenAnalysis(word, analysis.getPosTags(), analysis.getLemma(), analysis.getRoot(),
+				analysis.getStem(), analysis.getSegment());
+	}
+
+	private static TokenAnalysis runAnalyzer(AlKhalil2Analyzer analyzer, String word) {
+		ResultList resultList = AnalyzerGuard.processToken(analyzer, word);
+		if (resultList == null) {
+			return null;
+		}
+		List<Result> results = resultList.getAllResults();
+		boolean hasResults = results != null && !results.isEmpty();
+
+		List<String> posTags = new ArrayList<>();
+		String segment;
+		if (hasResults) {
+			Result firstResult = results.get(0);
+			for (String tag : firstResult.getPartOfSpeech().split("\\|")) {
+				posTags.add(tag);
+			}
+			segment = WordSegmentation.buildSegment(word, firstResult.getStem());
+		} else {
+			posTags.add("None");
+			segment = "None";
+		}
+
+		String lemma = orNotFound(resultList.getAllLemmasString());
+		String root = orNotFound(resultList.getAllRootString());
+		String stem = orNotFound(resultList.getAllStemString());
+
+		return new TokenAnalysis(word, Collections.unmodifiableList(posTags), lemma, root, stem, segment);
+	}
+
+	private static TokenAnalysis notAnalyzed(String word) {
+		return new TokenAnalysis(word, Collections.singletonList(NOT_ANALYZED), NOT_ANALYZED, NOT_ANALYZED,
+				NOT_ANALYZED, NOT_ANALYZED);
+	}
+
+	public static LatencyHistogram getLatencyHistogram() {
+		return AnalyzerGuard.getLatencyHistogram();
+	}
+
+	private static String orNotFound(String value) {
+		if (value != null && !value.isEmpty()) {
+			return PreProcessText.preprocessText(value);
+		}
+		return "Not found";
+	}
+}
@@ -0,0 +1,131 @@
+package dal;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import dto.TokenAnalysis;
+
+/**
+ * Columnar morphology result for a whole token array. Distinct tokens are
+ * stored once, in first-occurrence order, and their POS, lemma, root, stem and
+ * segment are indices into a single interned string table. Tokens that could
+ * not be analyzed are left out.
+ */
+public class MorphologyBatch {
+
+	private final String[] tokens;
+	private final String[] strings;
+	private final int[] pos;
+	private final int[] lemma;
+	private final int[] root;
+	private final int[] stem;
+	private final int[] segment;
+
+	private MorphologyBatch(String[] tokens, String[] strings, int[] pos, int[] lemma, int[] root, int[] stem,
+			int[] segment) {
+		this.tokens = tokens;
+		this.strings = strings;
+		this.pos = pos;
+		this.lemma = lemma;
+		this.root = root;
+		this.stem = stem;
+		this.segment = segment;
+	}
+
+	static MorphologyBatch of(String[] input, Map<String, TokenAnalysis> analyses) {
+		Map<String, Integer> tokenIndex = new LinkedHashMap<>();
+		Map<String, Integer> stringIndex = new HashMap<>();
+		List<String> stringTable = new ArrayList<>();
+
+		for (String token : input) {
+			if (!tokenIndex.containsKey(token) && analyses.containsKey(token)) {
+				tokenIndex.put(token, tokenIndex.size());
+			}
+		}
+
+		int size = tokenIndex.size();
+		String[] tokens = tokenIndex.keySet().toArray(new String[size]);
+		int[] pos = new int[size];
+		int[] lemma = new int[size];
+		int[] root = new int[size];
+		int[] stem = new int[size];
+		int[] segment = new int[size];
+
+		for (int i = 0; i < size; i++) {
+			TokenAnalysis analysis = analyses.get(tokens[i]);
+			pos[i] = intern(String.join("|", analysis.getPosTags()), stringIndex, stringTable);
+			lemma[i] = intern(analysis.getLemma(), stringIndex, stringTable);
+			root[i] = intern(analysis.getRoot(), stringIndex, stringTable);
+			stem[i] = intern(analysis.getStem(), stringIndex, stringTable);
+			segment[i] = intern(analysis.getSegment(), stringIndex, stringTable);
+		}
+
+		return new MorphologyBatch(tokens, stringTable.toArray(new String[stringTable.size()]), pos, lemma, root,
+				stem, segment);
+	}
+
+	private static int intern(String value, Map<String, Integer> stringIndex, List<String> stringTable) {
+		Integer index = stringIndex.get(value);
+		if (index == null) {
+			index = stringTable.size();
+			stringIndex.put(value, index);
+			stringTable.add(value);
+		}
+		return index;
+	}
+
+	public int size() {
+		return tokens.length;
+	}
+
+	public String[] getTokens() {
+		return tokens;
+	}
+
+	public String[] getStrings() {
+		return strings;
+	}
+
+	public int[] getPos() {
+		return pos;
+	}
+
+	public int[] getLemma() {
+		return lemma;
+	}
+
+	public int[] getRoot() {
+		return root;
+	}
+
+	public int[] getStem() {
+		return stem;
+	}
+
+	public int[] getSegment() {
+		return segment;
+	}
+
+	public String getPosString(int index) {
+		return strings[pos[index]];
+	}
+
+	public String getLemmaString(int index) {
+		return strings[lemma[index]];
+	}
+
+	public String getRootString(int index) {
+		return strings[root[index]];
+	}
+
+	public String getStemString(int index) {
+		return strings[stem[index]];
+	}
+
+	public String getSegmentString(int index) {
+		return strings[segment[index]];
+	}
+}
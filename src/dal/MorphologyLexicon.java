@@ -0,0 +1,244 @@
+package dal;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import dto.TokenAnalysis;
+import pl.EditorPO;
+
+/**
+ * Append-only on-disk store of token analyses that survives restarts. The file
+ * is validated with plain reads when it is opened (a torn trailing record is
+ * cut off before anything is mapped) and then read through memory mappings of
+ * at most {@code segmentSize} bytes each, so offsets are longs and the file
+ * may grow past 2 GB. Records appended during the session, and the rare record
+ * straddling two mappings, are read through the channel instead of remapping.
+ * An in-memory index maps each normalized token to the offset of its record.
+ * Once the file would grow past lexicon.maxBytes, new analyses are no longer
+ * persisted and an error is logged.
+ *
+ * Layout: a 4-byte magic number followed by records of the form
+ * [int length][UTF-8 payload], where the payload holds the key, word, POS
+ * tags, lemma, root, stem and segment separated by \u0001.
+ */
+public class MorphologyLexicon {
+	private static final Logger LOGGER = LogManager.getLogger(EditorPO.class);
+	private static final int MAGIC = 0x4C455831; // "LEX1"
+	private static final int HEADER_SIZE = 4;
+	private static final char FIELD_SEPARATOR = '\u0001';
+	private static final int FIELD_COUNT = 7;
+	private static final int MAX_RECORD_SIZE = 1 << 20;
+	static final int DEFAULT_SEGMENT_SIZE = 1 << 28;
+	static final long DEFAULT_MAX_BYTES = 1L << 32;
+	private static MorphologyLexicon INSTANCE;
+
+	private final File file;
+	private final long maxBytes;
+	private final int segmentSize;
+	private final Map<String, Long> index = new HashMap<>();
+	private final List<MappedByteBuffer> segments = new ArrayList<>();
+	private FileChannel channel;
+	private long mappedSize;
+	private long size;
+	private boolean full;
+
+	MorphologyLexicon(File file) throws IOException {
+		this(file, ConfigProperties.getLong("lexicon.maxBytes", DEFAULT_MAX_BYTES), DEFAULT_SEGMENT_SIZE);
+	}
+
+	MorphologyLexicon(File file, long maxBytes, int segmentSize) throws IOException {
+		this.file = file;
+		this.maxBytes = maxBytes;
+		this.segmentSize = segmentSize;
+		open();
+	}
+
+	public static synchronized MorphologyLexicon getInstance() {
+		if (INSTANCE == null && ConfigProperties.getBoolean("lexicon.enabled", true)) {
+			try {
+				INSTANCE = new MorphologyLexicon(new File(ConfigProperties.getString("lexicon.path", "morphology.lex")));
+			} catch (IOException e) {
+				e.printStackTrace();
+				LOGGER.error("Failed to open morphology lexicon: " + e.getMessage());
+			}
+		}
+		return INSTANCE;
+	}
+
+	private void open() throws IOException {
+		File parent = file.getAbsoluteFile().getParentFile();
+		if (parent != null && !parent.exists()) {
+			parent.mkdirs();
+		}
+		channel = FileChannel.open(file.toPath(), StandardOpenOption.CREATE, StandardOpenOption.READ,
+				StandardOpenOption.WRITE);
+
+		if (channel.size() < HEADER_SIZE) {
+			ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).putInt(MAGIC);
+			header.flip();
+			channel.truncate(0);
+			channel.write(header, 0);
+		}
+
+		long fileSize = channel.size();
+		long offset = HEADER_SIZE;
+		// Not closed: closing the stream would close the channel
+		DataInputStream in = new DataInputStream(new BufferedInputStream(Channels.newInputStream(channel.position(0))));
+		if (in.readInt() != MAGIC) {
+			channel.close();
+			throw new IOException("Not a morphology lexicon: " + file);
+		}
+		while (offset + 4 <= fileSize) {
+			int length = in.readInt();
+			if (length <= 0 || length > MAX_RECORD_SIZE || offset + 4 + length > fileSize) {
+				break;
+			}
+			byte[] payload = new byte[length];
+			in.readFully(payload);
+			String text = new String(payload, StandardCharsets.UTF_8);
+			int separator = text.indexOf(FIELD_SEPARATOR);
+			if (separator > 0) {
+				index.put(text.substring(0, separator), offset);
+			}
+			offset += 4 + length;
+		}
+
+		if (offset != fileSize) {
+			// A partially written trailing record is dropped so appends stay aligned.
+			// Nothing is mapped yet, which Windows requires for truncation.
+			LOGGER.warn("Truncating morphology lexicon " + file + " from " + fileSize + " to " + offset + " bytes");
+			channel.truncate(offset);
+		}
+		size = offset;
+
+		for (long start = 0; start < size; start += segmentSize) {
+			segments.add(channel.map(FileChannel.MapMode.READ_ONLY, start, Math.min(segmentSize, size - start)));
+		}
+		mappedSize = size;
+		LOGGER.info("Loaded " + index.size() + " analyses from morphology lexicon " + file);
+	}
+
+	private void read(long position, byte[] bytes) throws IOException {
+		int within = (int) (position % segmentSize);
+		if (position + bytes.length <= mappedSize) {
+			MappedByteBuffer segment = segments.get((int) (position / segmentSize));
+			if (within + bytes.length <= segment.limit()) {
+				ByteBuffer view = segment.duplicate();
+				view.position(within);
+				view.get(bytes);
+				return;
+			}
+		}
+		// Appended after the file was mapped, or split across two mappings
+		ByteBuffer buffer = ByteBuffer.wrap(bytes);
+		while (buffer.hasRemaining()) {
+			if (channel.read(buffer, position + buffer.position()) < 0) {
+				throw new EOFException("Morphology lexicon record past end of file at " + position);
+			}
+		}
+	}
+
+	public synchronized TokenAnalysis get(String key) {
+		Long offset = index.get(key);
+		if (offset == null) {
+			return null;
+		}
+		try {
+			byte[] length = new byte[4];
+			read(offset, length);
+			byte[] payload = new byte[ByteBuffer.wrap(length).getInt()];
+			read(offset + 4, payload);
+			return decode(new String(payload, StandardCharsets.UTF_8));
+		} catch (IOException e) {
+			LOGGER.error("Failed to read morphology lexicon: " + e.getMessage());
+			return null;
+		}
+	}
+
+	public synchronized void append(String key, TokenAnalysis analysis) {
+		if (full || index.containsKey(key)) {
+			return;
+		}
+		byte[] payload = encode(key, analysis).getBytes(StandardCharsets.UTF_8);
+		if (payload.length > MAX_RECORD_SIZE) {
+			LOGGER.warn("Not persisting oversized analysis of " + payload.length + " bytes for: " + key);
+			return;
+		}
+		long offset = size;
+		if (offset + 4 + payload.length > maxBytes) {
+			full = true;
+			LOGGER.error("Morphology lexicon " + file + " reached lexicon.maxBytes (" + maxBytes
+					+ " bytes); new analyses are no longer persisted");
+			return;
+		}
+		ByteBuffer record = ByteBuffer.allocate(4 + payload.length);
+		record.putInt(payload.length).put(payload);
+		record.flip();
+
+		try {
+			while (record.hasRemaining()) {
+				channel.write(record, offset + record.position());
+			}
+			size = offset + 4 + payload.length;
+			index.put(key, offset);
+		} catch (IOException e) {
+			LOGGER.error("Failed to append to morphology lexicon: " + e.getMessage());
+		}
+	}
+
+	synchronized boolean isFull() {
+		return full;
+	}
+
+	public synchronized int size() {
+		return index.size();
+	}
+
+	public synchronized void close() {
+		try {
+			channel.force(false);
+			channel.close();
+		} catch (IOException e) {
+			LOGGER.error(e.getMessage());
+		}
+	}
+
+	private static String encode(String key, TokenAnalysis analysis) {
+		StringBuilder builder = new StringBuilder();
+		builder.append(key).append(FIELD_SEPARATOR);
+		builder.append(analysis.getWord()).append(FIELD_SEPARATOR);
+		builder.append(String.join("|", analysis.getPosTags())).append(FIELD_SEPARATOR);
+		builder.append(analysis.getLemma()).append(FIELD_SEPARATOR);
+		builder.append(analysis.getRoot()).append(FIELD_SEPARATOR);
+		builder.append(analysis.getStem()).append(FIELD_SEPARATOR);
+		builder.append(analysis.getSegment());
+		return builder.toString();
+	}
+
+	private static TokenAnalysis decode(String payload) {
+		String[] fields = payload.split(String.valueOf(FIELD_SEPARATOR), -1);
+		if (fields.length != FIELD_COUNT) {
+			return null;
+		}
+		return new TokenAnalysis(fields[1], Collections.unmodifiableList(Arrays.asList(fields[2].split("\\|"))),
+				fields[3], fields[4], fields[5], fields[6]);
+	}
+}
@@ -0,0 +1,108 @@
+package dal;
+
+import java.util.Arrays;
+
+/**
+ * Unigram and bigram counts of one token sequence, kept in primitive form.
+ * Each distinct token gets a dense int id in order of first appearance, so
+ * unigram counts are a plain {@code int[]} indexed by id and a bigram is the
+ * two ids packed into one {@code long} key of a {@link LongIntHashMap}. The
+ * only objects built per token are the id table's slots; no key strings are
+ * concatenated and no counts are boxed.
+ */
+final class NGramCounts {
+	private static final int NO_ID = -1;
+
+	private final int[] sequence;
+	private final String[] tokens;
+	private final int[] unigramCounts;
+	private final LongIntHashMap bigramCounts;
+
+	// Open-addressing token -> id table
+	private final String[] tableKeys;
+	private final int[] tableIds;
+
+	NGramCounts(String[] words) {
+		int capacity = Integer.highestOneBit(Math.max(4, words.length * 2) - 1) << 1;
+		tableKeys = new String[capacity];
+		tableIds = new int[capacity];
+		sequence = new int[words.length];
+
+		String[] byId = new String[Math.max(1, words.length)];
+		int[] counts = new int[Math.max(1, words.length)];
+		int distinct = 0;
+		int mask = capacity - 1;
+		for (int p = 0; p < words.length; p++) {
+			String word = words[p];
+			int i = slot(word, mask);
+			while (tableKeys[i] != null && !tableKeys[i].equals(word)) {
+				i = (i + 1) & mask;
+			}
+			if (tableKeys[i] == null) {
+				tableKeys[i] = word;
+				tableIds[i] = distinct;
+				byId[distinct++] = word;
+			}
+			int id = tableIds[i];
+			counts[id]++;
+			sequence[p] = id;
+		}
+		tokens = Arrays.copyOf(byId, distinct);
+		unigramCounts = Arrays.copyOf(counts, distinct);
+
+		bigramCounts = new LongIntHashMap(Math.max(1, words.length - 1));
+		for (int p = 0; p + 1 < sequence.length; p++) {
+			bigramCounts.add(bigramKey(sequence[p], sequence[p + 1]), 1);
+		}
+	}
+
+	private static int slot(String word, int mask) {
+		int h = word.hashCode() * 0x9E3779B9;
+		return (h ^ (h >>> 16)) & mask;
+	}
+
+	static long bigramKey(int first, int second) {
+		return ((long) first << 32) | (second & 0xFFFFFFFFL);
+	}
+
+	/** Id of {@code word}, or -1 when it does not occur (including null). */
+	int id(String word) {
+		if (word == null) {
+			return NO_ID;
+		}
+		int mask = tableKeys.length - 1;
+		for (int i = slot(word, mask);; i = (i + 1) & mask) {
+			if (tableKeys[i] == null) {
+				return NO_ID;
+			}
+			if (tableKeys[i].equals(word)) {
+				return tableIds[i];
+			}
+		}
+	}
+
+	String token(int id) {
+		return tokens[id];
+	}
+
+	/** Id of the token at {@code position} in the sequence. */
+	int idAt(int position) {
+		return sequence[position];
+	}
+
+	int length() {
+		return sequence.length;
+	}
+
+	int distinctCount() {
+		return tokens.length;
+	}
+
+	int unigramCount(int id) {
+		return id < 0 ? 0 : unigramCounts[id];
+	}
+
+	int bigramCount(int first, int second) {
+		return first < 0 || second < 0 ? 0 : bigramCounts.get(bigramKey(first, second));
+	}
+}
@@ -1,35 +1,45 @@
 package dal;
 
-import java.util.HashMap;
 import java.util.LinkedHashMap;
 import java.util.Map;
 
+/**
+ * PKL of every word in its left and right context, with word frequencies
+ * looked up by int id on the text's shared {@link NGramCounts}. The
+ * "v (ul, ur)" key of a context is only built the first time it appears.
+ */
 public class PKLCalculator {
-    private String document;
-    private Map<String, Integer> wordFreq;
-    private int totalWords;
+    // Three ids fit one long key while every id is below 2^21
+    private static final int CONTEXT_ID_BITS = 21;
+
+    private final NGramCounts counts;
+    private final int totalWords;
 
     public PKLCalculator(String document) {
-        this.document = PreProcessText.preprocessText(document);
-        this.wordFreq = new HashMap<>();
-        this.totalWords = 0;
-        computeWordFrequencies();
+        this(PreprocessedText.of(document));
     }
 
-    private void computeWordFrequencies() {
-        String[] words = document.split("\\s+");
-        totalWords = words.length;
+    static PKLCalculator forText(PreprocessedText document) {
+        return new PKLCalculator(document);
+    }
 
-        for (String word : words) {
-            wordFreq.put(word, wordFreq.getOrDefault(word, 0) + 1);
-        }
+    private PKLCalculator(PreprocessedText document) {
+        this.counts = document.getNGramCounts();
+        this.totalWords = counts.length();
     }
 
-    private double calculateWordProbability(String word) {
-        return (double) wordFreq.getOrDefault(word, 0) / totalWords;
+    private double calculateWordProbability(int id) {
+        if (totalWords == 0) {
+            return 0;
+        }
+        return (double) counts.unigramCount(id) / totalWords;
     }
 
     public double calculatePKL(String v, String ul, String ur) {
+        return calculatePKL(counts.id(v), counts.id(ul), counts.id(ur));
+    }
+
+    private double calculatePKL(int v, int ul, int ur) {
         double pV = calculateWordProbability(v);
         double pUl = calculateWordProbability(ul);
         double pUr = calculateWordProbability(ur);
@@ -43,20 +53,36 @@ public class PKLCalculator {
 
     public Map<String, Double> calculatePKLForAllWords() {
         Map<String, Double> pklScores = new LinkedHashMap<>();
-        String[] words = document.split("\\s+");
+        boolean packable = counts.distinctCount() < (1 << CONTEXT_ID_BITS);
+        LongIntHashMap seen = new LongIntHashMap(Math.max(1, totalWords - 2));
 
-        for (int i = 1; i < words.length - 1; i++) {
-            String ul = words[i - 1];
-            String v = words[i];
-            String ur = words[i + 1];
+        for (int i = 1; i < totalWords - 1; i++) {
+            int ul = counts.idAt(i - 1);
+            int v = counts.idAt(i);
+            int ur = counts.idAt(i + 1);
+            if (packable && seen.add(contextKey(v, ul, ur), 1) > 1) {
+                continue;
+            }
 
             double pkl = calculatePKL(v, ul, ur);
-            pklScores.put(v + " (" + ul + ", " + ur + ")", pkl);
+            pklScores.put(counts.token(v) + " (" + counts.token(ul) + ", " + counts.token(ur) + ")", pkl);
         }
 
         return pklScores;
     }
 
+    private static long contextKey(int v, int ul, int ur) {
+        return ((long) v << (2 * CONTEXT_ID_BITS)) | ((long) ul << CONTEXT_ID_BITS) | ur;
+    }
+
+    // Inverse of the "v (ul, ur)" key built above; preprocessed words never contain spaces.
+    static String[] splitKey(String key) {
+        int open = key.indexOf(" (");
+        String context = key.substring(open + 2, key.length() - 1);
+        int comma = context.indexOf(", ");
+        return new String[] { key.substring(0, open), context.substring(0, comma), context.substring(comma + 2) };
+    }
+
 //    public static void main(String[] args) {
 //        String document = "إِنَّا أَعْطَيْنَاكَ ٱلْكَوْثَرَ فَصَلِّ لِرَبِّكَ وَٱنْحَرْ إِنَّ شَانِئَكَ هُوَ ٱلْأَبْتَرُ";
 //
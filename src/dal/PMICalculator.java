@@ -1,50 +1,51 @@
 package dal;
 
-import java.util.HashMap;
 import java.util.LinkedHashMap;
 import java.util.Map;
 
+/**
+ * PMI of the bigrams of one text, counted on an {@link NGramCounts} so that
+ * word and bigram frequencies are looked up by int id instead of by freshly
+ * concatenated string keys. The "word1 word2" key of a bigram is only built
+ * the first time it appears in the output.
+ */
 public class PMICalculator {
-    private String document;
-    private Map<String, Integer> wordFreq;
-    private Map<String, Integer> bigramFreq;
-    private int totalWords;
+    private final NGramCounts counts;
+    private final int totalWords;
 
     public PMICalculator(String document) {
-        this.document = PreProcessText.preprocessText(document);
-        this.wordFreq = new HashMap<>();
-        this.bigramFreq = new HashMap<>();
-        this.totalWords = 0;
-        computeWordAndBigramFrequencies();
+        this(PreprocessedText.of(document));
     }
 
-    private void computeWordAndBigramFrequencies() {
-        String[] words = document.split("\\s+");
-        totalWords = words.length;
-
-        for (String word : words) {
-            wordFreq.put(word, wordFreq.getOrDefault(word, 0) + 1);
-        }
+    static PMICalculator forText(PreprocessedText document) {
+        return new PMICalculator(document);
+    }
 
-        for (int i = 0; i < words.length - 1; i++) {
-            String bigram = words[i] + " " + words[i + 1];
-            bigramFreq.put(bigram, bigramFreq.getOrDefault(bigram, 0) + 1);
-        }
+    private PMICalculator(PreprocessedText document) {
+        this.counts = document.getNGramCounts();
+        this.totalWords = counts.length();
     }
 
-    private double calculateWordProbability(String word) {
-        return (double) wordFreq.getOrDefault(word, 0) / totalWords;
+    public double calculatePMI(String word1, String word2) {
+        return calculatePMI(counts.id(word1), counts.id(word2));
     }
 
-    private double calculateBigramProbability(String word1, String word2) {
-        String bigram = word1 + " " + word2;
-        return (double) bigramFreq.getOrDefault(bigram, 0) / totalWords;
+    private double calculatePMI(int first, int second) {
+        return pmi(counts.bigramCount(first, second), counts.unigramCount(first), counts.unigramCount(second),
+                totalWords);
     }
 
-    public double calculatePMI(String word1, String word2) {
-        double probWord1 = calculateWordProbability(word1);
-        double probWord2 = calculateWordProbability(word2);
-        double probBigram = calculateBigramProbability(word1, word2);
+    /**
+     * PMI from raw counts, with every probability taken over {@code totalWords}.
+     * Shared with the corpus-wide counts so both views score alike.
+     */
+    static double pmi(long bigramCount, long word1Count, long word2Count, long totalWords) {
+        if (totalWords == 0) {
+            return Double.NEGATIVE_INFINITY;
+        }
+        double probWord1 = (double) word1Count / totalWords;
+        double probWord2 = (double) word2Count / totalWords;
+        double probBigram = (double) bigramCount / totalWords;
 
         if (probWord1 == 0 || probWord2 == 0 || probBigram == 0) {
             return Double.NEGATIVE_INFINITY;
@@ -55,20 +56,25 @@ public class PMICalculator {
 
     public Map<String, Double> calculatePMIForAllBigrams() {
         Map<String, Double> pmiScores = new LinkedHashMap<>();
-        String[] words = document.split("\\s+");
-
-        for (int i = 0; i < words.length - 1; i++) {
-            String word1 = words[i];
-            String word2 = words[i + 1];
-            String bigram = word1 + " " + word2;
-
-            double pmiScore = calculatePMI(word1, word2);
-            pmiScores.put(bigram, pmiScore);
+        // A repeated bigram keeps its first position and its score, as re-putting it did
+        LongIntHashMap seen = new LongIntHashMap(Math.max(1, totalWords - 1));
+
+        for (int i = 0; i < totalWords - 1; i++) {
+            int first = counts.idAt(i);
+            int second = counts.idAt(i + 1);
+            if (seen.add(NGramCounts.bigramKey(first, second), 1) == 1) {
+                pmiScores.put(counts.token(first) + " " + counts.token(second), calculatePMI(first, second));
+            }
         }
 
         return pmiScores;
     }
 
+    // Inverse of the "word1 word2" bigram key; preprocessed words never contain spaces.
+    static String[] splitKey(String bigram) {
+        return bigram.split(" ", 2);
+    }
+
 //    public static void main(String[] args) {
 //        String document = "ٱللَّهُ لَآ إِلَـٰهَ إِلَّا هُوَ ٱلْحَىُّ ٱلْقَيُّومُ ۚ لَا تَأْخُذُهُۥ سِنَةٌۭ وَلَا نَوْمٌۭ ۚ لَّهُۥ مَا فِى ٱلسَّمَـٰوَٰتِ وَمَا فِى ٱلْأَرْضِ ۗ مَن ذَا ٱلَّذِى يَشْفَعُ عِندَهُۥٓ إِلَّا بِإِذْنِهِۦ ۚ يَعْلَمُ مَا بَيْنَ أَيْدِيهِمْ وَمَا خَلْفَهُمْ ۖ وَلَا يُحِيطُونَ بِشَىْءٍۢ مِّنْ عِلْمِهِۦٓ إِلَّا بِمَا شَآءَ ۚ وَسِعَ كُرْسِيُّهُ ٱلسَّمَـٰوَٰتِ وَٱلْأَرْضَ ۖ وَلَا يَـُٔودُهُۥ حِفْظُهُمَا ۚ وَهُوَ ٱلْعَلِىُّ ٱلْعَظِيمُ";
 //        PMI pmiCalculator = new PMI(document);
@@ -0,0 +1,41 @@
+package dal;
+
+import java.util.Map;
+
+class PageAnalysis {
+
+	private final String transliteratedText;
+	private final MorphologyBatch morphology;
+	private final Map<String, Double> pklScores;
+	private final Map<String, Double> pmiScores;
+	private final NGramCounts nGramCounts;
+
+	PageAnalysis(String transliteratedText, MorphologyBatch morphology, Map<String, Double> pklScores,
+			Map<String, Double> pmiScores, NGramCounts nGramCounts) {
+		this.transliteratedText = transliteratedText;
+		this.morphology = morphology;
+		this.pklScores = pklScores;
+		this.pmiScores = pmiScores;
+		this.nGramCounts = nGramCounts;
+	}
+
+	String getTransliteratedText() {
+		return transliteratedText;
+	}
+
+	MorphologyBatch getMorphology() {
+		return morphology;
+	}
+
+	Map<String, Double> getPklScores() {
+		return pklScores;
+	}
+
+	Map<String, Double> getPmiScores() {
+		return pmiScores;
+	}
+
+	NGramCounts getNGramCounts() {
+		return nGramCounts;
+	}
+}
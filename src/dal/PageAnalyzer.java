@@ -0,0 +1,57 @@
+package dal;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+import util.Tokenizer;
+
+/**
+ * Runs the per-page analytics (transliteration, morphology, PKL, PMI) on a
+ * shared fork-join pool. Callers get one future per page and can insert the
+ * results sequentially, in page order, while later pages are still being
+ * analyzed. The pool size comes from analysis.parallelism. Page-local PMI
+ * scores are only computed when pmi.storePageScores is set; the page's n-gram
+ * counts, which feed the corpus-wide PMI, always are.
+ */
+public class PageAnalyzer {
+	private static final boolean STORE_PAGE_PMI = ConfigProperties.getBoolean("pmi.storePageScores", false);
+	private static ForkJoinPool pool;
+
+	static synchronized ForkJoinPool getPool() {
+		if (pool == null) {
+			int parallelism = ConfigProperties.getInt("analysis.parallelism",
+					Runtime.getRuntime().availableProcessors());
+			pool = new ForkJoinPool(Math.max(1, parallelism));
+		}
+		return pool;
+	}
+
+	static Future<PageAnalysis> submit(String content) {
+		return getPool().submit(() -> analyze(content));
+	}
+
+	static void cancelAll(Collection<Future<PageAnalysis>> futures) {
+		if (futures != null) {
+			for (Future<PageAnalysis> future : futures) {
+				future.cancel(true);
+			}
+		}
+	}
+
+	static PageAnalysis analyze(String content) {
+		String transliteratedText = Transliteration.transliterate(content);
+
+		MorphologyBatch morphology = MorphologyAnalyzer.analyzeBatch(Tokenizer.tokens(content));
+
+		PreprocessedText preprocessed = PreprocessedText.of(content);
+		Map<String, Double> pklScores = PKLCalculator.forText(preprocessed).calculatePKLForAllWords();
+		Map<String, Double> pmiScores = STORE_PAGE_PMI
+				? PMICalculator.forText(preprocessed).calculatePMIForAllBigrams()
+				: Collections.<String, Double>emptyMap();
+
+		return new PageAnalysis(transliteratedText, morphology, pklScores, pmiScores, preprocessed.getNGramCounts());
+	}
+}
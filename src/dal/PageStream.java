@@ -0,0 +1,191 @@
+package dal;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+import dto.Pages;
+
+/**
+ * Reads a document from a {@link Reader} one page at a time, so an import
+ * never holds more than a page of raw text plus the cut tolerance. Line endings are folded the same
+ * way as the old {@code readLine()} + {@code "\n"} loop (\r\n and \r become
+ * \n, and a final unterminated line gets one), and pages are cut with
+ * {@link PaginationDAO#findPageEnd}, so the pages and the MD5 hash are
+ * identical to paginating and hashing the fully loaded text.
+ * <p>
+ * Read errors surface from {@link #hasNext()} as {@link UncheckedIOException}.
+ * {@link #getHash()} is available once {@link #hasNext()} has returned false.
+ */
+final class PageStream implements Iterator<Pages>, Closeable {
+
+	private final Reader reader;
+	private final int pageSize;
+	private final int tolerance;
+	private final MessageDigest digest;
+	private final char[] buffer = new char[8192];
+	private final StringBuilder window;
+
+	private int position;
+	private int limit;
+	private boolean lastWasCR;
+	private boolean atLineStart = true;
+	private boolean eof;
+	private boolean finished;
+	private int pageNumber = 1;
+	private char pendingHighSurrogate;
+	private String hash;
+	private Pages lookahead;
+
+	PageStream(Reader reader) throws NoSuchAlgorithmException {
+		this(reader, PaginationDAO.PAGE_SIZE, PaginationDAO.TOLERANCE);
+	}
+
+	PageStream(Reader reader, int pageSize, int tolerance) throws NoSuchAlgorithmException {
+		this.reader = reader;
+		this.pageSize = pageSize;
+		this.tolerance = tolerance;
+		this.digest = HashCalculator.newDigest();
+		this.window = new StringBuilder(pageSize + tolerance + 1);
+	}
+
+	static PageStream open(ReadableByteChannel channel, Charset charset) throws NoSuchAlgorithmException {
+		return new PageStream(Channels.newReader(channel, charset.newDecoder(), -1));
+	}
+
+	@Override
+	public boolean hasNext() {
+		if (lookahead == null && !finished) {
+			try {
+				lookahead = readPage();
+			} catch (IOException e) {
+				throw new UncheckedIOException(e);
+			}
+		}
+		return lookahead != null;
+	}
+
+	@Override
+	public Pages next() {
+		if (!hasNext()) {
+			throw new NoSuchElementException();
+		}
+		Pages page = lookahead;
+		lookahead = null;
+		return page;
+	}
+
+	/** Next page in document order, or null when the reader is exhausted. */
+	private Pages readPage() throws IOException {
+		if (finished) {
+			return null;
+		}
+		// PaginationDAO.findPageEnd looks at most pageSize + tolerance chars ahead
+		while (window.length() <= pageSize + tolerance) {
+			int c = read();
+			if (c < 0) {
+				break;
+			}
+			window.append((char) c);
+		}
+
+		if (window.length() == 0 && pageNumber > 1) {
+			finish();
+			return null;
+		}
+		// An empty document still gets its single empty page, as in PaginationDAO
+		int end = PaginationDAO.findPageEnd(window, 0, window.length(), pageSize, tolerance);
+		String content = window.substring(0, end);
+		window.delete(0, end);
+		hashChunk(content);
+		if (eof && window.length() == 0) {
+			finish();
+		}
+		return new Pages(0, 0, pageNumber++, content);
+	}
+
+	String getHash() {
+		if (hash == null) {
+			throw new IllegalStateException("Hash is only available after the last page has been read");
+		}
+		return hash;
+	}
+
+	int getPageCount() {
+		return pageNumber - 1;
+	}
+
+	/** Next char after line-ending folding, or -1 at the end of the document. */
+	private int read() throws IOException {
+		while (true) {
+			if (position == limit) {
+				if (eof) {
+					return -1;
+				}
+				limit = reader.read(buffer, 0, buffer.length);
+				position = 0;
+				if (limit <= 0) {
+					limit = 0;
+					eof = true;
+					if (!atLineStart) {
+						atLineStart = true;
+						return '\n';
+					}
+					return -1;
+				}
+			}
+
+			char c = buffer[position++];
+			if (c == '\n' && lastWasCR) {
+				lastWasCR = false;
+				continue;
+			}
+			lastWasCR = c == '\r';
+			if (c == '\r' || c == '\n') {
+				atLineStart = true;
+				return '\n';
+			}
+			atLineStart = false;
+			return c;
+		}
+	}
+
+	private void hashChunk(String content) {
+		StringBuilder chunk = new StringBuilder(content.length() + 1);
+		if (pendingHighSurrogate != 0) {
+			chunk.append(pendingHighSurrogate);
+			pendingHighSurrogate = 0;
+		}
+		chunk.append(content);
+		// Keep a split surrogate pair together so it is encoded as one code point
+		int last = chunk.length() - 1;
+		if (last >= 0 && Character.isHighSurrogate(chunk.charAt(last))) {
+			pendingHighSurrogate = chunk.charAt(last);
+			chunk.setLength(last);
+		}
+		digest.update(chunk.toString().getBytes(StandardCharsets.UTF_8));
+	}
+
+	private void finish() {
+		finished = true;
+		if (pendingHighSurrogate != 0) {
+			digest.update(String.valueOf(pendingHighSurrogate).getBytes(StandardCharsets.UTF_8));
+			pendingHighSurrogate = 0;
+		}
+		hash = HashCalculator.digestToHex(digest);
+	}
+
+	@Override
+	public void close() throws IOException {
+		reader.close();
+	}
+}
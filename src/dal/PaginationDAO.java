@@ -1,32 +1,178 @@
 package dal;
 
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
 import java.util.List;
+import java.util.NoSuchElementException;
 
 import dto.Pages;
+import util.Tokenizer;
 
+/**
+ * Cuts a document into pages of about pagination.pageSize characters. Within
+ * pagination.tolerance characters of the target the cut snaps to the best
+ * boundary available, preferring a paragraph break over a sentence end over
+ * plain whitespace, and the nearest one of that kind. Only when the window
+ * holds no boundary at all is a word cut in half.
+ * <p>
+ * Pages keep their trailing whitespace, so concatenating them gives back the
+ * document. Each page is taken as one substring range of the source, so
+ * pagination is linear in the length of the text, and {@link #iterate}
+ * produces the pages lazily for callers that insert them as they go.
+ */
 public class PaginationDAO {
 
-	
+	static final int PAGE_SIZE = Math.max(1, ConfigProperties.getInt("pagination.pageSize", 2000));
+	static final int TOLERANCE = Math.max(0,
+			Math.min(PAGE_SIZE - 1, ConfigProperties.getInt("pagination.tolerance", PAGE_SIZE / 10)));
+
+	private static final int NO_BOUNDARY = 0;
+	private static final int WORD = 1;
+	private static final int SENTENCE = 2;
+	private static final int PARAGRAPH = 3;
+
+	private static final String SENTENCE_TERMINATORS = ".!?؟۔";
+
 	static List<Pages> paginate(String fileContent){
-		int pageSize = 100;
-		int pageNumber = 1;
-		String pageContent = "";
 		List<Pages> pages = new ArrayList<Pages>();
-		if(fileContent==null || fileContent.isEmpty())
-		{
-			pages.add(new Pages(0, 0, pageNumber, pageContent.toString()));
-			return pages;
-		}
-		for(int i = 0; i < fileContent.length(); i++)
-		{
-			pageContent += fileContent.charAt(i);
-			if (pageContent.length() == pageSize || i == fileContent.length() - 1){
-				pages.add(new Pages(0, 0, pageNumber, pageContent));
-				pageNumber++;
-				pageContent = "";
-			}
+		Iterator<Pages> iterator = iterate(fileContent);
+		while (iterator.hasNext()) {
+			pages.add(iterator.next());
 		}
 		return pages;
-	} 
+	}
+
+	/** Pages of {@code fileContent} in order; an empty document has one empty page. */
+	static Iterator<Pages> iterate(String fileContent) {
+		return iterate(fileContent, PAGE_SIZE, TOLERANCE);
+	}
+
+	static Iterator<Pages> iterate(String fileContent, int pageSize, int tolerance) {
+		String content = fileContent == null ? "" : fileContent;
+		return new Iterator<Pages>() {
+			private int start;
+			private int pageNumber = 1;
+
+			@Override
+			public boolean hasNext() {
+				return start < content.length() || pageNumber == 1;
+			}
+
+			@Override
+			public Pages next() {
+				if (!hasNext()) {
+					throw new NoSuchElementException();
+				}
+				int end = findPageEnd(content, start, content.length(), pageSize, tolerance);
+				Pages page = new Pages(0, 0, pageNumber++, content.substring(start, end));
+				start = end;
+				return page;
+			}
+		};
+	}
+
+	/**
+	 * Replacement for a run of consecutive pages after an edit: the
+	 * {@code oldCount} pages starting at {@code firstPageNumber} become
+	 * {@code contents}, and pages outside the run keep their text.
+	 */
+	static final class Rebalance {
+		final int firstPageNumber;
+		final int oldCount;
+		final List<String> contents;
+
+		Rebalance(int firstPageNumber, int oldCount, List<String> contents) {
+			this.firstPageNumber = firstPageNumber;
+			this.oldCount = oldCount;
+			this.contents = contents;
+		}
+	}
+
+	static Rebalance planRebalance(String previous, String current, String next, int pageNumber) {
+		return planRebalance(previous, current, next, pageNumber, PAGE_SIZE, TOLERANCE);
+	}
+
+	/**
+	 * Decides how an edited page is brought back to size using only its direct
+	 * neighbours ({@code null} when absent). An oversized page is split at
+	 * boundaries; a page under half the page size is merged into the next or
+	 * previous page when the result fits. Returns null when the layout is fine.
+	 */
+	static Rebalance planRebalance(String previous, String current, String next, int pageNumber, int pageSize,
+			int tolerance) {
+		int maxLength = pageSize + tolerance;
+		if (current.length() > maxLength) {
+			List<String> pieces = new ArrayList<>();
+			iterate(current, pageSize, tolerance).forEachRemaining(page -> pieces.add(page.getPageContent()));
+			return new Rebalance(pageNumber, 1, pieces);
+		}
+		if (current.length() >= pageSize / 2) {
+			return null;
+		}
+		if (next != null && current.length() + next.length() <= maxLength) {
+			return new Rebalance(pageNumber, 2, Collections.singletonList(current + next));
+		}
+		if (previous != null && previous.length() + current.length() <= maxLength) {
+			return new Rebalance(pageNumber - 1, 2, Collections.singletonList(previous + current));
+		}
+		return null;
+	}
+
+	/**
+	 * End (exclusive) of the page starting at {@code start}. No char past
+	 * {@code start + pageSize + tolerance} is examined, so a streaming caller
+	 * only needs that many chars plus one buffered to get the same cut.
+	 */
+	static int findPageEnd(CharSequence text, int start, int length, int pageSize, int tolerance) {
+		if (length - start <= pageSize) {
+			return length;
+		}
+		int target = start + pageSize;
+		int low = Math.max(start + 1, target - tolerance);
+		int high = Math.min(length - 1, target + tolerance);
+
+		int best = -1;
+		int bestClass = NO_BOUNDARY;
+		for (int p = low; p <= high; p++) {
+			int boundary = boundaryClass(text, start, p);
+			if (boundary > bestClass || (boundary == bestClass && boundary != NO_BOUNDARY
+					&& Math.abs(p - target) < Math.abs(best - target))) {
+				best = p;
+				bestClass = boundary;
+			}
+		}
+		if (best >= 0) {
+			return best;
+		}
+
+		// No boundary in reach: hard cut, but never between the halves of a surrogate pair
+		if (Character.isLowSurrogate(text.charAt(target)) && Character.isHighSurrogate(text.charAt(target - 1))
+				&& target - 1 > start) {
+			return target - 1;
+		}
+		return target;
+	}
+
+	/** Kind of boundary a cut before {@code text[p]} would fall on; pages start at a word. */
+	private static int boundaryClass(CharSequence text, int start, int p) {
+		if (Tokenizer.isWhitespace(text.charAt(p)) || !Tokenizer.isWhitespace(text.charAt(p - 1))) {
+			return NO_BOUNDARY;
+		}
+		int newlines = 0;
+		int i = p - 1;
+		while (i >= start && Tokenizer.isWhitespace(text.charAt(i))) {
+			if (text.charAt(i) == '\n') {
+				newlines++;
+			}
+			i--;
+		}
+		if (newlines >= 2) {
+			return PARAGRAPH;
+		}
+		if (i >= start && SENTENCE_TERMINATORS.indexOf(text.charAt(i)) >= 0) {
+			return SENTENCE;
+		}
+		return WORD;
+	}
 }
@@ -1,21 +1,11 @@
 package dal;
 
-import java.util.Arrays;
-import java.util.HashSet;
-import java.util.Set;
+import util.Harakat;
 
 public class PreProcessText {
-	private static final Set<Character> DIACRITICS = new HashSet<>(
-			Arrays.asList('َ', 'ً', 'ُ', 'ٌ', 'ِ', 'ٍ', 'ْ', 'ّ'));
 
 	public static String removeHarakat(String text) {
-		StringBuilder result = new StringBuilder();
-		for (char ch : text.toCharArray()) {
-			if (!DIACRITICS.contains(ch)) {
-				result.append(ch);
-			}
-		}
-		return result.toString();
+		return Harakat.remove(text);
 	}
 
 	public static String removeNonArabicCharacters(String text) {
@@ -23,8 +13,6 @@ public class PreProcessText {
 	}
 
 	public static String preprocessText(String text) {
-		text = removeHarakat(text);
-		text = removeNonArabicCharacters(text);
-		return text.toLowerCase();
+		return ArabicNormalizer.getInstance().normalize(text);
 	}
 }
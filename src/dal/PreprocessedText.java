@@ -0,0 +1,116 @@
+package dal;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import util.Tokenizer;
+
+/**
+ * Normalized text and its token array for one piece of page content. Results
+ * are memoized in a small LRU keyed by the content itself (String hash plus an
+ * equality check), so PKL, PMI, TF-IDF and the morphology entry points share a
+ * single normalize/tokenize pass per page on every save or open.
+ * <p>
+ * Only page-sized text is cached, at most {@link #MAX_CACHED_LENGTH}
+ * characters, so the cache holds a bounded number of characters. Whole
+ * documents and one-off bulk passes use {@link #uncached(String)} and never
+ * evict the pages being edited.
+ * <p>
+ * The token array is shared between callers and must not be modified.
+ */
+final class PreprocessedText {
+
+	private static final int MAX_ENTRIES = Math.max(1, ConfigProperties.getInt("cache.preprocess.maxEntries", 64));
+	// Room for a page that has grown past pagination.pageSize before the next rebalance
+	static final int MAX_CACHED_LENGTH = 2 * PaginationDAO.PAGE_SIZE;
+
+	private static final Map<String, PreprocessedText> CACHE = new LinkedHashMap<String, PreprocessedText>(16, 0.75f,
+			true) {
+		private static final long serialVersionUID = 1L;
+
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<String, PreprocessedText> eldest) {
+			return size() > MAX_ENTRIES;
+		}
+	};
+
+	private static long hits;
+	private static long misses;
+
+	private final String normalized;
+	private final String[] tokens;
+	private volatile NGramCounts nGramCounts;
+
+	private PreprocessedText(String normalized, String[] tokens) {
+		this.normalized = normalized;
+		this.tokens = tokens;
+	}
+
+	static PreprocessedText of(String content) {
+		if (content.length() > MAX_CACHED_LENGTH) {
+			return uncached(content);
+		}
+		synchronized (CACHE) {
+			PreprocessedText cached = CACHE.get(content);
+			if (cached != null) {
+				hits++;
+				return cached;
+			}
+			misses++;
+		}
+
+		PreprocessedText preprocessed = uncached(content);
+		synchronized (CACHE) {
+			CACHE.put(content, preprocessed);
+		}
+		return preprocessed;
+	}
+
+	/** Preprocesses {@code content} without looking it up in or adding it to the cache. */
+	static PreprocessedText uncached(String content) {
+		String normalized = PreProcessText.preprocessText(content);
+		return new PreprocessedText(normalized, Tokenizer.tokens(normalized));
+	}
+
+	String getNormalized() {
+		return normalized;
+	}
+
+	String[] getTokens() {
+		return tokens;
+	}
+
+	/** Unigram and bigram counts of the tokens, built on first use and shared by PKL and PMI. */
+	NGramCounts getNGramCounts() {
+		NGramCounts counts = nGramCounts;
+		if (counts == null) {
+			counts = new NGramCounts(tokens);
+			nGramCounts = counts;
+		}
+		return counts;
+	}
+
+	static void clear() {
+		synchronized (CACHE) {
+			CACHE.clear();
+		}
+	}
+
+	static long getHitCount() {
+		synchronized (CACHE) {
+			return hits;
+		}
+	}
+
+	static long getMissCount() {
+		synchronized (CACHE) {
+			return misses;
+		}
+	}
+
+	static int size() {
+		synchronized (CACHE) {
+			return CACHE.size();
+		}
+	}
+}
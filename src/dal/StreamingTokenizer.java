@@ -0,0 +1,77 @@
+package dal;
+
+import util.Tokenizer;
+
+/**
+ * Normalizes and tokenizes a document that arrives one page at a time. A
+ * token that runs across a page boundary is held back until it is complete
+ * and reported with the number of the page it started on, so the token
+ * sequence is exactly {@code Tokenizer.tokens(normalize(wholeText))} while
+ * only the current page and the unfinished token are kept in memory.
+ * <p>
+ * Instances are not thread-safe.
+ */
+final class StreamingTokenizer {
+
+	interface TokenSink {
+		void token(String token, int pageNumber);
+	}
+
+	private final ArabicNormalizer normalizer;
+	private final TokenSink sink;
+	private final StringBuilder pending = new StringBuilder();
+	private int pendingPage;
+	private char pendingHighSurrogate;
+	private long tokenCount;
+
+	StreamingTokenizer(ArabicNormalizer normalizer, TokenSink sink) {
+		this.normalizer = normalizer;
+		this.sink = sink;
+	}
+
+	void feed(CharSequence raw, int pageNumber) {
+		CharSequence chunk = raw;
+		if (pendingHighSurrogate != 0) {
+			chunk = new StringBuilder(raw.length() + 1).append(pendingHighSurrogate).append(raw);
+			pendingHighSurrogate = 0;
+		}
+		// A surrogate pair split by the page cut is normalized once both halves are here
+		int length = chunk.length();
+		if (length > 0 && Character.isHighSurrogate(chunk.charAt(length - 1))) {
+			pendingHighSurrogate = chunk.charAt(length - 1);
+			chunk = chunk.subSequence(0, length - 1);
+		}
+
+		String normalized = normalizer.normalize(chunk);
+		for (int i = 0; i < normalized.length(); i++) {
+			char c = normalized.charAt(i);
+			if (Tokenizer.isWhitespace(c)) {
+				flush();
+			} else {
+				if (pending.length() == 0) {
+					pendingPage = pageNumber;
+				}
+				pending.append(c);
+			}
+		}
+	}
+
+	/** Reports the last token; call once after the final page. */
+	void finish() {
+		// A lone high surrogate at the very end is dropped by the normalizer anyway
+		pendingHighSurrogate = 0;
+		flush();
+	}
+
+	long getTokenCount() {
+		return tokenCount;
+	}
+
+	private void flush() {
+		if (pending.length() > 0) {
+			tokenCount++;
+			sink.token(pending.toString(), pendingPage);
+			pending.setLength(0);
+		}
+	}
+}
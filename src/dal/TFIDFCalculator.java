@@ -2,70 +2,203 @@ package dal;
 
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
-import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
-import java.util.Set;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
+/**
+ * Scores documents against a corpus. The IDF of the corpus is kept as an
+ * immutable {@link IdfModel} built once, in parallel, on first use and shared
+ * by every later score; adding or removing a document bumps the corpus version
+ * and drops the model, so it is rebuilt only when the corpus really changed.
+ * Documents are whole files and are preprocessed without the page cache.
+ * {@link DocumentFrequencyIndex} keeps the same model of the stored corpus,
+ * keyed by tokenId.
+ */
 public class TFIDFCalculator {
 
-	private List<String> corpus = new ArrayList<>();
+	private static ForkJoinPool pool;
 
-	public void addDocumentToCorpus(String document) {
-		corpus.add(PreProcessText.preprocessText(document));
+	private final List<String[]> corpus = new ArrayList<>();
+	private long version;
+	private volatile IdfModel<String> idfModel;
+
+	/**
+	 * IDF of every corpus term for one version of the corpus. Terms the corpus
+	 * has never seen get the smoothed IDF of a zero document frequency.
+	 */
+	public static final class IdfModel<K> {
+		private final long version;
+		private final int corpusSize;
+		private final Map<K, Double> idf;
+		private final double unseenIdf;
+
+		IdfModel(long version, int corpusSize, Map<K, Double> idf) {
+			this.version = version;
+			this.corpusSize = corpusSize;
+			this.idf = Collections.unmodifiableMap(idf);
+			this.unseenIdf = inverseDocumentFrequency(0, corpusSize);
+		}
+
+		/** Model of a corpus of {@code corpusSize} documents from the number of documents containing each term. */
+		static <K> IdfModel<K> fromDocumentFrequencies(long version, int corpusSize,
+				Map<K, ? extends Number> documentFrequencies) {
+			Map<K, Double> idf = new HashMap<>(documentFrequencies.size() * 2);
+			for (Map.Entry<K, ? extends Number> entry : documentFrequencies.entrySet()) {
+				idf.put(entry.getKey(), inverseDocumentFrequency(entry.getValue().intValue(), corpusSize));
+			}
+			return new IdfModel<>(version, corpusSize, idf);
+		}
+
+		public long getVersion() {
+			return version;
+		}
+
+		public int getCorpusSize() {
+			return corpusSize;
+		}
+
+		public double idf(K term) {
+			Double value = idf.get(term);
+			return value == null ? unseenIdf : value;
+		}
+
+		/** True if some corpus document contains {@code term}. */
+		public boolean contains(K term) {
+			return idf.containsKey(term);
+		}
+	}
+
+	public synchronized void addDocumentToCorpus(String document) {
+		corpus.add(PreprocessedText.uncached(document).getTokens());
+		invalidate();
+	}
+
+	/** Removes one copy of {@code document} from the corpus; false if it was not there. */
+	public synchronized boolean removeDocumentFromCorpus(String document) {
+		String[] tokens = PreprocessedText.uncached(document).getTokens();
+		for (int i = 0; i < corpus.size(); i++) {
+			if (Arrays.equals(corpus.get(i), tokens)) {
+				corpus.remove(i);
+				invalidate();
+				return true;
+			}
+		}
+		return false;
+	}
+
+	private void invalidate() {
+		version++;
+		idfModel = null;
+	}
+
+	/** IDF model of the current corpus, built on the first call after a change. */
+	public IdfModel<String> getIdfModel() {
+		IdfModel<String> model = idfModel;
+		if (model != null) {
+			return model;
+		}
+		synchronized (this) {
+			if (idfModel == null) {
+				idfModel = buildIdfModel();
+			}
+			return idfModel;
+		}
 	}
 
 	public double calculateDocumentTfIdf(String document) {
-		String preprocessedDoc = PreProcessText.preprocessText(document);
-		String[] words = preprocessedDoc.split("\\s+");
-		List<String> wordList = Arrays.asList(words);
+		String[] words = PreprocessedText.uncached(document).getTokens();
+		Map<String, Integer> termCounts = new HashMap<>();
+		for (String word : words) {
+			termCounts.merge(word, 1, Integer::sum);
+		}
+		return calculateDocumentTfIdf(termCounts, words.length);
+	}
+
+	/**
+	 * Same score as {@link #calculateDocumentTfIdf(String)} from the document's
+	 * term counts, for callers that count terms while streaming a document.
+	 */
+	public double calculateDocumentTfIdf(Map<String, Integer> termCounts, long totalWords) {
+		if (totalWords == 0) {
+			return 0.0;
+		}
 
-		Map<String, Double> tf = calculateTermFrequency(wordList);
-		Map<String, Double> idf = calculateInverseDocumentFrequency();
+		IdfModel<String> idf = getIdfModel();
 
 		double totalTfIdf = 0.0;
-		for (String word : tf.keySet()) {
-			double tfValue = tf.get(word);
-			double idfValue = idf.getOrDefault(word, Math.log(corpus.size() + 1));
-			totalTfIdf += tfValue * idfValue;
+		for (Map.Entry<String, Integer> entry : termCounts.entrySet()) {
+			double tfValue = entry.getValue() / (double) totalWords;
+			totalTfIdf += tfValue * idf.idf(entry.getKey());
 		}
 
-		return totalTfIdf / wordList.size();
+		return totalTfIdf / totalWords;
 	}
 
-	private Map<String, Double> calculateTermFrequency(List<String> wordList) {
-		Map<String, Double> tf = new HashMap<>();
-		double totalWords = wordList.size();
-
-		for (String word : wordList) {
-			tf.put(word, tf.getOrDefault(word, 0.0) + 1);
+	/**
+	 * Same score from stored corpus statistics: {@code documentFrequencies[i]}
+	 * is the number of corpus documents containing the term counted in
+	 * {@code termCounts[i]}. Runs in time proportional to the document's
+	 * distinct terms, whatever the size of the corpus.
+	 */
+	public static double calculateDocumentTfIdf(int[] termCounts, int[] documentFrequencies, int corpusSize,
+			long totalWords) {
+		if (totalWords == 0) {
+			return 0.0;
 		}
 
-		for (String word : tf.keySet()) {
-			tf.put(word, tf.get(word) / totalWords);
+		double totalTfIdf = 0.0;
+		for (int i = 0; i < termCounts.length; i++) {
+			double tfValue = termCounts[i] / (double) totalWords;
+			totalTfIdf += tfValue * inverseDocumentFrequency(documentFrequencies[i], corpusSize);
 		}
 
-		return tf;
+		return totalTfIdf / totalWords;
 	}
 
-	private Map<String, Double> calculateInverseDocumentFrequency() {
-		Map<String, Double> idf = new HashMap<>();
-		int totalDocs = corpus.size();
+	/**
+	 * Component of a document's sparse TF-IDF vector for one term. The scalar
+	 * score above is the sum of these weights divided by {@code totalWords}.
+	 */
+	static double termWeight(int termCount, int documentFrequency, int corpusSize, long totalWords) {
+		return termCount / (double) totalWords * inverseDocumentFrequency(documentFrequency, corpusSize);
+	}
 
-		for (String doc : corpus) {
-			Set<String> uniqueWords = Arrays.stream(doc.split("\\s+")).collect(Collectors.toSet());
-			for (String word : uniqueWords) {
-				idf.put(word, idf.getOrDefault(word, 0.0) + 1);
-			}
+	/** Smoothed IDF; terms the corpus has never seen get log(N + 1). */
+	static double inverseDocumentFrequency(int documentFrequency, int corpusSize) {
+		if (documentFrequency <= 0) {
+			return Math.log(corpusSize + 1);
 		}
+		return Math.log((double) corpusSize / (1 + documentFrequency));
+	}
 
-		for (String word : idf.keySet()) {
-			idf.put(word, Math.log((double) totalDocs / (1 + idf.get(word))));
+	/**
+	 * Scoring runs on the editor's and the analyzers' threads, so model builds
+	 * get their own pool rather than competing for PageAnalyzer's.
+	 */
+	private static synchronized ForkJoinPool getPool() {
+		if (pool == null) {
+			pool = new ForkJoinPool(Math.max(1, Runtime.getRuntime().availableProcessors() / 2));
 		}
+		return pool;
+	}
 
-		return idf;
+	/**
+	 * Counts document frequencies over the corpus in parallel, each document
+	 * contributing its distinct terms once. Called with the lock held, so the
+	 * corpus does not change underneath the build.
+	 */
+	private IdfModel<String> buildIdfModel() {
+		ConcurrentMap<String, Long> documentFrequencies = getPool()
+				.submit(() -> corpus.parallelStream().flatMap(doc -> Arrays.stream(doc).distinct())
+						.collect(Collectors.groupingByConcurrent(Function.identity(), Collectors.counting())))
+				.join();
+		return IdfModel.fromDocumentFrequencies(version, corpus.size(), documentFrequencies);
 	}
 
 //    public static void main(String[] args) {
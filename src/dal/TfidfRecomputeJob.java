@@ -0,0 +1,347 @@
+package dal;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+import java.util.stream.IntStream;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import pl.EditorPO;
+
+/**
+ * Brings every file's tfidf.tfidfScore up to date with the current corpus in
+ * the background. A file's score is written against the corpus as it was when
+ * the file was saved, so each corpus change requests a run; requests arriving
+ * within tfidf.recomputeDelayMs of each other are coalesced into one.
+ * <p>
+ * A run reads the stored term counts under the DAO's lock, takes the IDF
+ * model {@link DocumentFrequencyIndex} shares with stored-score reads, scores
+ * the documents on its own fork-join pool of tfidf.recomputeParallelism
+ * threads (half the CPUs by default, so imports keep the rest) and writes the
+ * scores in batched transactions of a few files each, releasing the lock in
+ * between. Documents are scored against the corpus that contains them, as
+ * every saved file is, so a run changes a score only when the corpus changed
+ * since the file was saved. The same run reweights every document's row in
+ * document_vectors and document_norms, so similarity search follows the
+ * corpus too. A new request or {@link #cancel()} stops a run between
+ * documents or between written chunks; files it did not reach wait for the
+ * next run.
+ */
+final class TfidfRecomputeJob {
+	private static final Logger LOGGER = LogManager.getLogger(EditorPO.class);
+	private static final long DELAY_MS = Math.max(0, ConfigProperties.getLong("tfidf.recomputeDelayMs", 5000));
+	private static final int PARALLELISM = Math.max(1, ConfigProperties.getInt("tfidf.recomputeParallelism",
+			Runtime.getRuntime().availableProcessors() / 2));
+	private static final int VECTOR_BATCH_SIZE = 1000;
+	private static final int FILES_PER_WRITE = 100;
+
+	private static final ScheduledExecutorService SCHEDULER = Executors.newSingleThreadScheduledExecutor(runnable -> {
+		Thread thread = new Thread(runnable, "tfidf-recompute");
+		thread.setDaemon(true);
+		return thread;
+	});
+	private static ForkJoinPool pool;
+
+	private final Connection conn;
+	private final Object lock;
+	private final DocumentFrequencyIndex documentFrequencies;
+	private ScheduledFuture<?> pending;
+	// Bumped by every request and cancel; a run stops once it no longer matches
+	private volatile long generation;
+
+	/** {@code lock} guards {@code conn}; the job holds it only while reading and writing. */
+	TfidfRecomputeJob(Connection conn, Object lock, DocumentFrequencyIndex documentFrequencies) {
+		this.conn = conn;
+		this.lock = lock;
+		this.documentFrequencies = documentFrequencies;
+	}
+
+	private static synchronized ForkJoinPool getPool() {
+		if (pool == null) {
+			pool = new ForkJoinPool(PARALLELISM);
+		}
+		return pool;
+	}
+
+	/** Schedules a run; one already waiting is pushed back and one in progress is stopped. */
+	synchronized void requestRecompute() {
+		long runGeneration = cancelPending();
+		pending = SCHEDULER.schedule(() -> runQuietly(runGeneration), DELAY_MS, TimeUnit.MILLISECONDS);
+	}
+
+	synchronized void cancel() {
+		cancelPending();
+	}
+
+	private long cancelPending() {
+		if (pending != null) {
+			pending.cancel(false);
+			pending = null;
+		}
+		return ++generation;
+	}
+
+	private void runQuietly(long runGeneration) {
+		try {
+			if (run(runGeneration)) {
+				LOGGER.info("Recomputed TF-IDF scores");
+			}
+		} catch (Exception e) {
+			e.printStackTrace();
+			LOGGER.error(e.getMessage());
+		}
+	}
+
+	/** One full recompute on the calling thread; false if it was cancelled before it finished writing. */
+	boolean run() throws SQLException {
+		return run(generation);
+	}
+
+	private boolean run(long runGeneration) throws SQLException {
+		BooleanSupplier cancelled = () -> generation != runGeneration;
+		CorpusSnapshot snapshot;
+		synchronized (lock) {
+			snapshot = CorpusSnapshot.read(conn, documentFrequencies.getIdfModel(conn));
+			// Do not leave a read transaction open on the editor's connection
+			if (!conn.getAutoCommit()) {
+				conn.commit();
+			}
+		}
+
+		Recomputed recomputed;
+		try {
+			recomputed = scoreAll(snapshot, getPool(), cancelled);
+		} catch (CancellationException e) {
+			return false;
+		}
+
+		// One short transaction per chunk, so saves and reads get the lock in between
+		for (int from = 0; from < snapshot.fileIds.length; from += FILES_PER_WRITE) {
+			synchronized (lock) {
+				// Corpus changes request a run while holding the lock, so a stale chunk is never written
+				if (cancelled.getAsBoolean()) {
+					return false;
+				}
+				write(snapshot, recomputed, from, Math.min(from + FILES_PER_WRITE, snapshot.fileIds.length));
+			}
+		}
+		return true;
+	}
+
+	/** Scores, norms and vectors of snapshot documents {@code from} to {@code to}, in one transaction. */
+	private void write(CorpusSnapshot snapshot, Recomputed recomputed, int from, int to) throws SQLException {
+		int[] fileIds = snapshot.fileIds;
+		conn.setAutoCommit(false);
+		try (PreparedStatement scoreStmt = conn.prepareStatement("UPDATE tfidf SET tfidfScore = ? WHERE fileId = ?");
+				PreparedStatement deleteStmt = conn.prepareStatement("DELETE FROM document_vectors WHERE fileId = ?");
+				PreparedStatement vectorStmt = conn
+						.prepareStatement("INSERT INTO document_vectors (fileId, tokenId, weight) VALUES (?, ?, ?)");
+				PreparedStatement normStmt = conn.prepareStatement("INSERT INTO document_norms (fileId, norm) VALUES (?, ?) "
+						+ "ON DUPLICATE KEY UPDATE norm = VALUES(norm)")) {
+			for (int i = from; i < to; i++) {
+				scoreStmt.setDouble(1, recomputed.scores[i]);
+				scoreStmt.setInt(2, fileIds[i]);
+				scoreStmt.addBatch();
+				deleteStmt.setInt(1, fileIds[i]);
+				deleteStmt.addBatch();
+				normStmt.setInt(1, fileIds[i]);
+				normStmt.setDouble(2, recomputed.norms[i]);
+				normStmt.addBatch();
+			}
+			scoreStmt.executeBatch();
+			deleteStmt.executeBatch();
+			normStmt.executeBatch();
+
+			int pending = 0;
+			for (int i = from; i < to; i++) {
+				double[] weights = recomputed.weights[i];
+				for (int t = 0; t < weights.length; t++) {
+					if (weights[t] > 0) {
+						vectorStmt.setInt(1, fileIds[i]);
+						vectorStmt.setInt(2, snapshot.tokenIds[i][t]);
+						vectorStmt.setDouble(3, weights[t]);
+						vectorStmt.addBatch();
+						if (++pending == VECTOR_BATCH_SIZE) {
+							vectorStmt.executeBatch();
+							pending = 0;
+						}
+					}
+				}
+			}
+			if (pending > 0) {
+				vectorStmt.executeBatch();
+			}
+			conn.commit();
+		} catch (SQLException e) {
+			try {
+				conn.rollback();
+			} catch (SQLException rollbackEx) {
+				rollbackEx.printStackTrace();
+				LOGGER.error(rollbackEx.getMessage());
+			}
+			throw e;
+		}
+	}
+
+	/** Scores and vector weights of every snapshot document, in the snapshot's order. */
+	static final class Recomputed {
+		final double[] scores;
+		// weights[i][t] belongs to snapshot.tokenIds[i][t]; terms with no positive weight are not stored
+		final double[][] weights;
+		final double[] norms;
+
+		Recomputed(int documents) {
+			this.scores = new double[documents];
+			this.weights = new double[documents][];
+			this.norms = new double[documents];
+		}
+	}
+
+	/** Scores and weights every document of the snapshot in parallel. */
+	static Recomputed scoreAll(CorpusSnapshot snapshot, ForkJoinPool pool, BooleanSupplier cancelled) {
+		Recomputed recomputed = new Recomputed(snapshot.fileIds.length);
+		try {
+			pool.submit(() -> IntStream.range(0, recomputed.scores.length).parallel().forEach(i -> {
+				if (cancelled.getAsBoolean()) {
+					throw new CancellationException();
+				}
+				recomputed.scores[i] = snapshot.score(i);
+				double[] weights = snapshot.weights(i);
+				double squaredNorm = 0.0;
+				for (double weight : weights) {
+					if (weight > 0) {
+						squaredNorm += weight * weight;
+					}
+				}
+				recomputed.weights[i] = weights;
+				recomputed.norms[i] = Math.sqrt(squaredNorm);
+			})).get();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new CancellationException();
+		} catch (ExecutionException e) {
+			if (e.getCause() instanceof CancellationException) {
+				throw (CancellationException) e.getCause();
+			}
+			throw new IllegalStateException(e.getCause());
+		}
+		return recomputed;
+	}
+
+	/**
+	 * The stored term counts of every file and the shared IDF of every term,
+	 * read once per run. Documents are {@code fileIds[i]} with the terms
+	 * {@code tokenIds[i]} counted {@code termCounts[i]} times.
+	 */
+	static final class CorpusSnapshot {
+		final int[] fileIds;
+		final int[][] tokenIds;
+		final int[][] termCounts;
+		final TFIDFCalculator.IdfModel<Integer> idf;
+
+		CorpusSnapshot(int[] fileIds, int[][] tokenIds, int[][] termCounts, TFIDFCalculator.IdfModel<Integer> idf) {
+			this.fileIds = fileIds;
+			this.tokenIds = tokenIds;
+			this.termCounts = termCounts;
+			this.idf = idf;
+		}
+
+		/** Same value as {@link TFIDFCalculator#calculateDocumentTfIdf(String)} against this corpus. */
+		double score(int document) {
+			int[] counts = termCounts[document];
+			long totalWords = 0;
+			for (int count : counts) {
+				totalWords += count;
+			}
+			if (totalWords == 0) {
+				return 0.0;
+			}
+			double totalTfIdf = 0.0;
+			for (int i = 0; i < counts.length; i++) {
+				totalTfIdf += counts[i] / (double) totalWords * idf.idf(tokenIds[document][i]);
+			}
+			return totalTfIdf / totalWords;
+		}
+
+		/**
+		 * Same weights as {@link DocumentVectorIndex#putVector} writes for this
+		 * document; 0 for a term with no document frequency.
+		 */
+		double[] weights(int document) {
+			int[] counts = termCounts[document];
+			long totalWords = 0;
+			for (int count : counts) {
+				totalWords += count;
+			}
+			double[] weights = new double[counts.length];
+			for (int i = 0; i < counts.length; i++) {
+				// idf holds inverseDocumentFrequency(df), so this is TFIDFCalculator.termWeight
+				int tokenId = tokenIds[document][i];
+				if (idf.contains(tokenId)) {
+					weights[i] = counts[i] / (double) totalWords * idf.idf(tokenId);
+				}
+			}
+			return weights;
+		}
+
+		static CorpusSnapshot read(Connection conn, TFIDFCalculator.IdfModel<Integer> idf) throws SQLException {
+			List<Integer> fileIds = new ArrayList<>();
+			List<int[]> tokenIds = new ArrayList<>();
+			List<int[]> termCounts = new ArrayList<>();
+			try (Statement stmt = conn.createStatement(); ResultSet rs = stmt.executeQuery(
+					"SELECT f.fileId, t.tokenId, t.termCount FROM files f LEFT JOIN document_terms t "
+							+ "ON t.fileId = f.fileId ORDER BY f.fileId")) {
+				int current = -1;
+				List<int[]> rows = new ArrayList<>();
+				while (rs.next()) {
+					int fileId = rs.getInt(1);
+					if (fileId != current && current != -1) {
+						addDocument(current, rows, fileIds, tokenIds, termCounts);
+						rows.clear();
+					}
+					current = fileId;
+					int tokenId = rs.getInt(2);
+					if (!rs.wasNull()) {
+						rows.add(new int[] { tokenId, rs.getInt(3) });
+					}
+				}
+				if (current != -1) {
+					addDocument(current, rows, fileIds, tokenIds, termCounts);
+				}
+			}
+
+			int[] ids = new int[fileIds.size()];
+			for (int i = 0; i < ids.length; i++) {
+				ids[i] = fileIds.get(i);
+			}
+			return new CorpusSnapshot(ids, tokenIds.toArray(new int[0][]), termCounts.toArray(new int[0][]), idf);
+		}
+
+		private static void addDocument(int fileId, List<int[]> rows, List<Integer> fileIds, List<int[]> tokenIds,
+				List<int[]> termCounts) {
+			int[] tokens = new int[rows.size()];
+			int[] counts = new int[rows.size()];
+			for (int i = 0; i < rows.size(); i++) {
+				tokens[i] = rows.get(i)[0];
+				counts[i] = rows.get(i)[1];
+			}
+			fileIds.add(fileId);
+			tokenIds.add(tokens);
+			termCounts.add(counts);
+		}
+	}
+}
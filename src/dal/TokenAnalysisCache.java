@@ -0,0 +1,120 @@
+package dal;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import dto.TokenAnalysis;
+
+/**
+ * Shared, size-bounded cache of AlKhalil results keyed by normalized token.
+ * When the cache overflows, the least frequently used tenth is evicted in one
+ * batch and the survivors' counts are halved so that formerly hot tokens can
+ * age out.
+ */
+public class TokenAnalysisCache {
+	private static final int DEFAULT_MAX_ENTRIES = 50000;
+	private static TokenAnalysisCache INSTANCE;
+
+	private final Map<String, CacheEntry> entries = new ConcurrentHashMap<>();
+	private final int maxEntries;
+	private final AtomicLong hits = new AtomicLong();
+	private final AtomicLong misses = new AtomicLong();
+	private final AtomicLong evictions = new AtomicLong();
+
+	TokenAnalysisCache(int maxEntries) {
+		this.maxEntries = Math.max(1, maxEntries);
+	}
+
+	public static synchronized TokenAnalysisCache getInstance() {
+		if (INSTANCE == null) {
+			INSTANCE = new TokenAnalysisCache(ConfigProperties.getInt("cache.tokens.maxEntries", DEFAULT_MAX_ENTRIES));
+		}
+		return INSTANCE;
+	}
+
+	public static String normalize(String token) {
+		String normalized = PreProcessText.preprocessText(token).trim();
+		return normalized.isEmpty() ? token : normalized;
+	}
+
+	public TokenAnalysis get(String key) {
+		CacheEntry entry = entries.get(key);
+		if (entry == null) {
+			misses.incrementAndGet();
+			return null;
+		}
+		entry.frequency.incrementAndGet();
+		hits.incrementAndGet();
+		return entry.analysis;
+	}
+
+	public void put(String key, TokenAnalysis analysis) {
+		if (entries.putIfAbsent(key, new CacheEntry(analysis)) == null && entries.size() > maxEntries) {
+			evict();
+		}
+	}
+
+	private synchronized void evict() {
+		if (entries.size() <= maxEntries) {
+			return;
+		}
+		List<Map.Entry<String, CacheEntry>> snapshot = new ArrayList<>(entries.entrySet());
+		Collections.sort(snapshot, (a, b) -> Integer.compare(a.getValue().frequency.get(), b.getValue().frequency.get()));
+
+		int toEvict = snapshot.size() - maxEntries + Math.max(1, maxEntries / 10);
+		for (int i = 0; i < snapshot.size(); i++) {
+			Map.Entry<String, CacheEntry> entry = snapshot.get(i);
+			if (i < toEvict) {
+				entries.remove(entry.getKey(), entry.getValue());
+				evictions.incrementAndGet();
+			} else {
+				AtomicInteger frequency = entry.getValue().frequency;
+				frequency.set(frequency.get() >>> 1);
+			}
+		}
+	}
+
+	public void clear() {
+		entries.clear();
+	}
+
+	public int size() {
+		return entries.size();
+	}
+
+	public int getMaxEntries() {
+		return maxEntries;
+	}
+
+	public long getHitCount() {
+		return hits.get();
+	}
+
+	public long getMissCount() {
+		return misses.get();
+	}
+
+	public long getEvictionCount() {
+		return evictions.get();
+	}
+
+	@Override
+	public String toString() {
+		return "TokenAnalysisCache[size=" + size() + ", hits=" + getHitCount() + ", misses=" + getMissCount()
+				+ ", evictions=" + getEvictionCount() + "]";
+	}
+
+	private static class CacheEntry {
+		private final TokenAnalysis analysis;
+		private final AtomicInteger frequency = new AtomicInteger(1);
+
+		CacheEntry(TokenAnalysis analysis) {
+			this.analysis = analysis;
+		}
+	}
+}
@@ -0,0 +1,138 @@
+package dal;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import pl.EditorPO;
+
+/**
+ * Maps token surface forms to ids in the global tokens table and writes each
+ * token's morphology to token_analysis once. Tokens the analyzer skipped are
+ * not written, so their row is filled in by the first real analysis. Ids are
+ * cached per DAO; callers must call {@link #discard()} when a transaction that
+ * may have created new tokens is rolled back.
+ */
+class TokenDictionary {
+	private static final Logger LOGGER = LogManager.getLogger(EditorPO.class);
+	static final int MAX_SURFACE_LENGTH = 768;
+	private static final int LOOKUP_CHUNK_SIZE = 500;
+
+	private final Map<String, Integer> ids = new HashMap<>();
+	private final Set<Integer> analyzed = new HashSet<>();
+
+	synchronized Map<String, Integer> resolve(Connection conn, Collection<String> surfaces) throws SQLException {
+		Map<String, Integer> resolved = new HashMap<>();
+		Set<String> missing = new LinkedHashSet<>();
+
+		for (String surface : surfaces) {
+			if (surface.length() > MAX_SURFACE_LENGTH) {
+				LOGGER.warn("Skipping token longer than " + MAX_SURFACE_LENGTH + " characters");
+				continue;
+			}
+			Integer id = ids.get(surface);
+			if (id != null) {
+				resolved.put(surface, id);
+			} else {
+				missing.add(surface);
+			}
+		}
+
+		if (missing.isEmpty()) {
+			return resolved;
+		}
+
+		try (PreparedStatement insertStmt = conn.prepareStatement("INSERT IGNORE INTO tokens (surface) VALUES (?)")) {
+			for (String surface : missing) {
+				insertStmt.setString(1, surface);
+				insertStmt.addBatch();
+			}
+			insertStmt.executeBatch();
+		}
+
+		List<String> pending = new ArrayList<>(missing);
+		for (int from = 0; from < pending.size(); from += LOOKUP_CHUNK_SIZE) {
+			List<String> chunk = pending.subList(from, Math.min(from + LOOKUP_CHUNK_SIZE, pending.size()));
+			StringBuilder query = new StringBuilder("SELECT tokenId, surface FROM tokens WHERE surface IN (");
+			for (int i = 0; i < chunk.size(); i++) {
+				query.append(i == 0 ? "?" : ", ?");
+			}
+			query.append(")");
+
+			try (PreparedStatement selectStmt = conn.prepareStatement(query.toString())) {
+				for (int i = 0; i < chunk.size(); i++) {
+					selectStmt.setString(i + 1, chunk.get(i));
+				}
+				try (ResultSet rs = selectStmt.executeQuery()) {
+					while (rs.next()) {
+						String surface = rs.getString("surface");
+						int id = rs.getInt("tokenId");
+						ids.put(surface, id);
+						resolved.put(surface, id);
+					}
+				}
+			}
+		}
+		return resolved;
+	}
+
+	synchronized void writeAnalyses(Connection conn, Map<String, Integer> tokenIds, MorphologyBatch morphology)
+			throws SQLException {
+		// A placeholder left by an earlier timeout is replaced; lemma is assigned last so the others still see the old value
+		String query = "INSERT INTO token_analysis (tokenId, pos, lemma, root, stem, segment) VALUES (?, ?, ?, ?, ?, ?) "
+				+ "ON DUPLICATE KEY UPDATE pos = IF(lemma = ?, VALUES(pos), pos), root = IF(lemma = ?, VALUES(root), root), "
+				+ "stem = IF(lemma = ?, VALUES(stem), stem), segment = IF(lemma = ?, VALUES(segment), segment), "
+				+ "lemma = IF(lemma = ?, VALUES(lemma), lemma)";
+		String[] tokens = morphology.getTokens();
+		String[] strings = morphology.getStrings();
+		int[] pos = morphology.getPos();
+		int[] lemma = morphology.getLemma();
+		int[] root = morphology.getRoot();
+		int[] stem = morphology.getStem();
+		int[] segment = morphology.getSegment();
+		List<Integer> written = new ArrayList<>();
+
+		try (PreparedStatement analysisStmt = conn.prepareStatement(query)) {
+			for (int i = 0; i < tokens.length; i++) {
+				Integer tokenId = tokenIds.get(tokens[i]);
+				// Tokens the analyzer skipped are left unwritten so a later real analysis is stored
+				if (tokenId == null || analyzed.contains(tokenId)
+						|| MorphologyAnalyzer.NOT_ANALYZED.equals(strings[lemma[i]])) {
+					continue;
+				}
+				analysisStmt.setInt(1, tokenId);
+				analysisStmt.setString(2, strings[pos[i]]);
+				analysisStmt.setString(3, strings[lemma[i]]);
+				analysisStmt.setString(4, strings[root[i]]);
+				analysisStmt.setString(5, strings[stem[i]]);
+				analysisStmt.setString(6, strings[segment[i]]);
+				for (int parameter = 7; parameter <= 11; parameter++) {
+					analysisStmt.setString(parameter, MorphologyAnalyzer.NOT_ANALYZED);
+				}
+				analysisStmt.addBatch();
+				written.add(tokenId);
+			}
+			if (!written.isEmpty()) {
+				analysisStmt.executeBatch();
+			}
+		}
+		analyzed.addAll(written);
+	}
+
+	synchronized void discard() {
+		ids.clear();
+		analyzed.clear();
+	}
+}
@@ -0,0 +1,310 @@
+package dal;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import dto.TokenAnalysis;
+import pl.EditorPO;
+
+/**
+ * One-off tool that moves an existing database from the per-page word tables
+ * (pos, lemmatization, rootextraction, stemmation, wordsegementation, pkl, pmi)
+ * to the token dictionary schema (tokens, token_analysis, page_tokens,
+ * page_pkl, page_pmi) and then drops the old tables. It also rebuilds the
+ * TF-IDF corpus statistics (document_terms, document_frequency,
+ * corpus_stats) and the corpus n-gram counts (corpus_unigrams,
+ * corpus_bigrams) from the stored pages, so it can be rerun after upgrading.
+ *
+ * Run with: java -cp ... dal.TokenSchemaMigration
+ */
+public class TokenSchemaMigration {
+	private static final Logger LOGGER = LogManager.getLogger(EditorPO.class);
+	private static final int BATCH_SIZE = 5000;
+
+	private static final String[] CREATE_TABLES = {
+			"CREATE TABLE IF NOT EXISTS `tokens` (`tokenId` INT(11) NOT NULL AUTO_INCREMENT, "
+					+ "`surface` VARCHAR(768) NOT NULL COLLATE 'utf8mb4_bin', PRIMARY KEY (`tokenId`), "
+					+ "UNIQUE INDEX `surface` (`surface`)) COLLATE='utf8mb4_general_ci' ENGINE=InnoDB",
+			"CREATE TABLE IF NOT EXISTS `token_analysis` (`tokenId` INT(11) NOT NULL, `pos` TEXT NULL, "
+					+ "`lemma` TEXT NULL, `root` TEXT NULL, `stem` TEXT NULL, `segment` TEXT NULL, "
+					+ "PRIMARY KEY (`tokenId`), CONSTRAINT `token_analysis_ibfk_1` FOREIGN KEY (`tokenId`) "
+					+ "REFERENCES `tokens` (`tokenId`) ON DELETE CASCADE) COLLATE='utf8mb4_general_ci' ENGINE=InnoDB",
+			"CREATE TABLE IF NOT EXISTS `page_tokens` (`pageId` INT(11) NOT NULL, `tokenId` INT(11) NOT NULL, "
+					+ "PRIMARY KEY (`pageId`, `tokenId`), INDEX `page_tokens_token` (`tokenId`), "
+					+ "CONSTRAINT `page_tokens_ibfk_1` FOREIGN KEY (`pageId`) REFERENCES `pages` (`pageId`) ON DELETE CASCADE, "
+					+ "CONSTRAINT `page_tokens_ibfk_2` FOREIGN KEY (`tokenId`) REFERENCES `tokens` (`tokenId`) ON DELETE RESTRICT) "
+					+ "COLLATE='utf8mb4_general_ci' ENGINE=InnoDB",
+			"CREATE TABLE IF NOT EXISTS `page_pkl` (`pageId` INT(11) NOT NULL, `tokenId` INT(11) NOT NULL, "
+					+ "`leftTokenId` INT(11) NOT NULL, `rightTokenId` INT(11) NOT NULL, `pklScore` DOUBLE NOT NULL DEFAULT '0', "
+					+ "PRIMARY KEY (`pageId`, `tokenId`, `leftTokenId`, `rightTokenId`), INDEX `page_pkl_token` (`tokenId`), "
+					+ "CONSTRAINT `page_pkl_ibfk_1` FOREIGN KEY (`pageId`) REFERENCES `pages` (`pageId`) ON DELETE CASCADE) "
+					+ "COLLATE='utf8mb4_general_ci' ENGINE=InnoDB",
+			"CREATE TABLE IF NOT EXISTS `page_pmi` (`pageId` INT(11) NOT NULL, `firstTokenId` INT(11) NOT NULL, "
+					+ "`secondTokenId` INT(11) NOT NULL, `pmiScore` DOUBLE NOT NULL DEFAULT '0', "
+					+ "PRIMARY KEY (`pageId`, `firstTokenId`, `secondTokenId`), "
+					+ "INDEX `page_pmi_bigram` (`firstTokenId`, `secondTokenId`), "
+					+ "CONSTRAINT `page_pmi_ibfk_1` FOREIGN KEY (`pageId`) REFERENCES `pages` (`pageId`) ON DELETE CASCADE) "
+					+ "COLLATE='utf8mb4_general_ci' ENGINE=InnoDB",
+			"CREATE TABLE IF NOT EXISTS `document_terms` (`fileId` INT(11) NOT NULL, `tokenId` INT(11) NOT NULL, "
+					+ "`termCount` INT(11) NOT NULL, PRIMARY KEY (`fileId`, `tokenId`), INDEX `document_terms_token` (`tokenId`), "
+					+ "CONSTRAINT `document_terms_ibfk_1` FOREIGN KEY (`fileId`) REFERENCES `files` (`fileid`) ON DELETE CASCADE, "
+					+ "CONSTRAINT `document_terms_ibfk_2` FOREIGN KEY (`tokenId`) REFERENCES `tokens` (`tokenId`) ON DELETE RESTRICT) "
+					+ "COLLATE='utf8mb4_general_ci' ENGINE=InnoDB",
+			"CREATE TABLE IF NOT EXISTS `document_frequency` (`tokenId` INT(11) NOT NULL, `df` INT(11) NOT NULL DEFAULT '0', "
+					+ "PRIMARY KEY (`tokenId`), CONSTRAINT `document_frequency_ibfk_1` FOREIGN KEY (`tokenId`) "
+					+ "REFERENCES `tokens` (`tokenId`) ON DELETE RESTRICT) COLLATE='utf8mb4_general_ci' ENGINE=InnoDB",
+			"CREATE TABLE IF NOT EXISTS `corpus_stats` (`statName` VARCHAR(64) NOT NULL, "
+					+ "`statValue` BIGINT(20) NOT NULL DEFAULT '0', PRIMARY KEY (`statName`)) "
+					+ "COLLATE='utf8mb4_general_ci' ENGINE=InnoDB",
+			"CREATE TABLE IF NOT EXISTS `document_vectors` (`fileId` INT(11) NOT NULL, `tokenId` INT(11) NOT NULL, "
+					+ "`weight` DOUBLE NOT NULL, PRIMARY KEY (`fileId`, `tokenId`), "
+					+ "INDEX `document_vectors_postings` (`tokenId`, `fileId`, `weight`), "
+					+ "CONSTRAINT `document_vectors_ibfk_1` FOREIGN KEY (`fileId`) REFERENCES `files` (`fileid`) ON DELETE CASCADE) "
+					+ "COLLATE='utf8mb4_general_ci' ENGINE=InnoDB",
+			"CREATE TABLE IF NOT EXISTS `document_norms` (`fileId` INT(11) NOT NULL, `norm` DOUBLE NOT NULL DEFAULT '0', "
+					+ "PRIMARY KEY (`fileId`), CONSTRAINT `document_norms_ibfk_1` FOREIGN KEY (`fileId`) "
+					+ "REFERENCES `files` (`fileid`) ON DELETE CASCADE) COLLATE='utf8mb4_general_ci' ENGINE=InnoDB",
+			"CREATE TABLE IF NOT EXISTS `corpus_unigrams` (`tokenId` INT(11) NOT NULL, "
+					+ "`unigramCount` INT(11) NOT NULL DEFAULT '0', PRIMARY KEY (`tokenId`), "
+					+ "CONSTRAINT `corpus_unigrams_ibfk_1` FOREIGN KEY (`tokenId`) REFERENCES `tokens` (`tokenId`) "
+					+ "ON DELETE RESTRICT) COLLATE='utf8mb4_general_ci' ENGINE=InnoDB",
+			"CREATE TABLE IF NOT EXISTS `corpus_bigrams` (`firstTokenId` INT(11) NOT NULL, "
+					+ "`secondTokenId` INT(11) NOT NULL, `bigramCount` INT(11) NOT NULL DEFAULT '0', "
+					+ "PRIMARY KEY (`firstTokenId`, `secondTokenId`), "
+					+ "CONSTRAINT `corpus_bigrams_ibfk_1` FOREIGN KEY (`firstTokenId`) REFERENCES `tokens` (`tokenId`) ON DELETE RESTRICT, "
+					+ "CONSTRAINT `corpus_bigrams_ibfk_2` FOREIGN KEY (`secondTokenId`) REFERENCES `tokens` (`tokenId`) ON DELETE RESTRICT) "
+					+ "COLLATE='utf8mb4_general_ci' ENGINE=InnoDB" };
+
+	// Legacy table, analysis column, index of that column in the token_analysis row
+	private static final String[][] MORPHOLOGY_TABLES = { { "pos", "pos", "0" }, { "lemmatization", "lemma", "1" },
+			{ "rootextraction", "root", "2" }, { "stemmation", "stem", "3" }, { "wordsegementation", "segment", "4" } };
+
+	private final Connection conn;
+	private final TokenDictionary tokenDictionary = new TokenDictionary();
+	private final Map<String, String[]> analysisFields = new LinkedHashMap<>();
+
+	public TokenSchemaMigration(Connection conn) {
+		this.conn = conn;
+	}
+
+	public static void main(String[] args) {
+		Connection conn = DatabaseConnection.getInstance().getConnection();
+		try {
+			new TokenSchemaMigration(conn).migrate();
+			System.out.println("Token schema migration completed.");
+		} catch (SQLException e) {
+			e.printStackTrace();
+			LOGGER.error("Token schema migration failed: " + e.getMessage());
+			System.exit(1);
+		} finally {
+			DatabaseConnection.getInstance().closeConnection();
+		}
+	}
+
+	public void migrate() throws SQLException {
+		try (Statement stmt = conn.createStatement()) {
+			for (String ddl : CREATE_TABLES) {
+				stmt.execute(ddl);
+			}
+		}
+
+		conn.setAutoCommit(false);
+		try {
+			for (String[] table : MORPHOLOGY_TABLES) {
+				if (tableExists(table[0])) {
+					migrateMorphologyTable(table[0], table[1], Integer.parseInt(table[2]));
+				}
+			}
+			writeTokenAnalyses();
+			if (tableExists("pkl")) {
+				migratePkl();
+			}
+			if (tableExists("pmi")) {
+				migratePmi();
+			}
+			new DocumentFrequencyIndex(tokenDictionary).rebuild(conn);
+			new DocumentVectorIndex().rebuild(conn);
+			new CorpusNGramIndex(tokenDictionary).rebuild(conn);
+			conn.commit();
+		} catch (SQLException e) {
+			conn.rollback();
+			throw e;
+		} finally {
+			conn.setAutoCommit(true);
+		}
+
+		try (Statement stmt = conn.createStatement()) {
+			stmt.execute("DROP TABLE IF EXISTS pos, lemmatization, rootextraction, stemmation, wordsegementation, pkl, pmi");
+		}
+	}
+
+	private boolean tableExists(String table) throws SQLException {
+		String query = "SELECT COUNT(*) FROM information_schema.tables WHERE table_schema = DATABASE() AND table_name = ?";
+		try (PreparedStatement stmt = conn.prepareStatement(query)) {
+			stmt.setString(1, table);
+			try (ResultSet rs = stmt.executeQuery()) {
+				return rs.next() && rs.getInt(1) > 0;
+			}
+		}
+	}
+
+	private void migrateMorphologyTable(String table, String column, int field) throws SQLException {
+		List<Object[]> rows = new ArrayList<>();
+		int migrated = 0;
+
+		try (Statement stmt = conn.createStatement();
+				ResultSet rs = stmt.executeQuery("SELECT pageId, word, " + column + " FROM " + table)) {
+			while (rs.next()) {
+				String word = rs.getString("word");
+				String[] fields = analysisFields.get(word);
+				if (fields == null) {
+					fields = new String[5];
+					analysisFields.put(word, fields);
+				}
+				if (fields[field] == null) {
+					fields[field] = rs.getString(column);
+				}
+				rows.add(new Object[] { rs.getInt("pageId"), word });
+				if (rows.size() == BATCH_SIZE) {
+					migrated += writePageTokens(rows);
+					rows.clear();
+				}
+			}
+		}
+		migrated += writePageTokens(rows);
+		LOGGER.info("Migrated " + migrated + " rows from " + table);
+	}
+
+	private int writePageTokens(List<Object[]> rows) throws SQLException {
+		Set<String> words = new HashSet<>();
+		for (Object[] row : rows) {
+			words.add((String) row[1]);
+		}
+		Map<String, Integer> tokenIds = tokenDictionary.resolve(conn, words);
+
+		int written = 0;
+		try (PreparedStatement stmt = conn.prepareStatement("INSERT IGNORE INTO page_tokens (pageId, tokenId) VALUES (?, ?)")) {
+			for (Object[] row : rows) {
+				Integer tokenId = tokenIds.get(row[1]);
+				if (tokenId != null) {
+					stmt.setInt(1, (Integer) row[0]);
+					stmt.setInt(2, tokenId);
+					stmt.addBatch();
+					written++;
+				}
+			}
+			stmt.executeBatch();
+		}
+		return written;
+	}
+
+	private void writeTokenAnalyses() throws SQLException {
+		Map<String, TokenAnalysis> batch = new LinkedHashMap<>();
+		for (Map.Entry<String, String[]> entry : analysisFields.entrySet()) {
+			String[] fields = entry.getValue();
+			String pos = fields[0] == null ? "None" : fields[0];
+			batch.put(entry.getKey(), new TokenAnalysis(entry.getKey(), Arrays.asList(pos.split("\\|")),
+					fields[1], fields[2], fields[3], fields[4]));
+			if (batch.size() == BATCH_SIZE) {
+				writeTokenAnalyses(batch);
+				batch.clear();
+			}
+		}
+		writeTokenAnalyses(batch);
+		LOGGER.info("Migrated analyses for " + analysisFields.size() + " tokens");
+	}
+
+	private void writeTokenAnalyses(Map<String, TokenAnalysis> batch) throws SQLException {
+		String[] tokens = batch.keySet().toArray(new String[batch.size()]);
+		tokenDictionary.writeAnalyses(conn, tokenDictionary.resolve(conn, batch.keySet()),
+				MorphologyBatch.of(tokens, batch));
+	}
+
+	private void migratePkl() throws SQLException {
+		List<Object[]> rows = new ArrayList<>();
+		try (Statement stmt = conn.createStatement();
+				ResultSet rs = stmt.executeQuery("SELECT pageId, word, pklScore FROM pkl")) {
+			while (rs.next()) {
+				String[] words = splitLegacyKey(rs.getString("word"), true);
+				if (words != null) {
+					rows.add(new Object[] { rs.getInt("pageId"), words, rs.getDouble("pklScore") });
+				}
+				if (rows.size() == BATCH_SIZE) {
+					writeScores(rows, "INSERT IGNORE INTO page_pkl (pageId, tokenId, leftTokenId, rightTokenId, pklScore) VALUES (?, ?, ?, ?, ?)");
+					rows.clear();
+				}
+			}
+		}
+		writeScores(rows, "INSERT IGNORE INTO page_pkl (pageId, tokenId, leftTokenId, rightTokenId, pklScore) VALUES (?, ?, ?, ?, ?)");
+	}
+
+	private void migratePmi() throws SQLException {
+		List<Object[]> rows = new ArrayList<>();
+		try (Statement stmt = conn.createStatement();
+				ResultSet rs = stmt.executeQuery("SELECT pageId, word, pmiScore FROM pmi")) {
+			while (rs.next()) {
+				String[] words = splitLegacyKey(rs.getString("word"), false);
+				if (words != null) {
+					rows.add(new Object[] { rs.getInt("pageId"), words, rs.getDouble("pmiScore") });
+				}
+				if (rows.size() == BATCH_SIZE) {
+					writeScores(rows, "INSERT IGNORE INTO page_pmi (pageId, firstTokenId, secondTokenId, pmiScore) VALUES (?, ?, ?, ?)");
+					rows.clear();
+				}
+			}
+		}
+		writeScores(rows, "INSERT IGNORE INTO page_pmi (pageId, firstTokenId, secondTokenId, pmiScore) VALUES (?, ?, ?, ?)");
+	}
+
+	private static String[] splitLegacyKey(String key, boolean pkl) {
+		try {
+			String[] words = pkl ? PKLCalculator.splitKey(key) : PMICalculator.splitKey(key);
+			return words.length == (pkl ? 3 : 2) ? words : null;
+		} catch (RuntimeException e) {
+			LOGGER.warn("Skipping malformed " + (pkl ? "PKL" : "PMI") + " key: " + key);
+			return null;
+		}
+	}
+
+	private void writeScores(List<Object[]> rows, String query) throws SQLException {
+		Set<String> words = new HashSet<>();
+		for (Object[] row : rows) {
+			words.addAll(Arrays.asList((String[]) row[1]));
+		}
+		Map<String, Integer> tokenIds = tokenDictionary.resolve(conn, words);
+
+		try (PreparedStatement stmt = conn.prepareStatement(query)) {
+			for (Object[] row : rows) {
+				String[] rowWords = (String[]) row[1];
+				stmt.setInt(1, (Integer) row[0]);
+				boolean complete = true;
+				for (int i = 0; i < rowWords.length; i++) {
+					Integer tokenId = tokenIds.get(rowWords[i]);
+					if (tokenId == null) {
+						complete = false;
+						break;
+					}
+					stmt.setInt(i + 2, tokenId);
+				}
+				if (complete) {
+					stmt.setDouble(rowWords.length + 2, (Double) row[2]);
+					stmt.addBatch();
+				}
+			}
+			stmt.executeBatch();
+		}
+	}
+}
@@ -1,88 +1,50 @@
 package dal;
 
 import java.util.LinkedHashMap;
-import java.util.List;
 import java.util.Map;
 
-import org.apache.logging.log4j.LogManager;
-import org.apache.logging.log4j.Logger;
-
-import net.oujda_nlp_team.AlKhalil2Analyzer;
-import net.oujda_nlp_team.entity.Result;
-import pl.EditorPO;
+import dto.TokenAnalysis;
 
 public class WordSegmentation {
 
-	public static Map<String, String> extractSegments(String text) {
-
-		Map<String, String> wordSegmentMap = new LinkedHashMap<>();
-		final Logger logger = LogManager.getLogger(EditorPO.class);
-
-		String[] words = text.split("\\s+");
-
-		try {
-
-			AlKhalil2Analyzer analyzer = AlKhalil2Analyzer.getInstance();
-
-			if (analyzer != null) {
-				for (String word : words) {
-
-					List<Result> results = analyzer.processToken(word).getAllResults();
+	private static final String DEFAULT_PREFIXES = "ال,ب,ت,ك,م,و,ف,س,و+ال,ف+ال,ب+ال,ك+ال,و+ب,ف+ب,و+ب+ال,ف+ب+ال";
+	private static final String DEFAULT_SUFFIXES = "ة,ون,ين,ات,ي,ه,ها,هم,كم,نا";
 
-					if (results != null && !results.isEmpty()) {
+	private static final AffixTrie PREFIXES = new AffixTrie(
+			ConfigProperties.getString("segmentation.prefixes", DEFAULT_PREFIXES).split(","), false);
+	private static final AffixTrie SUFFIXES = new AffixTrie(
+			ConfigProperties.getString("segmentation.suffixes", DEFAULT_SUFFIXES).split(","), true);
+	private static final int MIN_STEM_LENGTH = ConfigProperties.getInt("segmentation.minStemLength", 2);
 
-						Result firstResult = results.get(0);
-						String stem = firstResult.getStem();
-
-						String prefix = getPrefix(word);
-						String suffix = getSuffix(word);
+	public static Map<String, String> extractSegments(String text) {
+		return extractSegments(MorphologyAnalyzer.analyzeWords(text));
+	}
 
-						StringBuilder segmentBuilder = new StringBuilder();
-						if (!prefix.isEmpty()) {
-							segmentBuilder.append(prefix).append("-");
-						}
-						segmentBuilder.append(stem);
-						if (!suffix.isEmpty()) {
-							segmentBuilder.append("-").append(suffix);
-						}
+	static Map<String, String> extractSegments(Map<String, TokenAnalysis> analyses) {
 
-						wordSegmentMap.put(word, segmentBuilder.toString());
-					} else {
+		Map<String, String> wordSegmentMap = new LinkedHashMap<>();
 
-						wordSegmentMap.put(word, "None");
-					}
-				}
-			} else {
-				System.err.println("Failed to initialize AlKhalil2Analyzer.");
-				logger.error("Failed to initialize AlKhalil2Analyzer.");
-			}
-		} catch (Exception e) {
-			System.err.println("Error while extracting word segments: " + e.getMessage());
-			logger.error("Error while extracting word segments: " + e.getMessage());
+		for (TokenAnalysis analysis : analyses.values()) {
+			wordSegmentMap.put(analysis.getWord(), analysis.getSegment());
 		}
 
 		return wordSegmentMap;
 	}
 
-	private static String getPrefix(String word) {
-		String[] commonPrefixes = { "ال", "ب", "ت", "ك", "م", "و", "ف", "س" };
-		for (String prefix : commonPrefixes) {
-			if (word.startsWith(prefix)) {
-				return prefix;
-			}
-		}
-		return "";
-	}
+	static String buildSegment(String word, String stem) {
+		int prefix = PREFIXES.longestMatch(word, word.length() - MIN_STEM_LENGTH);
+		int prefixLength = prefix < 0 ? 0 : PREFIXES.lengthAt(prefix);
+		int suffix = SUFFIXES.longestMatch(word, word.length() - prefixLength - MIN_STEM_LENGTH);
 
-	private static String getSuffix(String word) {
-		String[] commonSuffixes = { "ة", "ون", "ين", "ات", "ي", "ه" };
-
-		for (String suffix : commonSuffixes) {
-			if (word.endsWith(suffix)) {
-				return suffix;
-			}
+		StringBuilder segmentBuilder = new StringBuilder();
+		if (prefix >= 0) {
+			segmentBuilder.append(PREFIXES.affixAt(prefix)).append("-");
+		}
+		segmentBuilder.append(stem);
+		if (suffix >= 0) {
+			segmentBuilder.append("-").append(SUFFIXES.affixAt(suffix));
 		}
-		return "";
+		return segmentBuilder.toString();
 	}
 
 }
@@ -0,0 +1,55 @@
+package dto;
+
+public class SearchHit {
+	private final int fileId;
+	private final String fileName;
+	private final int pageId;
+	private final int pageNumber;
+	private final double score;
+	private final int[] offsets;
+	private final String prefix;
+
+	/**
+	 * {@code offsets} holds a start and an end (exclusive) char offset into the
+	 * page content for every matched word, in page order; {@code prefix} is the
+	 * word before the first match, empty when the match starts the page.
+	 */
+	public SearchHit(int fileId, String fileName, int pageId, int pageNumber, double score, int[] offsets,
+			String prefix) {
+		this.fileId = fileId;
+		this.fileName = fileName;
+		this.pageId = pageId;
+		this.pageNumber = pageNumber;
+		this.score = score;
+		this.offsets = offsets;
+		this.prefix = prefix;
+	}
+
+	public int getFileId() {
+		return fileId;
+	}
+
+	public String getFileName() {
+		return fileName;
+	}
+
+	public int getPageId() {
+		return pageId;
+	}
+
+	public int getPageNumber() {
+		return pageNumber;
+	}
+
+	public double getScore() {
+		return score;
+	}
+
+	public int[] getOffsets() {
+		return offsets.clone();
+	}
+
+	public String getPrefix() {
+		return prefix;
+	}
+}
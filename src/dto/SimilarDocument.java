@@ -0,0 +1,25 @@
+package dto;
+
+public class SimilarDocument {
+	private final int fileId;
+	private final String fileName;
+	private final double similarity;
+
+	public SimilarDocument(int fileId, String fileName, double similarity) {
+		this.fileId = fileId;
+		this.fileName = fileName;
+		this.similarity = similarity;
+	}
+
+	public int getFileId() {
+		return fileId;
+	}
+
+	public String getFileName() {
+		return fileName;
+	}
+
+	public double getSimilarity() {
+		return similarity;
+	}
+}
@@ -0,0 +1,70 @@
+package dto;
+
+import java.util.List;
+
+public class TokenAnalysis {
+
+	private String word;
+	private List<String> posTags;
+	private String lemma;
+	private String root;
+	private String stem;
+	private String segment;
+
+	public TokenAnalysis(String word, List<String> posTags, String lemma, String root, String stem, String segment) {
+		this.word = word;
+		this.posTags = posTags;
+		this.lemma = lemma;
+		this.root = root;
+		this.stem = stem;
+		this.segment = segment;
+	}
+
+	public String getWord() {
+		return word;
+	}
+
+	public List<String> getPosTags() {
+		return posTags;
+	}
+
+	public String getLemma() {
+		return lemma;
+	}
+
+	public String getRoot() {
+		return root;
+	}
+
+	public String getStem() {
+		return stem;
+	}
+
+	public String getSegment() {
+		return segment;
+	}
+
+	public void setWord(String word) {
+		this.word = word;
+	}
+
+	public void setPosTags(List<String> posTags) {
+		this.posTags = posTags;
+	}
+
+	public void setLemma(String lemma) {
+		this.lemma = lemma;
+	}
+
+	public void setRoot(String root) {
+		this.root = root;
+	}
+
+	public void setStem(String stem) {
+		this.stem = stem;
+	}
+
+	public void setSegment(String segment) {
+		this.segment = segment;
+	}
+}
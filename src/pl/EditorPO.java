@@ -40,6 +40,8 @@ import org.apache.logging.log4j.Logger;
 import bll.IEditorBO;
 import dto.Documents;
 import dto.Pages;
+import dto.SearchHit;
+import util.Tokenizer;
 
 public class EditorPO extends JFrame {
 
@@ -69,7 +71,7 @@ public class EditorPO extends JFrame {
 	private boolean autoSaveRunning = false;
 	private Thread tfidfThread;
 	private int selectedDocFileId;
-	private Documents selectedDoc;
+	private String selectedDocName;
 	private double tfidfScore = 0;
 	private Thread pklThread;
 	private Map<String, Double> pklResults = new HashMap<>();
@@ -204,41 +206,24 @@ public class EditorPO extends JFrame {
 						openEditPanel(fileId);
 					}
 				} else if (event.getClickCount() == 1) {
+					selectedRow = fileTable.getSelectedRow();
+					if (selectedRow == -1) {
+						return;
+					}
 					tfidfThread = new Thread(new Runnable() {
 
 						@Override
 						public void run() {
+							// Scored from the stored term statistics; no document is loaded
 							selectedDocFileId = (int) tableModel.getValueAt(selectedRow, 0);
-							selectedDoc = null;
-							selectedDoc = businessObj.getFile(selectedDocFileId);
-							pages = selectedDoc.getPages();
-							String selectedDocContent = null;
-							for (int i = 0; i < pages.size(); i++) {
-								selectedDocContent = pages.get(i).getPageContent();
-							}
-
-							List<String> unselectedDocsContent = new ArrayList<String>();
-							for (int row = 0; row < fileTable.getRowCount(); row++) {
-								int unselectedDocFileId = (int) tableModel.getValueAt(row, 0);
-								if (unselectedDocFileId != selectedDocFileId) {
-									Documents unselectedDoc = null;
-									unselectedDoc = businessObj.getFile(unselectedDocFileId);
-									pages = unselectedDoc.getPages();
-									String unselectedDocContent = null;
-									for (int i = 0; i < pages.size(); i++) {
-										unselectedDocContent = pages.get(i).getPageContent();
-									}
-									unselectedDocsContent.add(unselectedDocContent);
-								}
-							}
-							tfidfScore = businessObj.performTFIDF(unselectedDocsContent, selectedDocContent);
+							selectedDocName = (String) tableModel.getValueAt(selectedRow, 1);
+							tfidfScore = businessObj.getTfidfScore(selectedDocFileId);
 						}
 
 					});
 					tfidfThread.start();
 					tfidfButton.setEnabled(true);
 //					totalRows = fileTable.getRowCount();
-					selectedRow = fileTable.getSelectedRow();
 //					unselectedRows = totalRows - selectedRow;
 				}
 			}
@@ -280,12 +265,12 @@ public class EditorPO extends JFrame {
 		searchbutton.addActionListener(e -> {
 			String keyword = searchfield.getText();
 			try {
-				List<String> resultFiles = businessObj.searchKeyword(keyword);
+				List<SearchHit> resultFiles = businessObj.searchKeyword(keyword);
 				if (resultFiles.isEmpty()) {
 					JOptionPane.showMessageDialog(this, "No files found while searching.");
 					logger.info("No files found while searching.");
 				} else {
-					new SearchFrame(resultFiles);
+					new SearchFrame(resultFiles, keyword);
 				}
 			} catch (IllegalArgumentException exception) {
 				JOptionPane.showMessageDialog(this, exception.getMessage());
@@ -294,8 +279,8 @@ public class EditorPO extends JFrame {
 		});
 
 		tfidfButton.addActionListener(e -> {
-			JOptionPane.showMessageDialog(null, "TF-IDF Score for '" + selectedDoc.getName() + "' is: " + tfidfScore);
-			logger.info("TF-IDF Score for '" + selectedDoc.getName() + "' is: " + tfidfScore);
+			JOptionPane.showMessageDialog(null, "TF-IDF Score for '" + selectedDocName + "' is: " + tfidfScore);
+			logger.info("TF-IDF Score for '" + selectedDocName + "' is: " + tfidfScore);
 		});
 	}
 
@@ -620,25 +605,23 @@ public class EditorPO extends JFrame {
 	        return 0;
 	    }
 
-	    String[] words = content.split("\\s+");
+	    Tokenizer tokenizer = new Tokenizer(content);
 	    int totalLength = 0;
 	    int wordCount = 0;
 
-	    for (String word : words) {
-	        if (!word.isEmpty()) {
-	            totalLength += word.length();
-	            wordCount++;
-	        }
+	    while (tokenizer.next()) {
+	        totalLength += tokenizer.tokenLength();
+	        wordCount++;
 	    }
 
 	    return wordCount == 0 ? 0 : (double) totalLength / wordCount;
 	}
 	
 	private int calculateWordCount(String text) {
-	    if (text == null || text.trim().isEmpty()) {
+	    if (text == null) {
 	        return 0;
 	    }
-	    return text.trim().split("\\s+").length;
+	    return Tokenizer.count(text);
 	}
 	
 	private int calculateLineCount(String content) {
@@ -760,7 +743,8 @@ public class EditorPO extends JFrame {
 			@Override
 			public void run() {
 				pmiResults = null;
-				pmiResults = businessObj.performPMI(contentTextArea.getText());
+				// The page's bigrams, scored from the corpus-wide counts
+				pmiResults = businessObj.getCorpusPMI(contentTextArea.getText());
 			}
 		});
 
@@ -859,6 +843,10 @@ public class EditorPO extends JFrame {
 			}
 
 			boolean updated = businessObj.updateFile(fileId, fileName, currentPage, content);
+			// Split or merge the saved page with its neighbours; autosave leaves the layout alone
+			if (updated) {
+				businessObj.rebalancePages(fileId, currentPage);
+			}
 			JOptionPane.showMessageDialog(null,
 					updated ? "File updated successfully!" : "File update failed. Duplicate file may exist.");
 			logger.info(updated ? "File updated successfully!" : "File update failed. Duplicate file may exist.");
@@ -6,6 +6,8 @@ import javax.swing.table.TableCellRenderer;
 import java.awt.*;
 import java.util.List;
 
+import dto.SearchHit;
+
 class ButtonColumn extends JButton {
     /**
 	 * 
@@ -35,7 +37,7 @@ public class SearchFrame extends JFrame {
 	private JTable resultsTable;
     private SearchResultsTableModel tableModel;
 
-    public SearchFrame(List<String> searchResults) {
+    public SearchFrame(List<SearchHit> searchResults, String keyword) {
         setTitle("Search Results");
         setExtendedState(JFrame.MAXIMIZED_BOTH);
 		setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
@@ -62,16 +64,9 @@ public class SearchFrame extends JFrame {
         };
         JScrollPane scrollPane = new JScrollPane(resultsTable);
 
-        for (String result : searchResults) {
-            String[] parts = result.split(" - ");
-            if (parts.length == 2) {
-                String fileName = parts[0];
-                String prefixAndKeyword = parts[1];
-                String[] prefixAndKeywordParts = prefixAndKeyword.split(" ");
-                String prefix = prefixAndKeywordParts[0];
-                String keyword = prefixAndKeywordParts[1];
-                tableModel.addRow(new Object[]{fileName, prefix, keyword, "Replace"});
-            }
+        // Best match first
+        for (SearchHit hit : searchResults) {
+            tableModel.addRow(new Object[]{hit.getFileName(), hit.getPrefix(), keyword, "Replace"});
         }
 
         JButton backButton = new JButton("Back to Menu");
@@ -0,0 +1,29 @@
+package util;
+
+/**
+ * The Arabic short-vowel and shadda marks that words are compared without.
+ * Shared by text preprocessing in the data access layer and the search index
+ * in the business layer, so both strip exactly the same characters.
+ */
+public final class Harakat {
+
+	private static final String MARKS = "\u064B\u064C\u064D\u064E\u064F\u0650\u0651\u0652";
+
+	private Harakat() {
+	}
+
+	public static boolean isHarakah(char c) {
+		return MARKS.indexOf(c) >= 0;
+	}
+
+	public static String remove(String text) {
+		StringBuilder result = new StringBuilder(text.length());
+		for (int i = 0; i < text.length(); i++) {
+			char ch = text.charAt(i);
+			if (!isHarakah(ch)) {
+				result.append(ch);
+			}
+		}
+		return result.toString();
+	}
+}
@@ -0,0 +1,107 @@
+package util;
+
+/**
+ * Whitespace tokenizer that scans char data directly instead of going through
+ * {@code String.split("\\s+")}. Tokens are exposed as offsets into the
+ * original text; a String is only created when the caller asks for one.
+ * Whitespace is the same set as the regex {@code \s}, and empty tokens (for
+ * example before leading whitespace) are never produced.
+ * <p>
+ * Instances are not thread-safe but can be reused with {@link #reset}.
+ */
+public final class Tokenizer {
+
+	private CharSequence text = "";
+	private int length;
+	private int start;
+	private int end;
+
+	public Tokenizer() {
+	}
+
+	public Tokenizer(CharSequence text) {
+		reset(text);
+	}
+
+	public Tokenizer reset(CharSequence text) {
+		this.text = text == null ? "" : text;
+		this.length = this.text.length();
+		this.start = 0;
+		this.end = 0;
+		return this;
+	}
+
+	public boolean next() {
+		int i = end;
+		while (i < length && isWhitespace(text.charAt(i))) {
+			i++;
+		}
+		if (i == length) {
+			start = length;
+			end = length;
+			return false;
+		}
+		start = i;
+		while (i < length && !isWhitespace(text.charAt(i))) {
+			i++;
+		}
+		end = i;
+		return true;
+	}
+
+	public int start() {
+		return start;
+	}
+
+	public int end() {
+		return end;
+	}
+
+	public int tokenLength() {
+		return end - start;
+	}
+
+	public String token() {
+		return text.subSequence(start, end).toString();
+	}
+
+	public boolean tokenEquals(String other, boolean ignoreCase) {
+		if (other.length() != end - start) {
+			return false;
+		}
+		if (text instanceof String) {
+			return ((String) text).regionMatches(ignoreCase, start, other, 0, other.length());
+		}
+		for (int i = 0; i < other.length(); i++) {
+			char a = text.charAt(start + i);
+			char b = other.charAt(i);
+			if (a != b && !(ignoreCase && Character.toLowerCase(a) == Character.toLowerCase(b))) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	public static boolean isWhitespace(char c) {
+		return c == ' ' || c == '\t' || c == '\n' || c == '\u000B' || c == '\f' || c == '\r';
+	}
+
+	public static int count(CharSequence text) {
+		Tokenizer tokenizer = new Tokenizer(text);
+		int count = 0;
+		while (tokenizer.next()) {
+			count++;
+		}
+		return count;
+	}
+
+	/** Tokens of {@code text} as an exactly sized array. */
+	public static String[] tokens(CharSequence text) {
+		String[] tokens = new String[count(text)];
+		Tokenizer tokenizer = new Tokenizer(text);
+		for (int i = 0; tokenizer.next(); i++) {
+			tokens[i] = tokenizer.token();
+		}
+		return tokens;
+	}
+}
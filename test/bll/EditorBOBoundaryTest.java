@@ -7,6 +7,7 @@ import java.io.File;
 import java.io.FileWriter;
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -19,6 +20,7 @@ import org.mockito.MockitoAnnotations;
 
 import dal.IFacadeDAO;
 import dto.Documents;
+import dto.SearchHit;
 
 /**
  * Boundary and Limit Condition Tests for EditorBO (Business Logic Layer)
@@ -300,6 +302,128 @@ public class EditorBOBoundaryTest {
         }
     }
     
+    // ========== TEST CATEGORY: TF-IDF SCORE BOUNDARIES ==========
+    
+    @Test
+    public void testGetTfidfScore_DoesNotLoadDocuments() {
+        // Boundary: one score per click, no getFilesFromDB round trips
+        when(mockDAO.getTfidfScoreFromDB(3)).thenReturn(0.25);
+        assertEquals(0.25, editorBO.getTfidfScore(3), 0.0);
+        verify(mockDAO, never()).getFilesFromDB();
+    }
+    
+    @Test
+    public void testGetTfidfScore_DAOFailure() {
+        // Boundary: DAO exception is reported as a zero score
+        when(mockDAO.getTfidfScoreFromDB(3)).thenThrow(new RuntimeException("db down"));
+        assertEquals(0.0, editorBO.getTfidfScore(3), 0.0);
+    }
+    
+    @Test
+    public void testGetTfidfScores_AllDocumentsInOneCall() {
+        // Boundary: every score comes from a single DAO call
+        Map<Integer, Double> scores = new HashMap<>();
+        scores.put(1, 0.5);
+        scores.put(2, 0.0);
+        when(mockDAO.getTfidfScoresFromDB()).thenReturn(scores);
+        assertEquals(scores, editorBO.getTfidfScores());
+        verify(mockDAO, times(1)).getTfidfScoresFromDB();
+        verify(mockDAO, never()).getFilesFromDB();
+    }
+    
+    // ========== TEST CATEGORY: SEARCH BOUNDARIES ==========
+    
+    @Test(expected = IllegalArgumentException.class)
+    public void testSearchKeyword_TooShort() {
+        // Boundary: fewer than 3 letters
+        editorBO.searchKeyword("ab");
+    }
+    
+    @Test
+    public void testSearchKeyword_IndexBuiltOnceAndUpdatedInPlace() {
+        // Boundary: edits reach the index without reloading every file
+        List<dto.Pages> pages = new ArrayList<>();
+        pages.add(new dto.Pages(11, 1, 1, "first page text"));
+        List<Documents> docs = new ArrayList<>();
+        docs.add(new Documents(1, "a.txt", "hash", "2024-01-01", "2024-01-01", pages));
+        when(mockDAO.getFilesFromDB()).thenReturn(docs);
+        when(mockDAO.updateFileInDB(1, "a.txt", 1, "edited page text")).thenReturn(true);
+        
+        assertEquals(1, editorBO.searchKeyword("first").size());
+        assertTrue(editorBO.updateFile(1, "a.txt", 1, "edited page text"));
+        assertTrue(editorBO.searchKeyword("first").isEmpty());
+        assertEquals(11, editorBO.searchKeyword("edited").get(0).getPageId());
+        verify(mockDAO, times(1)).getFilesFromDB();
+    }
+    
+    @Test
+    public void testSearchKeyword_NewFileIndexedAfterCreate() {
+        // Boundary: a new file is searchable after it is created, without reloading every file
+        when(mockDAO.getFilesFromDB()).thenReturn(new ArrayList<>());
+        assertTrue(editorBO.searchKeyword("text").isEmpty());
+        
+        List<dto.Pages> pages = new ArrayList<>();
+        pages.add(new dto.Pages(21, 2, 1, "new text"));
+        when(mockDAO.createFileInDB("b.txt", "new text")).thenReturn(true);
+        when(mockDAO.getFileIdsFromDB()).thenReturn(Arrays.asList(2));
+        when(mockDAO.getFileFromDB(2)).thenReturn(new Documents(2, "b.txt", "hash", "2024-01-01", "2024-01-01", pages));
+        editorBO.createFile("b.txt", "new text");
+        assertEquals(2, editorBO.searchKeyword("text").get(0).getFileId());
+        verify(mockDAO, times(1)).getFilesFromDB();
+    }
+    
+    @Test
+    public void testSearchKeyword_OnlyUnseenFilesFetchedAfterCreate() {
+        // Boundary: files already indexed are not read again
+        List<dto.Pages> pages = new ArrayList<>();
+        pages.add(new dto.Pages(11, 1, 1, "first page text"));
+        List<Documents> docs = new ArrayList<>();
+        docs.add(new Documents(1, "a.txt", "hash", "2024-01-01", "2024-01-01", pages));
+        when(mockDAO.getFilesFromDB()).thenReturn(docs);
+        assertEquals(1, editorBO.searchKeyword("first").size());
+        
+        List<dto.Pages> newPages = new ArrayList<>();
+        newPages.add(new dto.Pages(21, 2, 1, "second page text"));
+        when(mockDAO.createFileInDB("b.txt", "second page text")).thenReturn(true);
+        when(mockDAO.getFileIdsFromDB()).thenReturn(Arrays.asList(1, 2));
+        when(mockDAO.getFileFromDB(2)).thenReturn(new Documents(2, "b.txt", "hash", "2024-01-01", "2024-01-01", newPages));
+        editorBO.createFile("b.txt", "second page text");
+        assertEquals(2, editorBO.searchKeyword("page").size());
+        verify(mockDAO, never()).getFileFromDB(1);
+        verify(mockDAO, times(1)).getFilesFromDB();
+    }
+    
+    @Test
+    public void testSearchKeyword_CreateBeforeFirstSearchLeftToBuild() {
+        // Boundary: index not built yet, nothing to update
+        when(mockDAO.createFileInDB("b.txt", "new text")).thenReturn(true);
+        editorBO.createFile("b.txt", "new text");
+        verify(mockDAO, never()).getFileIdsFromDB();
+        verify(mockDAO, never()).getFileFromDB(anyInt());
+    }
+    
+    @Test
+    public void testSearchKeyword_FileReindexedAfterRebalance() {
+        // Boundary: pages cut differently, old page numbers gone
+        List<dto.Pages> pages = new ArrayList<>();
+        pages.add(new dto.Pages(11, 1, 1, "first page text"));
+        pages.add(new dto.Pages(12, 1, 2, "second page text"));
+        List<Documents> docs = new ArrayList<>();
+        docs.add(new Documents(1, "a.txt", "hash", "2024-01-01", "2024-01-01", pages));
+        when(mockDAO.getFilesFromDB()).thenReturn(docs);
+        assertEquals(2, editorBO.searchKeyword("page").size());
+        
+        List<dto.Pages> rebalanced = new ArrayList<>();
+        rebalanced.add(new dto.Pages(11, 1, 1, "first page text second page text"));
+        when(mockDAO.rebalancePagesInDB(1, 1)).thenReturn(true);
+        when(mockDAO.getFileFromDB(1)).thenReturn(new Documents(1, "a.txt", "hash", "2024-01-01", "2024-01-01", rebalanced));
+        assertTrue(editorBO.rebalancePages(1, 1));
+        List<SearchHit> hits = editorBO.searchKeyword("second");
+        assertEquals(1, hits.size());
+        assertEquals(11, hits.get(0).getPageId());
+        verify(mockDAO, times(1)).getFilesFromDB();
+    }
+    
     // ========== TEST CATEGORY: FILE EXTENSION BOUNDARIES ==========
     
     @Test
@@ -0,0 +1,186 @@
+package bll;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import dto.Documents;
+import dto.Pages;
+import dto.SearchHit;
+
+/**
+ * Boundary and Limit Condition Tests for SearchIndex (Business Logic Layer)
+ * Tests: BM25 ranking, top-k cut-off, offsets, in-place updates
+ */
+public class SearchIndexBoundaryTest {
+
+    private SearchIndex index;
+
+    @Before
+    public void setUp() {
+        index = new SearchIndex(1.2, 0.75);
+        List<Documents> docs = new ArrayList<>();
+        docs.add(document(1, "one.txt", "كتب الطالب الدرس في المدرسة", "ذهب الطالب إلى البيت"));
+        docs.add(document(2, "two.txt", "الطالب الطالب الطالب كتب", "قرأ المعلم الكتاب"));
+        docs.add(document(3, "three.txt", "This is a test content with keyword search"));
+        index.rebuild(docs);
+    }
+
+    private static Documents document(int id, String name, String... pageContents) {
+        List<Pages> pages = new ArrayList<>();
+        for (int i = 0; i < pageContents.length; i++) {
+            pages.add(new Pages(id * 100 + i + 1, id, i + 1, pageContents[i]));
+        }
+        return new Documents(id, name, "hash", "2024-01-01", "2024-01-01", pages);
+    }
+
+    // ========== TEST CATEGORY: RANKING ==========
+
+    @Test
+    public void testSearch_HigherTermFrequencyRanksFirst() {
+        // Boundary: same word on several pages, repeated on one of them
+        List<SearchHit> hits = index.search("الطالب", 10);
+        assertEquals(3, hits.size());
+        assertEquals(2, hits.get(0).getFileId());
+        assertEquals(201, hits.get(0).getPageId());
+        for (int i = 1; i < hits.size(); i++) {
+            assertTrue(hits.get(i - 1).getScore() >= hits.get(i).getScore());
+        }
+    }
+
+    @Test
+    public void testSearch_TopKCutOff() {
+        // Boundary: fewer hits returned than pages matching
+        assertEquals(1, index.search("الطالب", 1).size());
+        assertTrue(index.search("الطالب", 0).isEmpty());
+    }
+
+    @Test
+    public void testSearch_RareTermOutweighsCommonTerm() {
+        // Boundary: multi-word query, BM25 IDF favours the rarer word
+        List<SearchHit> hits = index.search("الطالب المدرسة", 10);
+        assertEquals(1, hits.get(0).getFileId());
+        assertEquals(1, hits.get(0).getPageNumber());
+    }
+
+    @Test
+    public void testSearch_NoMatch() {
+        // Boundary: word absent from every page, and an empty query
+        assertTrue(index.search("غائب", 10).isEmpty());
+        assertTrue(index.search("   ", 10).isEmpty());
+    }
+
+    @Test
+    public void testIdf_AlwaysPositive() {
+        // Boundary: word present on every page
+        assertTrue(SearchIndex.idf(5, 5) > 0);
+        assertTrue(SearchIndex.idf(1, 5) > SearchIndex.idf(4, 5));
+    }
+
+    // ========== TEST CATEGORY: OFFSETS AND MATCHING ==========
+
+    @Test
+    public void testSearch_OffsetsOfEveryMatch() {
+        // Boundary: three matches on one page, offsets point at each word
+        SearchHit hit = index.search("الطالب", 1).get(0);
+        String content = "الطالب الطالب الطالب كتب";
+        int[] offsets = hit.getOffsets();
+        assertEquals(6, offsets.length);
+        for (int i = 0; i < offsets.length; i += 2) {
+            assertEquals("الطالب", content.substring(offsets[i], offsets[i + 1]));
+        }
+        assertEquals("", hit.getPrefix());
+    }
+
+    @Test
+    public void testSearch_CaseHarakatAndPunctuationIgnored() {
+        // Boundary: query differs from the page in case, harakat and trailing punctuation
+        assertEquals(3, index.search("KEYWORD", 10).get(0).getFileId());
+        assertEquals("with", index.search("keyword,", 10).get(0).getPrefix());
+        assertEquals(1, index.search("المَدْرَسَة", 10).size());
+    }
+
+    // ========== TEST CATEGORY: IN-PLACE UPDATES ==========
+
+    @Test
+    public void testUpdatePage_ReplacesTerms() {
+        // Boundary: edited page loses its old words and gains new ones
+        assertTrue(index.updatePage(3, 1, "نص جديد"));
+        assertTrue(index.search("keyword", 10).isEmpty());
+        SearchHit hit = index.search("جديد", 10).get(0);
+        assertEquals(301, hit.getPageId());
+        assertEquals("three.txt", hit.getFileName());
+    }
+
+    @Test
+    public void testUpdatePage_UnknownPage() {
+        // Boundary: page not in the index
+        assertFalse(index.updatePage(3, 2, "نص"));
+        assertFalse(index.updatePage(99, 1, "نص"));
+    }
+
+    @Test
+    public void testRemoveFile_DropsAllItsPages() {
+        // Boundary: removed file's slots are reused by later pages
+        index.removeFile(1);
+        assertEquals(3, index.size());
+        assertTrue(index.search("المدرسة", 10).isEmpty());
+        index.putPage(4, "four.txt", 401, 1, "المدرسة");
+        assertEquals(4, index.search("المدرسة", 10).get(0).getFileId());
+        assertEquals(Arrays.asList(2), fileIds(index.search("الطالب", 10)));
+    }
+
+    @Test
+    public void testPutFile_ReplacesPagesOfRepaginatedFile() {
+        // Boundary: file that had two pages now has one, the second page number disappears
+        assertTrue(index.containsFile(1));
+        index.putFile(document(1, "one.txt", "كتب الطالب الدرس في المدرسة ثم ذهب إلى البيت"));
+        assertEquals(4, index.size());
+        assertFalse(index.updatePage(1, 2, "نص"));
+        SearchHit hit = index.search("البيت", 10).get(0);
+        assertEquals(101, hit.getPageId());
+    }
+
+    @Test
+    public void testPutFile_NewFileAndEmptyFile() {
+        // Boundary: file not indexed before, and a file with no pages
+        assertFalse(index.containsFile(4));
+        index.putFile(document(4, "four.txt", "نص جديد"));
+        assertTrue(index.containsFile(4));
+        assertEquals(4, index.search("جديد", 10).get(0).getFileId());
+        index.putFile(document(5, "five.txt"));
+        assertFalse(index.containsFile(5));
+        assertEquals(6, index.size());
+    }
+
+    @Test(timeout = 10000)
+    public void testSearch_LargeIndex() {
+        // Boundary: thousands of pages, the query only visits matching ones
+        List<Documents> docs = new ArrayList<>();
+        for (int id = 1; id <= 5000; id++) {
+            docs.add(document(id, id + ".txt", "كلمة" + id + " الطالب كتب الدرس " + (id % 10 == 0 ? "نادرة" : "")));
+        }
+        index.rebuild(docs);
+        long start = System.nanoTime();
+        List<SearchHit> hits = index.search("نادرة الطالب", 20);
+        long elapsedMs = (System.nanoTime() - start) / 1_000_000;
+        assertEquals(20, hits.size());
+        for (SearchHit hit : hits) {
+            assertEquals(0, hit.getFileId() % 10);
+        }
+        assertTrue("Search took " + elapsedMs + " ms", elapsedMs < 1000);
+    }
+
+    private static List<Integer> fileIds(List<SearchHit> hits) {
+        List<Integer> ids = new ArrayList<>();
+        for (SearchHit hit : hits) {
+            ids.add(hit.getFileId());
+        }
+        return ids;
+    }
+}
@@ -17,7 +17,7 @@ REM Compile DTO tests (if any)
 REM javac -cp "%CLASSPATH%" dto\*.java
 
 REM Compile BLL tests
-echo [1/4] Compiling BLL tests...
+echo [1/5] Compiling BLL tests...
 javac -cp "%CLASSPATH%" bll\*.java
 if %errorlevel% neq 0 (
     echo [ERROR] BLL tests compilation failed!
@@ -26,7 +26,7 @@ if %errorlevel% neq 0 (
 )
 
 REM Compile DAL tests
-echo [2/4] Compiling DAL tests...
+echo [2/5] Compiling DAL tests...
 javac -cp "%CLASSPATH%" dal\*.java
 if %errorlevel% neq 0 (
     echo [ERROR] DAL tests compilation failed!
@@ -34,8 +34,17 @@ if %errorlevel% neq 0 (
     exit /b 1
 )
 
+REM Compile utility tests
+echo [3/5] Compiling Utility tests...
+javac -cp "%CLASSPATH%" util\*.java
+if %errorlevel% neq 0 (
+    echo [ERROR] Utility tests compilation failed!
+    pause
+    exit /b 1
+)
+
 REM Compile Integration tests
-echo [3/4] Compiling Integration tests...
+echo [4/5] Compiling Integration tests...
 javac -cp "%CLASSPATH%" integration\*.java
 if %errorlevel% neq 0 (
     echo [ERROR] Integration tests compilation failed!
@@ -44,7 +53,7 @@ if %errorlevel% neq 0 (
 )
 
 REM Compile Test Runners
-echo [4/4] Compiling Test Runners...
+echo [5/5] Compiling Test Runners...
 javac -cp "%CLASSPATH%" testrunner\*.java
 if %errorlevel% neq 0 (
     echo [ERROR] Test runner compilation failed!
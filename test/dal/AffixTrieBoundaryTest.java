@@ -0,0 +1,79 @@
+package dal;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+public class AffixTrieBoundaryTest {
+
+    private static final String[] PREFIXES = { "ال", "ا", "و", "ب", "و+ال", "و+ب+ال" };
+    private static final String[] SUFFIXES = { "ه", "ها", "ات" };
+
+    // ========== TEST CATEGORY: LONGEST MATCH ==========
+
+    @Test
+    public void testPrefix_LongestMatchWins() {
+        // Boundary: "ا" and "ال" both match, longer one must be chosen
+        AffixTrie trie = new AffixTrie(PREFIXES, false);
+        int node = trie.longestMatch("الكتاب", 6);
+        assertEquals("ال", trie.affixAt(node));
+        assertEquals(2, trie.lengthAt(node));
+    }
+
+    @Test
+    public void testSuffix_LongestMatchWins() {
+        // Boundary: "ه" is not a suffix of "كتابها" but "ها" is
+        AffixTrie trie = new AffixTrie(SUFFIXES, true);
+        int node = trie.longestMatch("كتابها", 6);
+        assertEquals("ها", trie.affixAt(node));
+    }
+
+    // ========== TEST CATEGORY: STACKED CLITICS ==========
+
+    @Test
+    public void testPrefix_StackedCliticsReportedAsParts() {
+        // Boundary: و+ب+ال stacked on a stem
+        AffixTrie trie = new AffixTrie(PREFIXES, false);
+        int node = trie.longestMatch("وبالقلم", 7);
+        assertEquals("و-ب-ال", trie.affixAt(node));
+        assertEquals(4, trie.lengthAt(node));
+    }
+
+    // ========== TEST CATEGORY: LENGTH LIMITS ==========
+
+    @Test
+    public void testMatch_RespectsMaxLength() {
+        // Boundary: limit cuts off the longer stacked prefix
+        AffixTrie trie = new AffixTrie(PREFIXES, false);
+        assertEquals("و", trie.affixAt(trie.longestMatch("والكتاب", 2)));
+    }
+
+    @Test
+    public void testMatch_ZeroOrNegativeLimitMatchesNothing() {
+        // Boundary: no room left for an affix
+        AffixTrie trie = new AffixTrie(PREFIXES, false);
+        assertEquals(-1, trie.longestMatch("الكتاب", 0));
+        assertEquals(-1, trie.longestMatch("الكتاب", -3));
+    }
+
+    @Test
+    public void testMatch_EmptyWordAndEmptyList() {
+        // Boundary: empty inputs
+        assertEquals(-1, new AffixTrie(PREFIXES, false).longestMatch("", 5));
+        assertEquals(-1, new AffixTrie(new String[] { "", " " }, false).longestMatch("الكتاب", 6));
+    }
+
+    // ========== TEST CATEGORY: SEGMENT FORMAT ==========
+
+    @Test
+    public void testBuildSegment_KeepsMinimumStem() {
+        // Boundary: two-letter word must not be split into affixes only
+        assertEquals("به", WordSegmentation.buildSegment("به", "به"));
+    }
+
+    @Test
+    public void testBuildSegment_PrefixAndSuffix() {
+        // Boundary: prefix, stem and suffix all present
+        assertEquals("ال-معلم-ون", WordSegmentation.buildSegment("المعلمون", "معلم"));
+    }
+}
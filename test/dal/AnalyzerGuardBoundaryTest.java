@@ -0,0 +1,186 @@
+package dal;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+
+import org.junit.Test;
+
+/**
+ * Boundary and Limit Condition Tests for AnalyzerGuard (Data Access Layer)
+ * Tests: time budget, one call at a time, abandoned calls, skipped tokens
+ */
+public class AnalyzerGuardBoundaryTest {
+
+    private static final long BUDGET_NANOS = TimeUnit.MILLISECONDS.toNanos(200);
+
+    // Hangs until released, ignoring interrupts like a stuck AlKhalil call
+    private static String hangUntil(CountDownLatch release) {
+        while (true) {
+            try {
+                release.await();
+                return "late";
+            } catch (InterruptedException e) {
+                // keep hanging
+            }
+        }
+    }
+
+    private static void waitUntil(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!condition.getAsBoolean() && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertTrue(condition.getAsBoolean());
+    }
+
+    // ========== TEST CATEGORY: TIME BUDGET ==========
+
+    @Test
+    public void testRun_ReturnsResultWithinBudget() {
+        AnalyzerGuard guard = new AnalyzerGuard(BUDGET_NANOS, 64, 3);
+        assertEquals("ok", guard.run("كتب", () -> "ok"));
+        assertEquals(1, guard.latency().getCount());
+        assertEquals(0, guard.skippedCount());
+    }
+
+    @Test
+    public void testRun_TimeoutReturnsNullWithinBudget() {
+        // Boundary: call never finishes in time, caller gets null after the budget
+        AnalyzerGuard guard = new AnalyzerGuard(BUDGET_NANOS, 64, 3);
+        CountDownLatch release = new CountDownLatch(1);
+        long start = System.nanoTime();
+        try {
+            assertNull(guard.run("كتب", () -> hangUntil(release)));
+            long elapsed = System.nanoTime() - start;
+            assertTrue("returned after " + elapsed + " ns", elapsed < BUDGET_NANOS * 5);
+            assertEquals(1, guard.skippedCount());
+        } finally {
+            release.countDown();
+        }
+    }
+
+    // ========== TEST CATEGORY: ABANDONED CALLS ==========
+
+    @Test
+    public void testRun_AbandonedCallKeepsAnalyzer() throws Exception {
+        // Boundary: while a timed-out call still runs, no other call starts and callers do not wait
+        AnalyzerGuard guard = new AnalyzerGuard(BUDGET_NANOS, 64, 3);
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger calls = new AtomicInteger();
+        assertNull(guard.run("كتب", () -> hangUntil(release)));
+
+        long start = System.nanoTime();
+        assertNull(guard.run("درس", () -> {
+            calls.incrementAndGet();
+            return "ok";
+        }));
+        assertTrue(System.nanoTime() - start < BUDGET_NANOS);
+        assertEquals(0, calls.get());
+        assertFalse(guard.isBadToken("درس"));
+
+        // Once the stuck call returns, the same worker analyzes again
+        release.countDown();
+        waitUntil(() -> guard.latency().getCount() == 1);
+        waitUntil(() -> "ok".equals(guard.run("درس", () -> "ok")));
+    }
+
+    @Test
+    public void testRun_CallsNeverOverlap() throws Exception {
+        // Boundary: many analysis threads, the analyzer singleton sees one call at a time
+        AnalyzerGuard guard = new AnalyzerGuard(TimeUnit.SECONDS.toNanos(5), 64, 3);
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger maxRunning = new AtomicInteger();
+        ExecutorService callers = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<String>> results = new ArrayList<>();
+            for (int i = 0; i < 64; i++) {
+                String token = "كلمة" + i;
+                results.add(callers.submit(() -> guard.run(token, () -> {
+                    maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+                    Thread.sleep(1);
+                    running.decrementAndGet();
+                    return token;
+                })));
+            }
+            for (int i = 0; i < results.size(); i++) {
+                assertEquals("كلمة" + i, results.get(i).get(30, TimeUnit.SECONDS));
+            }
+            assertEquals(1, maxRunning.get());
+        } finally {
+            callers.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testRun_QueuedCallerHasOwnDeadline() throws Exception {
+        // Boundary: the analyzer is busy with a slow call; a waiting caller returns within its own budget
+        AnalyzerGuard guard = new AnalyzerGuard(TimeUnit.SECONDS.toNanos(1), 64, 3);
+        CountDownLatch running = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService callers = Executors.newFixedThreadPool(2);
+        try {
+            Future<String> slow = callers.submit(() -> guard.run("كتب", () -> {
+                running.countDown();
+                return hangUntil(release);
+            }));
+            assertTrue(running.await(5, TimeUnit.SECONDS));
+            long start = System.nanoTime();
+            Future<String> queued = callers.submit(() -> guard.run("درس", () -> "ok"));
+            assertNull(queued.get(10, TimeUnit.SECONDS));
+            assertTrue(System.nanoTime() - start < TimeUnit.SECONDS.toNanos(3));
+            assertFalse(guard.isBadToken("درس"));
+            assertNull(slow.get(10, TimeUnit.SECONDS));
+        } finally {
+            release.countDown();
+            callers.shutdownNow();
+        }
+    }
+
+    // ========== TEST CATEGORY: SKIPPED TOKENS ==========
+
+    @Test
+    public void testRun_TokenSkippedOnlyAfterRepeatedFailures() {
+        // Boundary: failures below the limit are retried, the limit-th one stops analysis
+        AnalyzerGuard guard = new AnalyzerGuard(BUDGET_NANOS, 64, 3);
+        AtomicInteger calls = new AtomicInteger();
+        for (int i = 0; i < 5; i++) {
+            assertNull(guard.run("كتب", () -> {
+                calls.incrementAndGet();
+                throw new IllegalStateException("broken token");
+            }));
+            assertEquals(i >= 2, guard.isBadToken("كتب"));
+        }
+        assertEquals(3, calls.get());
+        assertEquals(5, guard.skippedCount());
+    }
+
+    @Test
+    public void testRun_SingleTimeoutDoesNotBlacklist() throws Exception {
+        // Boundary: a slow first call (cold dictionaries) leaves the token analyzable
+        AnalyzerGuard guard = new AnalyzerGuard(BUDGET_NANOS, 64, 3);
+        CountDownLatch release = new CountDownLatch(1);
+        assertNull(guard.run("كتب", () -> hangUntil(release)));
+        release.countDown();
+        assertFalse(guard.isBadToken("كتب"));
+        waitUntil(() -> "ok".equals(guard.run("كتب", () -> "ok")));
+    }
+
+    @Test
+    public void testRun_OverlongTokenSkipped() {
+        // Boundary: maxTokenLength itself is analyzed, one more character is not
+        AnalyzerGuard guard = new AnalyzerGuard(BUDGET_NANOS, 4, 3);
+        assertEquals("ok", guard.run("كتبت", () -> "ok"));
+        assertNull(guard.run("كتبتم", () -> "ok"));
+        assertEquals(1, guard.skippedCount());
+        assertFalse(guard.isBadToken("كتبتم"));
+    }
+}
@@ -0,0 +1,30 @@
+package dal;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import org.junit.Test;
+
+import net.oujda_nlp_team.AlKhalil2Analyzer;
+
+public class AnalyzerWarmupBoundaryTest {
+
+    // ========== TEST CATEGORY: RAW ANALYZER PASSES ==========
+
+    @Test
+    public void testWarmUp_EveryPassReachesAnalyzer() {
+        // Boundary: passes after the first would be cache hits without the direct calls
+        AlKhalil2Analyzer analyzer = mock(AlKhalil2Analyzer.class);
+        AnalyzerWarmup.warmUp(analyzer, 3);
+        verify(analyzer, times(3)).processToken("المدرسة");
+    }
+
+    @Test
+    public void testWarmUp_ZeroIterations() {
+        // Boundary: nothing to run
+        AlKhalil2Analyzer analyzer = mock(AlKhalil2Analyzer.class);
+        AnalyzerWarmup.warmUp(analyzer, 0);
+        verify(analyzer, times(0)).processToken("المدرسة");
+    }
+}
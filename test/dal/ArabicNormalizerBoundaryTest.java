@@ -0,0 +1,70 @@
+package dal;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+public class ArabicNormalizerBoundaryTest {
+
+    // ========== TEST CATEGORY: DEFAULT NORMALIZATION ==========
+
+    @Test
+    public void testNormalize_EmptyText() {
+        // Boundary: empty input
+        assertEquals("", new ArabicNormalizer(0).normalize(""));
+    }
+
+    @Test
+    public void testNormalize_RemovesHarakatAndNonArabic() {
+        // Boundary: mixed diacritics, Latin letters, digits and punctuation
+        assertEquals("بسم  ٱلله", new ArabicNormalizer(0).normalize("بِسْمِ abc123 ٱللَّهِ!"));
+    }
+
+    @Test
+    public void testNormalize_KeepsWhitespace() {
+        // Boundary: all \s characters survive
+        assertEquals(" \t\n\r\f\u000B", new ArabicNormalizer(0).normalize(" \t\n\r\f\u000B"));
+    }
+
+    @Test
+    public void testNormalize_SurrogatePairs() {
+        // Boundary: supplementary Arabic symbol kept, emoji and lone surrogate dropped
+        String arabicSymbol = new String(Character.toChars(0x1EE00));
+        String emoji = new String(Character.toChars(0x1F600));
+        assertEquals(arabicSymbol, new ArabicNormalizer(0).normalize(arabicSymbol + emoji + "\uD800"));
+    }
+
+    // ========== TEST CATEGORY: EXTENDED NORMALIZATION ==========
+
+    @Test
+    public void testNormalize_AlefHamzaVariants() {
+        // Boundary: every folded variant
+        assertEquals("ااااويي", new ArabicNormalizer(ArabicNormalizer.ALEF_HAMZA).normalize("أإآٱؤئى"));
+    }
+
+    @Test
+    public void testNormalize_TatweelDropped() {
+        // Boundary: kashida is Common script and never survives
+        assertEquals("كتاب", new ArabicNormalizer(0).normalize("كتـــاب"));
+    }
+
+    @Test
+    public void testNormalize_PresentationFormsExpand() {
+        // Boundary: one char expanding to several (lam-alef and Allah ligatures)
+        ArabicNormalizer normalizer = new ArabicNormalizer(ArabicNormalizer.PRESENTATION_FORMS);
+        assertEquals("لا الله", normalizer.normalize("ﻻ ﷲ"));
+    }
+
+    @Test
+    public void testNormalize_BufferReusedAcrossSizes() {
+        // Boundary: large input after a small one, then small again
+        ArabicNormalizer normalizer = new ArabicNormalizer(ArabicNormalizer.PRESENTATION_FORMS);
+        StringBuilder large = new StringBuilder();
+        for (int i = 0; i < 5000; i++) {
+            large.append('ﷲ');
+        }
+        assertEquals("ب", normalizer.normalize("ب"));
+        assertEquals(20000, normalizer.normalize(large).length());
+        assertEquals("ب", normalizer.normalize("ب"));
+    }
+}
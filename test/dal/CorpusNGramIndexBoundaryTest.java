@@ -0,0 +1,100 @@
+package dal;
+
+import static org.junit.Assert.*;
+
+import java.util.Map;
+
+import org.junit.Test;
+
+/**
+ * Boundary and Limit Condition Tests for CorpusNGramIndex (Data Access Layer)
+ * Tests: incremental count changes per page, PMI from corpus counts
+ */
+public class CorpusNGramIndexBoundaryTest {
+
+    private static final String PAGE = "كتب الطالب الدرس ثم كتب الطالب الواجب";
+
+    // ========== TEST CATEGORY: COUNT CHANGES ==========
+
+    @Test
+    public void testDelta_CountsRepeatedWordsAndBigrams() {
+        // Boundary: word and bigram repeated on one page
+        CorpusNGramIndex.Delta delta = new CorpusNGramIndex.Delta();
+        delta.addPage(PAGE);
+        assertEquals(2, delta.unigramChange("كتب"));
+        assertEquals(1, delta.unigramChange("الواجب"));
+        assertEquals(2, delta.bigramChange("كتب", "الطالب"));
+        assertEquals(1, delta.bigramChange("الطالب", "الواجب"));
+        assertEquals(0, delta.bigramChange("الواجب", "كتب"));
+        assertEquals(7, delta.tokenChange());
+    }
+
+    @Test
+    public void testDelta_AddThenRemoveCancels() {
+        // Boundary: page created and deleted in the same batch writes nothing
+        CorpusNGramIndex.Delta delta = new CorpusNGramIndex.Delta();
+        delta.addPage(PAGE);
+        delta.removePage(PAGE);
+        assertTrue(delta.isEmpty());
+    }
+
+    @Test
+    public void testDelta_EditOnlyMovesChangedCounts() {
+        // Boundary: one word replaced on an edited page
+        CorpusNGramIndex.Delta delta = new CorpusNGramIndex.Delta();
+        delta.removePage(PAGE);
+        delta.addPage("كتب الطالب الدرس ثم كتب الطالب الكتاب");
+        assertFalse(delta.isEmpty());
+        assertEquals(0, delta.unigramChange("كتب"));
+        assertEquals(-1, delta.unigramChange("الواجب"));
+        assertEquals(1, delta.unigramChange("الكتاب"));
+        assertEquals(0, delta.bigramChange("كتب", "الطالب"));
+        assertEquals(-1, delta.bigramChange("الطالب", "الواجب"));
+        assertEquals(0, delta.tokenChange());
+    }
+
+    @Test
+    public void testDelta_ReorderedWordsChangeBigramsOnly() {
+        // Boundary: same words in another order, unigram counts unchanged
+        CorpusNGramIndex.Delta delta = new CorpusNGramIndex.Delta();
+        delta.removePage("كتب الطالب");
+        delta.addPage("الطالب كتب");
+        assertFalse(delta.isEmpty());
+        assertEquals(0, delta.unigramChange("كتب"));
+        assertEquals(-1, delta.bigramChange("كتب", "الطالب"));
+        assertEquals(1, delta.bigramChange("الطالب", "كتب"));
+    }
+
+    @Test
+    public void testDelta_EmptyAndNullPages() {
+        // Boundary: pages with no words
+        CorpusNGramIndex.Delta delta = new CorpusNGramIndex.Delta();
+        delta.addPage("");
+        delta.removePage(null);
+        assertTrue(delta.isEmpty());
+    }
+
+    // ========== TEST CATEGORY: PMI FROM COUNTS ==========
+
+    @Test
+    public void testPmi_SinglePageCorpusMatchesPagePmi() {
+        // Boundary: corpus of one page scores as the page-local PMI does
+        CorpusNGramIndex.Delta delta = new CorpusNGramIndex.Delta();
+        delta.addPage(PAGE);
+        Map<String, Double> pagePmi = new PMICalculator(PAGE).calculatePMIForAllBigrams();
+        for (Map.Entry<String, Double> entry : pagePmi.entrySet()) {
+            String[] words = PMICalculator.splitKey(entry.getKey());
+            double corpusPmi = PMICalculator.pmi(delta.bigramChange(words[0], words[1]),
+                    delta.unigramChange(words[0]), delta.unigramChange(words[1]), delta.tokenChange());
+            assertEquals(entry.getValue(), corpusPmi, 0.0);
+        }
+    }
+
+    @Test
+    public void testPmi_UnseenOrEmptyCorpus() {
+        // Boundary: no tokens, or a bigram that never occurs
+        assertEquals(Double.NEGATIVE_INFINITY, PMICalculator.pmi(0, 0, 0, 0), 0.0);
+        assertEquals(Double.NEGATIVE_INFINITY, PMICalculator.pmi(0, 3, 4, 100), 0.0);
+        assertEquals(Math.log(100.0 / 12) / Math.log(2), PMICalculator.pmi(1, 3, 4, 100), 1e-12);
+    }
+}
@@ -0,0 +1,84 @@
+package dal;
+
+import static org.junit.Assert.*;
+
+import java.util.List;
+
+import org.junit.Test;
+
+import dto.SimilarDocument;
+
+public class DocumentVectorIndexBoundaryTest {
+
+    // ========== TEST CATEGORY: BOUNDED HEAP ==========
+
+    @Test
+    public void testTopK_KeepsBestInOrder() {
+        // Boundary: more candidates than k, offered in no particular order
+        DocumentVectorIndex.TopK topK = new DocumentVectorIndex.TopK(3);
+        double[] scores = { 0.2, 0.9, 0.1, 0.5, 0.7, 0.3 };
+        for (int i = 0; i < scores.length; i++) {
+            topK.offer(i + 1, scores[i]);
+        }
+        List<SimilarDocument> ranked = topK.sorted();
+        assertEquals(3, ranked.size());
+        assertEquals(2, ranked.get(0).getFileId());
+        assertEquals(5, ranked.get(1).getFileId());
+        assertEquals(4, ranked.get(2).getFileId());
+    }
+
+    @Test
+    public void testTopK_FewerCandidatesThanK() {
+        // Boundary: k larger than the candidate set, and no candidates at all
+        DocumentVectorIndex.TopK topK = new DocumentVectorIndex.TopK(10);
+        assertTrue(topK.sorted().isEmpty());
+        topK.offer(7, 0.4);
+        topK.offer(3, 0.6);
+        assertEquals(2, topK.sorted().size());
+        assertEquals(3, topK.sorted().get(0).getFileId());
+    }
+
+    @Test
+    public void testTopK_TiesGoToLowerFileId() {
+        // Boundary: equal similarity at the cut-off
+        DocumentVectorIndex.TopK topK = new DocumentVectorIndex.TopK(2);
+        topK.offer(9, 0.5);
+        topK.offer(4, 0.5);
+        topK.offer(6, 0.5);
+        List<SimilarDocument> ranked = topK.sorted();
+        assertEquals(4, ranked.get(0).getFileId());
+        assertEquals(6, ranked.get(1).getFileId());
+    }
+
+    // ========== TEST CATEGORY: VECTOR WEIGHTS ==========
+
+    @Test
+    public void testCosine_ZeroNorm() {
+        // Boundary: an empty vector is similar to nothing
+        assertEquals(0.0, DocumentVectorIndex.cosine(0.0, 0.0, 2.0), 0.0);
+        assertEquals(1.0, DocumentVectorIndex.cosine(4.0, 2.0, 2.0), 1e-12);
+    }
+
+    @Test
+    public void testTermWeights_SumToScalarScore() {
+        // Boundary: the stored vector carries the same information as the scalar score
+        int[] termCounts = { 3, 1, 2 };
+        int[] documentFrequencies = { 1, 4, 0 };
+        int corpusSize = 5;
+        long totalWords = 6;
+        double sum = 0.0;
+        for (int i = 0; i < termCounts.length; i++) {
+            sum += TFIDFCalculator.termWeight(termCounts[i], documentFrequencies[i], corpusSize, totalWords);
+        }
+        assertEquals(TFIDFCalculator.calculateDocumentTfIdf(termCounts, documentFrequencies, corpusSize, totalWords),
+                sum / totalWords, 1e-12);
+    }
+
+    @Test
+    public void testTermWeights_UbiquitousTermHasNoPositiveWeight() {
+        // Boundary: a term in every document is left out of the vector
+        assertTrue(TFIDFCalculator.termWeight(1, 4, 4, 2) <= 0);
+        assertTrue(TFIDFCalculator.termWeight(1, 3, 4, 2) <= 0);
+        assertTrue(TFIDFCalculator.termWeight(1, 1, 4, 2) > 0);
+    }
+}
@@ -0,0 +1,97 @@
+package dal;
+
+import static org.junit.Assert.*;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+/**
+ * Boundary and Limit Condition Tests for LatencyHistogram (Data Access Layer)
+ * Tests: empty histogram, bucket bounds, maximum, concurrent recording
+ */
+public class LatencyHistogramBoundaryTest {
+
+    // ========== TEST CATEGORY: EMPTY AND SINGLE SAMPLES ==========
+
+    @Test
+    public void testEmpty_ReportsZero() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        assertEquals(0, histogram.getCount());
+        assertEquals(0, histogram.getMaxMicros());
+        assertEquals(0, histogram.getPercentileMicros(50));
+        assertEquals(0, histogram.getPercentileMicros(100));
+    }
+
+    @Test
+    public void testRecord_SubMicrosecondAndNegative() {
+        // Boundary: samples below one microsecond, and a negative clock difference
+        LatencyHistogram histogram = new LatencyHistogram();
+        histogram.record(999);
+        histogram.record(-5);
+        assertEquals(2, histogram.getCount());
+        assertEquals(0, histogram.getMaxMicros());
+        assertEquals(0, histogram.getPercentileMicros(100));
+    }
+
+    @Test
+    public void testPercentile_UpperBoundOfBucketCappedByMax() {
+        // Boundary: 5 us falls in [4, 8), reported as max since max < 8
+        LatencyHistogram histogram = new LatencyHistogram();
+        histogram.record(5000);
+        assertEquals(5, histogram.getMaxMicros());
+        assertEquals(5, histogram.getPercentileMicros(50));
+        histogram.record(100_000);
+        assertEquals(8, histogram.getPercentileMicros(50));
+        assertEquals(100, histogram.getPercentileMicros(100));
+    }
+
+    @Test
+    public void testRecord_HugeValueInLastBucket() {
+        // Boundary: longer than the largest bucket
+        LatencyHistogram histogram = new LatencyHistogram();
+        histogram.record(Long.MAX_VALUE);
+        assertEquals(Long.MAX_VALUE / 1000, histogram.getMaxMicros());
+        assertEquals(1L << 39, histogram.getPercentileMicros(99.9));
+    }
+
+    // ========== TEST CATEGORY: PERCENTILES ==========
+
+    @Test
+    public void testPercentile_Ordered() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (int i = 1; i <= 1000; i++) {
+            histogram.record(i * 1000L);
+        }
+        assertEquals(1000, histogram.getCount());
+        assertEquals(1000, histogram.getMaxMicros());
+        long p50 = histogram.getPercentileMicros(50);
+        long p90 = histogram.getPercentileMicros(90);
+        long p99 = histogram.getPercentileMicros(99);
+        assertTrue(p50 >= 500 && p50 <= 1024);
+        assertTrue(p50 <= p90 && p90 <= p99);
+        assertTrue(p99 <= histogram.getMaxMicros());
+    }
+
+    // ========== TEST CATEGORY: CONCURRENCY ==========
+
+    @Test
+    public void testRecord_ConcurrentThreadsLoseNoSamples() throws Exception {
+        LatencyHistogram histogram = new LatencyHistogram();
+        ExecutorService threads = Executors.newFixedThreadPool(4);
+        for (int t = 0; t < 4; t++) {
+            int offset = t;
+            threads.submit(() -> {
+                for (int i = 0; i < 10000; i++) {
+                    histogram.record((i + offset) * 1000L);
+                }
+            });
+        }
+        threads.shutdown();
+        assertTrue(threads.awaitTermination(30, TimeUnit.SECONDS));
+        assertEquals(40000, histogram.getCount());
+        assertEquals(10002, histogram.getMaxMicros());
+    }
+}
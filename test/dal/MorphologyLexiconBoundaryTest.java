@@ -0,0 +1,152 @@
+package dal;
+
+import static org.junit.Assert.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.Arrays;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import dto.TokenAnalysis;
+
+public class MorphologyLexiconBoundaryTest {
+
+    private File file;
+
+    @Before
+    public void setUp() throws IOException {
+        file = File.createTempFile("lexicon", ".lex");
+        file.delete();
+    }
+
+    @After
+    public void tearDown() {
+        file.delete();
+    }
+
+    private static TokenAnalysis analysis(String word) {
+        return new TokenAnalysis(word, Arrays.asList("noun", "plural"), "lemma", "root", "stem", "ال-" + word);
+    }
+
+    // ========== TEST CATEGORY: EMPTY LEXICON ==========
+
+    @Test
+    public void testGet_NewFileIsEmpty() throws IOException {
+        // Boundary: lexicon file does not exist yet
+        MorphologyLexicon lexicon = new MorphologyLexicon(file);
+        assertEquals(0, lexicon.size());
+        assertNull(lexicon.get("كتاب"));
+        lexicon.close();
+    }
+
+    // ========== TEST CATEGORY: PERSISTENCE ==========
+
+    @Test
+    public void testAppend_SurvivesReopen() throws IOException {
+        // Boundary: analyses written in one session are read back in the next
+        MorphologyLexicon lexicon = new MorphologyLexicon(file);
+        lexicon.append("كتاب", analysis("كتاب"));
+        lexicon.append("قلم", analysis("قلم"));
+        lexicon.close();
+
+        MorphologyLexicon reopened = new MorphologyLexicon(file);
+        assertEquals(2, reopened.size());
+        TokenAnalysis read = reopened.get("كتاب");
+        assertNotNull(read);
+        assertEquals("كتاب", read.getWord());
+        assertEquals(Arrays.asList("noun", "plural"), read.getPosTags());
+        assertEquals("ال-كتاب", read.getSegment());
+        reopened.close();
+    }
+
+    @Test
+    public void testGet_ReadsRecordAppendedAfterMapping() throws IOException {
+        // Boundary: record lies beyond the current memory mapping
+        MorphologyLexicon lexicon = new MorphologyLexicon(file);
+        lexicon.append("بيت", analysis("بيت"));
+        assertEquals("stem", lexicon.get("بيت").getStem());
+        lexicon.close();
+    }
+
+    @Test
+    public void testAppend_DuplicateKeyIgnored() throws IOException {
+        // Boundary: same token appended twice
+        MorphologyLexicon lexicon = new MorphologyLexicon(file);
+        lexicon.append("بيت", analysis("بيت"));
+        long length = file.length();
+        lexicon.append("بيت", analysis("بيت"));
+        assertEquals(length, file.length());
+        lexicon.close();
+    }
+
+    // ========== TEST CATEGORY: SEGMENTED MAPPING ==========
+
+    @Test
+    public void testGet_RecordsAcrossSegmentBoundaries() throws IOException {
+        // Boundary: mappings far smaller than a record, so records straddle them
+        MorphologyLexicon lexicon = new MorphologyLexicon(file, MorphologyLexicon.DEFAULT_MAX_BYTES, 16);
+        for (int i = 0; i < 50; i++) {
+            lexicon.append("كلمة" + i, analysis("كلمة" + i));
+        }
+        lexicon.close();
+
+        MorphologyLexicon reopened = new MorphologyLexicon(file, MorphologyLexicon.DEFAULT_MAX_BYTES, 16);
+        assertEquals(50, reopened.size());
+        for (int i = 0; i < 50; i++) {
+            assertEquals("كلمة" + i, reopened.get("كلمة" + i).getWord());
+        }
+        reopened.append("جديد", analysis("جديد"));
+        assertEquals("ال-جديد", reopened.get("جديد").getSegment());
+        reopened.close();
+    }
+
+    @Test
+    public void testAppend_StopsAtSizeLimit() throws IOException {
+        // Boundary: file reaches lexicon.maxBytes, later analyses are not persisted
+        MorphologyLexicon lexicon = new MorphologyLexicon(file, 200, MorphologyLexicon.DEFAULT_SEGMENT_SIZE);
+        for (int i = 0; i < 20; i++) {
+            lexicon.append("كلمة" + i, analysis("كلمة" + i));
+        }
+        assertTrue(lexicon.isFull());
+        assertTrue(file.length() <= 200);
+        assertTrue(lexicon.size() > 0 && lexicon.size() < 20);
+        assertNotNull(lexicon.get("كلمة0"));
+        assertNull(lexicon.get("كلمة19"));
+        lexicon.close();
+    }
+
+    // ========== TEST CATEGORY: CORRUPTION ==========
+
+    @Test
+    public void testOpen_TruncatedTrailingRecordDropped() throws IOException {
+        // Boundary: crash in the middle of an append
+        MorphologyLexicon lexicon = new MorphologyLexicon(file);
+        lexicon.append("كتاب", analysis("كتاب"));
+        lexicon.append("قلم", analysis("قلم"));
+        lexicon.close();
+
+        try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+            raf.setLength(raf.length() - 3);
+        }
+
+        MorphologyLexicon reopened = new MorphologyLexicon(file);
+        assertEquals(1, reopened.size());
+        assertNull(reopened.get("قلم"));
+        reopened.append("قلم", analysis("قلم"));
+        assertNotNull(reopened.get("قلم"));
+        reopened.close();
+    }
+
+    @Test(expected = IOException.class)
+    public void testOpen_ForeignFileRejected() throws IOException {
+        // Boundary: file that is not a lexicon
+        try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+            raf.writeBytes("not a lexicon");
+        }
+        new MorphologyLexicon(file);
+    }
+}
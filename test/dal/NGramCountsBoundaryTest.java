@@ -0,0 +1,143 @@
+package dal;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import org.junit.Test;
+
+/**
+ * Boundary and Limit Condition Tests for NGramCounts (Data Access Layer)
+ * Tests: id assignment, primitive counts, PMI/PKL identical to string counting
+ */
+public class NGramCountsBoundaryTest {
+
+    private static final String ARABIC = "بسم الله الرحمن الرحيم الحمد لله رب العالمين الرحمن الرحيم مالك يوم الدين "
+            + "إياك نعبد وإياك نستعين اهدنا الصراط المستقيم صراط الذين أنعمت عليهم الرحمن الرحيم";
+
+    // Reference: the string-keyed counting PMICalculator used before
+    private static Map<String, Double> stringPmi(String[] words) {
+        Map<String, Integer> wordFreq = new HashMap<>();
+        Map<String, Integer> bigramFreq = new HashMap<>();
+        for (String word : words) {
+            wordFreq.put(word, wordFreq.getOrDefault(word, 0) + 1);
+        }
+        for (int i = 0; i < words.length - 1; i++) {
+            String bigram = words[i] + " " + words[i + 1];
+            bigramFreq.put(bigram, bigramFreq.getOrDefault(bigram, 0) + 1);
+        }
+        Map<String, Double> scores = new LinkedHashMap<>();
+        int total = words.length;
+        for (int i = 0; i < words.length - 1; i++) {
+            String bigram = words[i] + " " + words[i + 1];
+            double p1 = (double) wordFreq.get(words[i]) / total;
+            double p2 = (double) wordFreq.get(words[i + 1]) / total;
+            double pb = (double) bigramFreq.get(bigram) / total;
+            scores.put(bigram, Math.log(pb / (p1 * p2)) / Math.log(2));
+        }
+        return scores;
+    }
+
+    // Reference: the string-keyed counting PKLCalculator used before
+    private static Map<String, Double> stringPkl(String[] words) {
+        Map<String, Integer> wordFreq = new HashMap<>();
+        for (String word : words) {
+            wordFreq.put(word, wordFreq.getOrDefault(word, 0) + 1);
+        }
+        Map<String, Double> scores = new LinkedHashMap<>();
+        int total = words.length;
+        for (int i = 1; i < words.length - 1; i++) {
+            double pV = (double) wordFreq.get(words[i]) / total;
+            double pUl = (double) wordFreq.get(words[i - 1]) / total;
+            double pUr = (double) wordFreq.get(words[i + 1]) / total;
+            scores.put(words[i] + " (" + words[i - 1] + ", " + words[i + 1] + ")", pV * Math.log(pV / (pUl * pUr)));
+        }
+        return scores;
+    }
+
+    private static void assertSameScores(String text) {
+        String[] words = PreprocessedText.of(text).getTokens();
+        Map<String, Double> pmi = new PMICalculator(text).calculatePMIForAllBigrams();
+        Map<String, Double> pkl = new PKLCalculator(text).calculatePKLForAllWords();
+        assertEquals(new ArrayList<>(stringPmi(words).entrySet()), new ArrayList<>(pmi.entrySet()));
+        assertEquals(new ArrayList<>(stringPkl(words).entrySet()), new ArrayList<>(pkl.entrySet()));
+    }
+
+    // ========== TEST CATEGORY: IDENTICAL SCORES ==========
+
+    @Test
+    public void testScores_IdenticalToStringCounting() {
+        // Boundary: repeated words and bigrams, same keys, order and values
+        assertSameScores(ARABIC);
+        assertSameScores(ARABIC + " " + ARABIC);
+    }
+
+    @Test
+    public void testScores_TinyDocuments() {
+        // Boundary: no words, one word, two words
+        assertSameScores("");
+        assertSameScores("كتب");
+        assertSameScores("كتب كتب");
+    }
+
+    @Test
+    public void testScores_LargeRandomDocument() {
+        // Boundary: many distinct tokens, forces table growth
+        Random random = new Random(7);
+        String[] vocabulary = ARABIC.split(" ");
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < 20000; i++) {
+            text.append(vocabulary[random.nextInt(vocabulary.length)]);
+            if (random.nextInt(4) == 0) {
+                text.append("ا".repeat(1 + random.nextInt(5)));
+            }
+            text.append(' ');
+        }
+        assertSameScores(text.toString());
+    }
+
+    // ========== TEST CATEGORY: COUNTS ==========
+
+    @Test
+    public void testCounts_IdsInOrderOfFirstAppearance() {
+        // Boundary: unknown and null words have no id and count 0
+        NGramCounts counts = new NGramCounts(new String[] { "ب", "ا", "ب", "ج", "ب", "ا" });
+        assertEquals(3, counts.distinctCount());
+        assertEquals(0, counts.id("ب"));
+        assertEquals(1, counts.id("ا"));
+        assertEquals("ج", counts.token(2));
+        assertEquals(3, counts.unigramCount(counts.id("ب")));
+        assertEquals(2, counts.bigramCount(counts.id("ب"), counts.id("ا")));
+        assertEquals(0, counts.bigramCount(counts.id("ا"), counts.id("ج")));
+        assertEquals(-1, counts.id("د"));
+        assertEquals(-1, counts.id(null));
+        assertEquals(0, counts.unigramCount(-1));
+        assertEquals(0, counts.bigramCount(-1, 0));
+    }
+
+    @Test
+    public void testLongIntHashMap_GrowthAndZeroKey() {
+        // Boundary: key 0 (bigram of id 0 with itself) and many rehashes
+        LongIntHashMap map = new LongIntHashMap(1);
+        assertEquals(0, map.get(0L));
+        assertEquals(1, map.add(0L, 1));
+        assertEquals(2, map.add(0L, 1));
+        List<Long> keys = new ArrayList<>();
+        for (int i = 0; i < 5000; i++) {
+            long key = NGramCounts.bigramKey(i, 5000 - i);
+            keys.add(key);
+            map.add(key, i);
+        }
+        assertEquals(5001, map.size());
+        for (int i = 1; i < keys.size(); i++) {
+            assertEquals(i, map.get(keys.get(i)));
+        }
+        assertEquals(2, map.get(0L));
+        assertEquals(0, map.get(NGramCounts.bigramKey(1, 1)));
+    }
+}
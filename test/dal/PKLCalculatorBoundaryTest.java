@@ -163,6 +163,26 @@ public class PKLCalculatorBoundaryTest {
         assertTrue("Should complete within 5 seconds", true);
     }
     
+    // ====== TEST CATEGORY: KEY FORMAT ======
+
+    @Test
+    public void testSplitKey_RoundTripsEveryScoreKey() {
+        // Boundary: every generated key must split back into (v, ul, ur)
+        PKLCalculator calculator = new PKLCalculator("ذهب الولد الى المدرسة");
+        for (String key : calculator.calculatePKLForAllWords().keySet()) {
+            String[] words = PKLCalculator.splitKey(key);
+            assertEquals(3, words.length);
+            assertEquals(key, words[0] + " (" + words[1] + ", " + words[2] + ")");
+        }
+    }
+
+    @Test
+    public void testSplitKey_EmptyWords() {
+        // Boundary: empty tokens produced by leading whitespace
+        String[] words = PKLCalculator.splitKey(" (, )");
+        assertArrayEquals(new String[] { "", "", "" }, words);
+    }
+
     // ====== HELPER METHODS ========
     
     private String generateString(int length) {
@@ -192,6 +192,25 @@ public class PMICalculatorBoundaryTest {
         assertFalse("Should not be NaN", Double.isNaN(result));
     }
     
+    // ========== TEST CATEGORY: KEY FORMAT ==========
+
+    @Test
+    public void testSplitKey_RoundTripsEveryBigramKey() {
+        // Boundary: every generated bigram key must split back into two words
+        PMICalculator calculator = new PMICalculator("ذهب الولد الى المدرسة");
+        for (String key : calculator.calculatePMIForAllBigrams().keySet()) {
+            String[] words = PMICalculator.splitKey(key);
+            assertEquals(2, words.length);
+            assertEquals(key, words[0] + " " + words[1]);
+        }
+    }
+
+    @Test
+    public void testSplitKey_EmptyFirstWord() {
+        // Boundary: bigram starting with an empty token
+        assertArrayEquals(new String[] { "", "word" }, PMICalculator.splitKey(" word"));
+    }
+
     // ========== HELPER METHODS ==========
     
     private String generateString(int length) {
@@ -0,0 +1,159 @@
+package dal;
+
+import static org.junit.Assert.*;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+
+import dto.Pages;
+import util.Tokenizer;
+
+public class PageStreamBoundaryTest {
+
+    private static final String ARABIC = "بسم الله الرحمن الرحيم\r\nالحمد لله رب العالمين\rالرحمن الرحيم\nمالك يوم الدين";
+
+    private static String readLines(String raw) throws IOException {
+        // The in-memory import path: readLine() and one "\n" per line
+        StringBuilder content = new StringBuilder();
+        BufferedReader reader = new BufferedReader(new StringReader(raw));
+        String line;
+        while ((line = reader.readLine()) != null) {
+            content.append(line).append("\n");
+        }
+        return content.toString();
+    }
+
+    private static List<Pages> readPages(PageStream stream) {
+        List<Pages> pages = new ArrayList<>();
+        while (stream.hasNext()) {
+            pages.add(stream.next());
+        }
+        return pages;
+    }
+
+    private static void assertSameAsInMemory(String raw, int pageSize) throws Exception {
+        assertSameAsInMemory(raw, pageSize, 0);
+        assertSameAsInMemory(raw, pageSize, pageSize / 2);
+    }
+
+    private static void assertSameAsInMemory(String raw, int pageSize, int tolerance) throws Exception {
+        String content = readLines(raw);
+        PageStream stream = new PageStream(new StringReader(raw), pageSize, tolerance);
+        List<Pages> streamed = readPages(stream);
+
+        List<Pages> expected = new ArrayList<>();
+        PaginationDAO.iterate(content, pageSize, tolerance).forEachRemaining(expected::add);
+
+        assertEquals(expected.size(), streamed.size());
+        for (int i = 0; i < streamed.size(); i++) {
+            assertEquals(i + 1, streamed.get(i).getPageNumber());
+            assertEquals(expected.get(i).getPageContent(), streamed.get(i).getPageContent());
+        }
+        assertEquals(content, String.join("", contents(streamed)));
+        assertEquals(HashCalculator.calculateHash(content), stream.getHash());
+    }
+
+    // ========== TEST CATEGORY: PAGES AND HASH ==========
+
+    @Test
+    public void testPages_EmptyInputHasOneEmptyPage() throws Exception {
+        // Boundary: empty file, same single page as PaginationDAO
+        assertSameAsInMemory("", 100);
+    }
+
+    @Test
+    public void testPages_MatchInMemoryPagination() throws Exception {
+        // Boundary: mixed line endings and no final newline
+        assertSameAsInMemory(ARABIC, 100);
+        assertSameAsInMemory(ARABIC, 7);
+        assertSameAsInMemory(ARABIC + "\r\n", 1);
+    }
+
+    @Test
+    public void testPages_ExactMultipleOfPageSize() throws Exception {
+        // Boundary: no trailing empty page after a full page
+        assertSameAsInMemory("abcd", 5);
+        assertSameAsInMemory("abcd", 10);
+    }
+
+    @Test
+    public void testHash_SurrogatePairSplitAcrossPages() throws Exception {
+        // Boundary: page cut between the halves of a supplementary char
+        assertSameAsInMemory("a🌟b", 2);
+    }
+
+    @Test
+    public void testPages_MatchPaginationDAO() throws Exception {
+        // Boundary: streamed pages equal the in-memory paginator's substring ranges
+        StringBuilder raw = new StringBuilder();
+        for (int i = 0; i < 40; i++) {
+            raw.append(ARABIC).append('\n');
+        }
+        String content = readLines(raw.toString());
+        List<Pages> expected = PaginationDAO.paginate(content);
+        List<Pages> streamed = readPages(new PageStream(new StringReader(raw.toString())));
+
+        assertEquals(expected.size(), streamed.size());
+        for (int i = 0; i < expected.size(); i++) {
+            assertEquals(expected.get(i).getPageNumber(), streamed.get(i).getPageNumber());
+            assertEquals(expected.get(i).getPageContent(), streamed.get(i).getPageContent());
+        }
+        assertEquals(content, String.join("", contents(expected)));
+    }
+
+    private static List<String> contents(List<Pages> pages) {
+        List<String> contents = new ArrayList<>();
+        for (Pages page : pages) {
+            contents.add(page.getPageContent());
+        }
+        return contents;
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testHash_NotAvailableBeforeEnd() throws Exception {
+        // Boundary: hash requested while pages remain
+        PageStream stream = new PageStream(new StringReader(ARABIC), 5, 0);
+        stream.next();
+        stream.getHash();
+    }
+
+    // ========== TEST CATEGORY: STREAMING TOKENS ==========
+
+    @Test
+    public void testTokens_MatchWholeTextTokenization() throws Exception {
+        // Boundary: tokens cut by page boundaries are rejoined
+        String content = readLines(ARABIC);
+        ArabicNormalizer normalizer = new ArabicNormalizer(0);
+        for (int pageSize : new int[] { 1, 3, 10, 100 }) {
+            List<String> tokens = new ArrayList<>();
+            StreamingTokenizer tokenizer = new StreamingTokenizer(normalizer, (token, page) -> tokens.add(token));
+            for (Pages page : readPages(new PageStream(new StringReader(ARABIC), pageSize, pageSize / 2))) {
+                tokenizer.feed(page.getPageContent(), page.getPageNumber());
+            }
+            tokenizer.finish();
+
+            String[] expected = Tokenizer.tokens(normalizer.normalize(content));
+            assertArrayEquals(expected, tokens.toArray(new String[0]));
+            assertEquals(expected.length, tokenizer.getTokenCount());
+        }
+    }
+
+    @Test
+    public void testTokens_ReportedOnStartingPage() {
+        // Boundary: a token spanning two pages belongs to the first
+        List<Integer> pages = new ArrayList<>();
+        StreamingTokenizer tokenizer = new StreamingTokenizer(new ArabicNormalizer(0),
+                (token, page) -> pages.add(page));
+        tokenizer.feed("كتا", 1);
+        tokenizer.feed("ب قلم", 2);
+        tokenizer.finish();
+        assertEquals(2, pages.size());
+        assertEquals(Integer.valueOf(1), pages.get(0));
+        assertEquals(Integer.valueOf(2), pages.get(1));
+    }
+}
@@ -0,0 +1,155 @@
+package dal;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+
+import dto.Pages;
+
+public class PaginationDAOBoundaryTest {
+
+    private static List<String> pages(String content, int pageSize, int tolerance) {
+        List<String> pages = new ArrayList<>();
+        PaginationDAO.iterate(content, pageSize, tolerance).forEachRemaining(page -> pages.add(page.getPageContent()));
+        return pages;
+    }
+
+    // ========== TEST CATEGORY: EMPTY AND SHORT INPUT ==========
+
+    @Test
+    public void testPaginate_EmptyAndNullContent() {
+        // Boundary: one empty page, numbered 1
+        for (String content : new String[] { "", null }) {
+            List<Pages> pages = PaginationDAO.paginate(content);
+            assertEquals(1, pages.size());
+            assertEquals(1, pages.get(0).getPageNumber());
+            assertEquals("", pages.get(0).getPageContent());
+        }
+    }
+
+    @Test
+    public void testPaginate_ContentShorterThanPage() {
+        // Boundary: a document that fits on one page is not cut
+        assertEquals(1, pages("كتاب قلم", 10, 3).size());
+    }
+
+    // ========== TEST CATEGORY: BOUNDARIES ==========
+
+    @Test
+    public void testCut_SnapsToNearestWhitespace() {
+        // Boundary: target falls inside a word
+        List<String> pages = pages("aaaa bbbbbb cccc", 7, 3);
+        assertEquals("aaaa ", pages.get(0));
+        assertEquals("bbbbbb ", pages.get(1));
+        assertEquals("cccc", pages.get(2));
+    }
+
+    @Test
+    public void testCut_PrefersSentenceOverNearerWhitespace() {
+        // Boundary: sentence end is farther from the target than a plain space
+        List<String> pages = pages("اب. جد هو زي", 9, 5);
+        assertEquals("اب. ", pages.get(0));
+    }
+
+    @Test
+    public void testCut_PrefersParagraphOverSentence() {
+        // Boundary: blank line beats a sentence end
+        List<String> pages = pages("أ ب\n\nج د. هـ و ز", 8, 6);
+        assertEquals("أ ب\n\n", pages.get(0));
+    }
+
+    @Test
+    public void testCut_ArabicQuestionMarkEndsSentence() {
+        // Boundary: ؟ is a sentence terminator
+        List<String> pages = pages("ماذا؟ كتب الطالب", 9, 4);
+        assertEquals("ماذا؟ ", pages.get(0));
+    }
+
+    @Test
+    public void testCut_HardCutWithoutBoundary() {
+        // Boundary: no whitespace within tolerance
+        List<String> pages = pages("abcdefghijklmnop", 5, 2);
+        assertEquals("abcde", pages.get(0));
+        assertEquals(4, pages.size());
+    }
+
+    @Test
+    public void testCut_ZeroToleranceKeepsFixedSize() {
+        // Boundary: tolerance 0 behaves like the old fixed-size pages
+        List<String> pages = pages("aaaa bbbbbb cccc", 5, 0);
+        assertEquals("aaaa ", pages.get(0));
+        assertEquals("bbbbb", pages.get(1));
+    }
+
+    @Test
+    public void testCut_NeverSplitsSurrogatePair() {
+        // Boundary: hard cut lands between the halves of a supplementary char
+        List<String> pages = pages("ab🌟cd", 3, 0);
+        assertEquals("ab", pages.get(0));
+        assertEquals("🌟c", pages.get(1));
+    }
+
+    // ========== TEST CATEGORY: REBALANCING ==========
+
+    @Test
+    public void testRebalance_PageWithinLimitsUntouched() {
+        // Boundary: page between half size and size + tolerance
+        assertNull(PaginationDAO.planRebalance("aaaa", "bbb bbb", "cccc", 2, 8, 2));
+    }
+
+    @Test
+    public void testRebalance_OversizedPageIsSplit() {
+        // Boundary: page grew past size + tolerance
+        PaginationDAO.Rebalance plan = PaginationDAO.planRebalance(null, "aaaa bbbb cccc dddd", null, 3, 8, 2);
+        assertEquals(3, plan.firstPageNumber);
+        assertEquals(1, plan.oldCount);
+        assertEquals("aaaa bbbb cccc dddd", String.join("", plan.contents));
+        assertTrue(plan.contents.size() > 1);
+    }
+
+    @Test
+    public void testRebalance_SmallPageMergesIntoNext() {
+        // Boundary: shrunk page and its next neighbour fit on one page
+        PaginationDAO.Rebalance plan = PaginationDAO.planRebalance("pppppppp", "ab ", "cd", 2, 8, 2);
+        assertEquals(2, plan.firstPageNumber);
+        assertEquals(2, plan.oldCount);
+        assertEquals(1, plan.contents.size());
+        assertEquals("ab cd", plan.contents.get(0));
+    }
+
+    @Test
+    public void testRebalance_SmallPageMergesIntoPrevious() {
+        // Boundary: next page is too full, previous has room
+        PaginationDAO.Rebalance plan = PaginationDAO.planRebalance("ab ", "cd", "nnnnnnnnn", 5, 8, 2);
+        assertEquals(4, plan.firstPageNumber);
+        assertEquals("ab cd", plan.contents.get(0));
+    }
+
+    @Test
+    public void testRebalance_SmallLastPageWithoutRoomStays() {
+        // Boundary: neighbours too full to merge into
+        assertNull(PaginationDAO.planRebalance("pppppppppp", "ab", null, 2, 8, 2));
+        assertNull(PaginationDAO.planRebalance(null, "", null, 1, 8, 2));
+    }
+
+    // ========== TEST CATEGORY: ROUND TRIP ==========
+
+    @Test
+    public void testPages_ConcatenateToContent() {
+        // Boundary: no characters are lost or duplicated at cuts
+        StringBuilder content = new StringBuilder();
+        for (int i = 0; i < 200; i++) {
+            content.append("بسم الله الرحمن الرحيم. ").append(i % 7 == 0 ? "\n\n" : "");
+        }
+        List<Pages> pages = PaginationDAO.paginate(content.toString());
+        StringBuilder joined = new StringBuilder();
+        for (int i = 0; i < pages.size(); i++) {
+            assertEquals(i + 1, pages.get(i).getPageNumber());
+            joined.append(pages.get(i).getPageContent());
+        }
+        assertEquals(content.toString(), joined.toString());
+    }
+}
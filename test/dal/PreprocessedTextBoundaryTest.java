@@ -0,0 +1,67 @@
+package dal;
+
+import static org.junit.Assert.*;
+
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Boundary and Limit Condition Tests for PreprocessedText (Data Access Layer)
+ * Tests: which texts are cached, uncached preprocessing
+ */
+public class PreprocessedTextBoundaryTest {
+
+    private static String text(int length) {
+        StringBuilder text = new StringBuilder(length);
+        while (text.length() < length) {
+            text.append("كتب ");
+        }
+        return text.substring(0, length);
+    }
+
+    @Before
+    public void setUp() {
+        PreprocessedText.clear();
+    }
+
+    // ========== TEST CATEGORY: CACHED LENGTH ==========
+
+    @Test
+    public void testOf_PageSizedTextCached() {
+        // Boundary: exactly the longest cached length
+        String page = text(PreprocessedText.MAX_CACHED_LENGTH);
+        long hits = PreprocessedText.getHitCount();
+        PreprocessedText first = PreprocessedText.of(page);
+        assertSame(first, PreprocessedText.of(page));
+        assertEquals(hits + 1, PreprocessedText.getHitCount());
+        assertEquals(1, PreprocessedText.size());
+    }
+
+    @Test
+    public void testOf_LongerTextNotCached() {
+        // Boundary: one character over the limit, as a whole document would be
+        String document = text(PreprocessedText.MAX_CACHED_LENGTH + 1);
+        PreprocessedText first = PreprocessedText.of(document);
+        assertNotSame(first, PreprocessedText.of(document));
+        assertEquals(0, PreprocessedText.size());
+        assertArrayEquals(first.getTokens(), PreprocessedText.of(document).getTokens());
+    }
+
+    // ========== TEST CATEGORY: UNCACHED ==========
+
+    @Test
+    public void testUncached_SameResultLeavesCacheUntouched() {
+        String page = "كتب الطالب الدرس";
+        PreprocessedText uncached = PreprocessedText.uncached(page);
+        assertEquals(0, PreprocessedText.size());
+        PreprocessedText cached = PreprocessedText.of(page);
+        assertEquals(cached.getNormalized(), uncached.getNormalized());
+        assertArrayEquals(cached.getTokens(), uncached.getTokens());
+    }
+
+    @Test
+    public void testUncached_EmptyText() {
+        assertEquals(0, PreprocessedText.uncached("").getTokens().length);
+        assertEquals(0, PreprocessedText.uncached("").getNGramCounts().length());
+    }
+}
@@ -1,6 +1,9 @@
 package dal;
 
 import static org.junit.Assert.*;
+
+import java.util.Map;
+
 import org.junit.Before;
 import org.junit.Test;
 
@@ -223,6 +226,86 @@ public class TFIDFCalculatorBoundaryTest {
         assertFalse("Should not be NaN", Double.isNaN(result));
     }
     
+    // ========== TEST CATEGORY: STORED CORPUS STATISTICS ==========
+
+    @Test
+    public void testCalculateTFIDF_FromDocumentFrequenciesMatchesCorpus() {
+        // Boundary: stored df/N statistics give the corpus-based score
+        String[] corpus = { "كتب الطالب الدرس", "قرأ الطالب الكتاب", "كتب المعلم" };
+        String document = "كتب الطالب كتب رسالة";
+        for (String doc : corpus) {
+            calculator.addDocumentToCorpus(doc);
+        }
+
+        Map<String, Integer> counts = DocumentFrequencyIndex.countTerms(document);
+        int[] termCounts = new int[counts.size()];
+        int[] documentFrequencies = new int[counts.size()];
+        int i = 0;
+        for (Map.Entry<String, Integer> entry : counts.entrySet()) {
+            termCounts[i] = entry.getValue();
+            for (String doc : corpus) {
+                if (DocumentFrequencyIndex.countTerms(doc).containsKey(entry.getKey())) {
+                    documentFrequencies[i]++;
+                }
+            }
+            i++;
+        }
+
+        double expected = calculator.calculateDocumentTfIdf(document);
+        double actual = TFIDFCalculator.calculateDocumentTfIdf(termCounts, documentFrequencies, corpus.length,
+                DocumentFrequencyIndex.totalWords(counts));
+        assertEquals(expected, actual, 1e-12);
+    }
+
+    @Test
+    public void testCalculateTFIDF_FromDocumentFrequenciesEmptyDocument() {
+        // Boundary: no words, no division by zero
+        assertEquals(0.0, TFIDFCalculator.calculateDocumentTfIdf(new int[0], new int[0], 5, 0), 0.0);
+    }
+
+    // ========== TEST CATEGORY: CACHED IDF MODEL ==========
+
+    @Test
+    public void testIdfModel_ReusedAcrossDocuments() {
+        // Boundary: scoring many documents against one corpus builds one model
+        calculator.addDocumentToCorpus("كتب الطالب الدرس");
+        calculator.addDocumentToCorpus("قرأ الطالب الكتاب");
+        TFIDFCalculator.IdfModel<String> model = calculator.getIdfModel();
+        calculator.calculateDocumentTfIdf("كتب الطالب");
+        calculator.calculateDocumentTfIdf("قرأ المعلم");
+        assertSame(model, calculator.getIdfModel());
+        assertEquals(2, model.getCorpusSize());
+    }
+
+    @Test
+    public void testIdfModel_InvalidatedOnAddAndRemove() {
+        // Boundary: every corpus change gets a new version, and only then
+        calculator.addDocumentToCorpus("كتب الطالب الدرس");
+        TFIDFCalculator.IdfModel<String> first = calculator.getIdfModel();
+        calculator.addDocumentToCorpus("قرأ الطالب الكتاب");
+        TFIDFCalculator.IdfModel<String> second = calculator.getIdfModel();
+        assertNotSame(first, second);
+        assertTrue(second.getVersion() > first.getVersion());
+
+        assertFalse(calculator.removeDocumentFromCorpus("نص غير موجود"));
+        assertSame(second, calculator.getIdfModel());
+        assertTrue(calculator.removeDocumentFromCorpus("قرأ الطالب الكتاب"));
+        TFIDFCalculator.IdfModel<String> third = calculator.getIdfModel();
+        assertTrue(third.getVersion() > second.getVersion());
+        assertEquals(1, third.getCorpusSize());
+        assertEquals(first.idf("الطالب"), third.idf("الطالب"), 1e-12);
+    }
+
+    @Test
+    public void testIdfModel_UnseenTermGetsSmoothedIdf() {
+        // Boundary: term absent from the corpus, and an empty corpus
+        assertEquals(Math.log(1), calculator.getIdfModel().idf("كلمة"), 1e-12);
+        calculator.addDocumentToCorpus("كتب الطالب");
+        calculator.addDocumentToCorpus("قرأ المعلم");
+        assertEquals(Math.log(3), calculator.getIdfModel().idf("كلمة"), 1e-12);
+        assertEquals(Math.log(2.0 / 2), calculator.getIdfModel().idf("الطالب"), 1e-12);
+    }
+
     // ========== HELPER METHODS ==========
     
     private String generateString(int length) {
@@ -0,0 +1,277 @@
+package dal;
+
+import static org.junit.Assert.*;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.contains;
+import static org.mockito.Mockito.*;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+
+public class TfidfRecomputeJobBoundaryTest {
+
+    private static final String[] CORPUS = { "كتب الطالب الدرس", "قرأ الطالب الكتاب", "كتب المعلم كتب" };
+
+    /** Snapshot of CORPUS as the database would hold it, surfaces numbered by first appearance. */
+    private static TfidfRecomputeJob.CorpusSnapshot snapshot(String... corpus) {
+        Map<String, Integer> tokenIds = new HashMap<>();
+        Map<Integer, Integer> documentFrequencies = new HashMap<>();
+        int[] fileIds = new int[corpus.length];
+        int[][] tokens = new int[corpus.length][];
+        int[][] counts = new int[corpus.length][];
+        for (int d = 0; d < corpus.length; d++) {
+            Map<String, Integer> termCounts = DocumentFrequencyIndex.countTerms(corpus[d]);
+            fileIds[d] = d + 1;
+            tokens[d] = new int[termCounts.size()];
+            counts[d] = new int[termCounts.size()];
+            int i = 0;
+            for (Map.Entry<String, Integer> entry : termCounts.entrySet()) {
+                int tokenId = tokenIds.computeIfAbsent(entry.getKey(), key -> tokenIds.size() + 1);
+                documentFrequencies.merge(tokenId, 1, Integer::sum);
+                tokens[d][i] = tokenId;
+                counts[d][i] = entry.getValue();
+                i++;
+            }
+        }
+        TFIDFCalculator.IdfModel<Integer> idf = TFIDFCalculator.IdfModel.fromDocumentFrequencies(0, corpus.length,
+                documentFrequencies);
+        return new TfidfRecomputeJob.CorpusSnapshot(fileIds, tokens, counts, idf);
+    }
+
+    // ========== TEST CATEGORY: SCORES ==========
+
+    @Test
+    public void testScoreAll_MatchesCorpusCalculator() {
+        // Boundary: parallel scores equal scoring each document against the whole corpus
+        TFIDFCalculator calculator = new TFIDFCalculator();
+        for (String doc : CORPUS) {
+            calculator.addDocumentToCorpus(doc);
+        }
+        double[] scores = TfidfRecomputeJob.scoreAll(snapshot(CORPUS), new ForkJoinPool(2), () -> false).scores;
+        assertEquals(CORPUS.length, scores.length);
+        for (int i = 0; i < CORPUS.length; i++) {
+            assertEquals(calculator.calculateDocumentTfIdf(CORPUS[i]), scores[i], 1e-12);
+        }
+    }
+
+    @Test
+    public void testScoreAll_EmptyCorpusAndEmptyDocument() {
+        // Boundary: no files, and a file with no words
+        assertEquals(0, TfidfRecomputeJob.scoreAll(snapshot(), new ForkJoinPool(1), () -> false).scores.length);
+        TfidfRecomputeJob.Recomputed recomputed = TfidfRecomputeJob.scoreAll(snapshot("", "كتب"), new ForkJoinPool(1),
+                () -> false);
+        assertEquals(0.0, recomputed.scores[0], 0.0);
+        assertEquals(0, recomputed.weights[0].length);
+        assertEquals(0.0, recomputed.norms[0], 0.0);
+    }
+
+    // ========== TEST CATEGORY: VECTORS ==========
+
+    @Test
+    public void testScoreAll_WeightsMatchStoredVectors() {
+        // Boundary: same weights and norm DocumentVectorIndex.putVector writes, from the same snapshot
+        TfidfRecomputeJob.CorpusSnapshot snapshot = snapshot(CORPUS);
+        Map<Integer, Integer> documentFrequencies = new HashMap<>();
+        for (int[] tokens : snapshot.tokenIds) {
+            for (int tokenId : tokens) {
+                documentFrequencies.merge(tokenId, 1, Integer::sum);
+            }
+        }
+        TfidfRecomputeJob.Recomputed recomputed = TfidfRecomputeJob.scoreAll(snapshot, new ForkJoinPool(2), () -> false);
+        for (int d = 0; d < CORPUS.length; d++) {
+            long totalWords = 0;
+            for (int count : snapshot.termCounts[d]) {
+                totalWords += count;
+            }
+            double squaredNorm = 0.0;
+            for (int t = 0; t < snapshot.tokenIds[d].length; t++) {
+                double expected = TFIDFCalculator.termWeight(snapshot.termCounts[d][t],
+                        documentFrequencies.get(snapshot.tokenIds[d][t]), CORPUS.length, totalWords);
+                assertEquals(expected, recomputed.weights[d][t], 1e-12);
+                if (expected > 0) {
+                    squaredNorm += expected * expected;
+                }
+            }
+            assertEquals(Math.sqrt(squaredNorm), recomputed.norms[d], 1e-12);
+        }
+    }
+
+    @Test
+    public void testScoreAll_TermInEveryDocumentLeftOutOfNorm() {
+        // Boundary: a term in every document has a negative IDF and no stored weight
+        TfidfRecomputeJob.Recomputed recomputed = TfidfRecomputeJob.scoreAll(snapshot("كتب", "كتب"),
+                new ForkJoinPool(1), () -> false);
+        assertTrue(recomputed.weights[0][0] < 0);
+        assertEquals(0.0, recomputed.norms[0], 0.0);
+    }
+
+    // ========== TEST CATEGORY: CANCELLATION ==========
+
+    @Test(expected = CancellationException.class)
+    public void testScoreAll_CancelledBeforeStart() {
+        // Boundary: a run cancelled before its first document scores nothing
+        TfidfRecomputeJob.scoreAll(snapshot(CORPUS), new ForkJoinPool(2), () -> true);
+    }
+
+    @Test
+    public void testScoreAll_CancelledPartWay() {
+        // Boundary: cancellation seen between documents stops the run
+        String[] corpus = new String[200];
+        for (int i = 0; i < corpus.length; i++) {
+            corpus[i] = CORPUS[i % CORPUS.length];
+        }
+        AtomicInteger checks = new AtomicInteger();
+        try {
+            TfidfRecomputeJob.scoreAll(snapshot(corpus), new ForkJoinPool(1), () -> checks.incrementAndGet() > 10);
+            fail("Cancelled run should not complete");
+        } catch (CancellationException e) {
+            assertTrue(checks.get() < corpus.length);
+        }
+    }
+
+    /** Rows of the snapshot query for {@code files} files without terms. */
+    private static ResultSet fileRows(int files) throws Exception {
+        ResultSet rs = mock(ResultSet.class);
+        AtomicInteger row = new AtomicInteger();
+        when(rs.next()).thenAnswer(invocation -> row.incrementAndGet() <= files);
+        when(rs.getInt(1)).thenAnswer(invocation -> row.get());
+        when(rs.wasNull()).thenReturn(true);
+        return rs;
+    }
+
+    @Test
+    public void testRun_WritesInChunksAndStopsWhenCancelled() throws Exception {
+        // Boundary: a large corpus is written in several short transactions; a cancel between them stops the rest
+        Connection conn = mock(Connection.class);
+        PreparedStatement stmt = mock(PreparedStatement.class);
+        Statement plainStmt = mock(Statement.class);
+        ResultSet empty = mock(ResultSet.class);
+        when(conn.prepareStatement(anyString())).thenReturn(stmt);
+        when(conn.createStatement()).thenReturn(plainStmt);
+        when(conn.getAutoCommit()).thenReturn(true);
+        when(stmt.executeQuery()).thenReturn(empty);
+        when(stmt.executeBatch()).thenReturn(new int[0]);
+        when(plainStmt.executeQuery(anyString())).thenReturn(empty);
+        ResultSet firstRun = fileRows(250);
+        ResultSet secondRun = fileRows(250);
+        when(plainStmt.executeQuery(contains("FROM files"))).thenReturn(firstRun, secondRun);
+
+        TfidfRecomputeJob job = new TfidfRecomputeJob(conn, new Object(),
+                new DocumentFrequencyIndex(new TokenDictionary()));
+        AtomicInteger commits = new AtomicInteger();
+        doAnswer(invocation -> commits.incrementAndGet()).when(conn).commit();
+        assertTrue(job.run());
+        assertEquals(3, commits.get());
+
+        commits.set(0);
+        doAnswer(invocation -> {
+            if (commits.incrementAndGet() == 1) {
+                job.cancel();
+            }
+            return null;
+        }).when(conn).commit();
+        assertFalse(job.run());
+        assertEquals(1, commits.get());
+    }
+
+    // ========== TEST CATEGORY: SHARED IDF MODEL ==========
+
+    @Test
+    public void testIdfModel_SharedUntilStatisticsChange() throws Exception {
+        // Boundary: the job and stored-score reads get one model until the corpus changes
+        Connection conn = mock(Connection.class);
+        PreparedStatement stmt = mock(PreparedStatement.class);
+        Statement plainStmt = mock(Statement.class);
+        ResultSet rs = mock(ResultSet.class);
+        when(conn.prepareStatement(anyString())).thenReturn(stmt);
+        when(conn.createStatement()).thenReturn(plainStmt);
+        when(stmt.executeQuery()).thenReturn(rs);
+        when(plainStmt.executeQuery(anyString())).thenReturn(rs);
+
+        DocumentFrequencyIndex index = new DocumentFrequencyIndex(new TokenDictionary());
+        TFIDFCalculator.IdfModel<Integer> model = index.getIdfModel(conn);
+        index.scoreDocuments(conn, null);
+        new TfidfRecomputeJob(conn, new Object(), index).run();
+        assertSame(model, index.getIdfModel(conn));
+        verify(plainStmt, times(1)).executeQuery("SELECT tokenId, df FROM document_frequency");
+
+        index.adjustDocumentCount(conn, 1);
+        TFIDFCalculator.IdfModel<Integer> next = index.getIdfModel(conn);
+        assertNotSame(model, next);
+        assertTrue(next.getVersion() > model.getVersion());
+    }
+
+    // ========== TEST CATEGORY: SHARED CONNECTION ==========
+
+    @Test
+    public void testRun_WaitsForUpdateTransaction() throws Exception {
+        // Boundary: a recompute started while an update is mid-transaction commits nothing until it ends
+        Connection conn = mock(Connection.class);
+        PreparedStatement stmt = mock(PreparedStatement.class);
+        Statement plainStmt = mock(Statement.class);
+        ResultSet rs = mock(ResultSet.class);
+        when(stmt.executeQuery()).thenReturn(rs);
+        when(stmt.executeBatch()).thenReturn(new int[0]);
+        when(plainStmt.executeQuery(anyString())).thenReturn(rs);
+        when(conn.createStatement()).thenReturn(plainStmt);
+
+        CountDownLatch updateStarted = new CountDownLatch(1);
+        CountDownLatch releaseUpdate = new CountDownLatch(1);
+        when(conn.prepareStatement(anyString())).thenAnswer(invocation -> {
+            String sql = invocation.getArgument(0);
+            if (sql.startsWith("UPDATE files")) {
+                updateStarted.countDown();
+                releaseUpdate.await(10, TimeUnit.SECONDS);
+            }
+            return stmt;
+        });
+        List<String> events = Collections.synchronizedList(new ArrayList<>());
+        doAnswer(invocation -> events.add(Thread.currentThread().getName() + " commit")).when(conn).commit();
+        doAnswer(invocation -> events.add(Thread.currentThread().getName() + " rollback")).when(conn).rollback();
+        doAnswer(invocation -> events.add(Thread.currentThread().getName() + " autoCommit " + invocation.getArgument(0)))
+                .when(conn).setAutoCommit(anyBoolean());
+
+        EditorDBDAO dao = new EditorDBDAO();
+        dao.conn = conn;
+        TfidfRecomputeJob job = new TfidfRecomputeJob(conn, dao, new DocumentFrequencyIndex(new TokenDictionary()));
+
+        // The page lookup finds nothing, so the update ends in a rollback
+        Thread update = new Thread(() -> dao.updateFileInDB(1, "file", 1, ""), "update");
+        update.start();
+        assertTrue(updateStarted.await(10, TimeUnit.SECONDS));
+
+        FutureTask<Boolean> recompute = new FutureTask<>(job::run);
+        new Thread(recompute, "recompute").start();
+        Thread.sleep(200);
+        assertFalse(recompute.isDone());
+        assertTrue(events.stream().noneMatch(event -> event.startsWith("recompute")));
+
+        releaseUpdate.countDown();
+        assertTrue(recompute.get(10, TimeUnit.SECONDS));
+        update.join(10000);
+
+        List<String> order = new ArrayList<>(events);
+        int updateEnd = order.indexOf("update rollback");
+        assertTrue(updateEnd >= 0);
+        for (int i = 0; i < updateEnd; i++) {
+            assertTrue(order.get(i), order.get(i).startsWith("update"));
+        }
+        assertTrue(order.contains("recompute commit"));
+    }
+}
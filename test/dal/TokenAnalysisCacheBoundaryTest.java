@@ -0,0 +1,99 @@
+package dal;
+
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+
+import java.util.Arrays;
+
+import org.junit.Test;
+
+import dto.TokenAnalysis;
+import net.oujda_nlp_team.AlKhalil2Analyzer;
+
+public class TokenAnalysisCacheBoundaryTest {
+
+    private static TokenAnalysis analysis(String word) {
+        return new TokenAnalysis(word, Arrays.asList("noun"), word, word, word, word);
+    }
+
+    // ========== TEST CATEGORY: HIT / MISS COUNTERS ==========
+
+    @Test
+    public void testGet_EmptyCacheCountsMiss() {
+        // Boundary: lookup in an empty cache
+        TokenAnalysisCache cache = new TokenAnalysisCache(10);
+        assertNull("Empty cache should return null", cache.get("كتاب"));
+        assertEquals(1, cache.getMissCount());
+        assertEquals(0, cache.getHitCount());
+    }
+
+    @Test
+    public void testGet_AfterPutCountsHit() {
+        // Boundary: lookup of a cached token
+        TokenAnalysisCache cache = new TokenAnalysisCache(10);
+        cache.put("كتاب", analysis("كتاب"));
+        assertNotNull("Cached token should be returned", cache.get("كتاب"));
+        assertEquals(1, cache.getHitCount());
+        assertEquals(0, cache.getMissCount());
+    }
+
+    // ========== TEST CATEGORY: SIZE BOUNDARIES ==========
+
+    @Test
+    public void testPut_NeverExceedsMaxEntries() {
+        // Boundary: many more distinct tokens than capacity
+        TokenAnalysisCache cache = new TokenAnalysisCache(20);
+        for (int i = 0; i < 500; i++) {
+            cache.put("token" + i, analysis("token" + i));
+        }
+        assertTrue("Cache should stay bounded", cache.size() <= 20);
+        assertTrue("Evictions should be counted", cache.getEvictionCount() >= 480);
+    }
+
+    @Test
+    public void testPut_ZeroCapacityClampedToOne() {
+        // Boundary: zero capacity
+        TokenAnalysisCache cache = new TokenAnalysisCache(0);
+        cache.put("a", analysis("a"));
+        assertEquals(1, cache.getMaxEntries());
+        assertTrue(cache.size() <= 1);
+    }
+
+    // ========== TEST CATEGORY: FREQUENCY-AWARE EVICTION ==========
+
+    @Test
+    public void testEviction_KeepsFrequentTokens() {
+        // Boundary: hot token must survive a flood of one-off tokens
+        TokenAnalysisCache cache = new TokenAnalysisCache(10);
+        cache.put("في", analysis("في"));
+        for (int i = 0; i < 100; i++) {
+            cache.get("في");
+            cache.put("rare" + i, analysis("rare" + i));
+        }
+        assertNotNull("Frequently used token should not be evicted", cache.get("في"));
+    }
+
+    // ========== TEST CATEGORY: NORMALIZATION ==========
+
+    @Test
+    public void testNormalize_StripsHarakat() {
+        // Boundary: diacritized and plain forms share one key
+        assertEquals(TokenAnalysisCache.normalize("كتاب"), TokenAnalysisCache.normalize("كِتَابٌ"));
+    }
+
+    @Test
+    public void testNormalize_NonArabicTokenKeptAsIs() {
+        // Boundary: token that normalizes to empty
+        assertEquals("abc", TokenAnalysisCache.normalize("abc"));
+    }
+
+    @Test
+    public void testAnalyzeToken_AnalyzerSeesVocalizedWord() {
+        // Boundary: the normalized form is the cache key, not the analyzer input
+        AlKhalil2Analyzer analyzer = mock(AlKhalil2Analyzer.class);
+        String word = "مُتَدَحْرِجَاتٌ";
+        MorphologyAnalyzer.analyzeToken(analyzer, word);
+        verify(analyzer).processToken(word);
+    }
+}
@@ -0,0 +1,98 @@
+package dal;
+
+import static org.junit.Assert.*;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.junit.Test;
+
+import dto.TokenAnalysis;
+
+/**
+ * Boundary and Limit Condition Tests for TokenDictionary (Data Access Layer)
+ * Tests: which analyses are written to token_analysis
+ */
+public class TokenDictionaryBoundaryTest {
+
+    private static TokenAnalysis analysis(String word, String lemma) {
+        return new TokenAnalysis(word, Collections.singletonList("Noun"), lemma, "كتب", "كتاب", "ال+كتاب");
+    }
+
+    private static TokenAnalysis notAnalyzed(String word) {
+        String none = MorphologyAnalyzer.NOT_ANALYZED;
+        return new TokenAnalysis(word, Collections.singletonList(none), none, none, none, none);
+    }
+
+    private static MorphologyBatch batch(Map<String, TokenAnalysis> analyses) {
+        return MorphologyBatch.of(analyses.keySet().toArray(new String[0]), analyses);
+    }
+
+    // ========== TEST CATEGORY: SKIPPED TOKENS ==========
+
+    @Test
+    public void testWriteAnalyses_NotAnalyzedTokenNotWritten() throws Exception {
+        // Boundary: a token skipped by the analyzer leaves no row and is written once analyzed
+        Connection conn = mock(Connection.class);
+        PreparedStatement stmt = mock(PreparedStatement.class);
+        when(conn.prepareStatement(anyString())).thenReturn(stmt);
+        TokenDictionary dictionary = new TokenDictionary();
+        Map<String, Integer> ids = new HashMap<>();
+        ids.put("الكتاب", 1);
+        ids.put("القلم", 2);
+
+        Map<String, TokenAnalysis> first = new LinkedHashMap<>();
+        first.put("الكتاب", analysis("الكتاب", "كتاب"));
+        first.put("القلم", notAnalyzed("القلم"));
+        dictionary.writeAnalyses(conn, ids, batch(first));
+        verify(stmt).setInt(1, 1);
+        verify(stmt, never()).setInt(1, 2);
+        verify(stmt, times(1)).addBatch();
+
+        Map<String, TokenAnalysis> second = new LinkedHashMap<>();
+        second.put("الكتاب", analysis("الكتاب", "كتاب"));
+        second.put("القلم", analysis("القلم", "قلم"));
+        dictionary.writeAnalyses(conn, ids, batch(second));
+        verify(stmt).setInt(1, 2);
+        verify(stmt).setString(3, "قلم");
+        verify(stmt, times(2)).addBatch();
+    }
+
+    @Test
+    public void testWriteAnalyses_OnlyNotAnalyzedExecutesNothing() throws Exception {
+        // Boundary: batch made up entirely of skipped tokens
+        Connection conn = mock(Connection.class);
+        PreparedStatement stmt = mock(PreparedStatement.class);
+        when(conn.prepareStatement(anyString())).thenReturn(stmt);
+        Map<String, TokenAnalysis> analyses = new LinkedHashMap<>();
+        analyses.put("القلم", notAnalyzed("القلم"));
+
+        new TokenDictionary().writeAnalyses(conn, Collections.singletonMap("القلم", 2), batch(analyses));
+        verify(stmt, never()).setInt(eq(1), anyInt());
+        verify(stmt, never()).executeBatch();
+    }
+
+    @Test
+    public void testWriteAnalyses_ReplacesStoredPlaceholder() throws Exception {
+        // Boundary: rows written as "Not analyzed" before this change are overwritten
+        Connection conn = mock(Connection.class);
+        PreparedStatement stmt = mock(PreparedStatement.class);
+        when(conn.prepareStatement(anyString())).thenReturn(stmt);
+        Map<String, TokenAnalysis> analyses = new LinkedHashMap<>();
+        analyses.put("الكتاب", analysis("الكتاب", "كتاب"));
+
+        new TokenDictionary().writeAnalyses(conn, Collections.singletonMap("الكتاب", 1), batch(analyses));
+        verify(conn).prepareStatement(argThat(sql -> sql.contains("ON DUPLICATE KEY UPDATE")
+                && sql.trim().endsWith("lemma = IF(lemma = ?, VALUES(lemma), lemma)")));
+        verify(stmt).setString(11, MorphologyAnalyzer.NOT_ANALYZED);
+        verify(stmt).executeBatch();
+    }
+}
@@ -5,34 +5,71 @@ import org.junit.runners.Suite;
 import org.junit.runners.Suite.SuiteClasses;
 
 import bll.EditorBOBoundaryTest;
+import bll.SearchIndexBoundaryTest;
 import bll.SearchWordBoundaryTest;
 import dal.EditorDBDAOBoundaryTest;
 import dal.PMICalculatorBoundaryTest;
 import dal.PKLCalculatorBoundaryTest;
 import dal.TFIDFCalculatorBoundaryTest;
+import dal.MorphologyLexiconBoundaryTest;
+import dal.AffixTrieBoundaryTest;
+import dal.ArabicNormalizerBoundaryTest;
+import dal.PageStreamBoundaryTest;
+import dal.PaginationDAOBoundaryTest;
+import dal.DocumentVectorIndexBoundaryTest;
+import dal.TfidfRecomputeJobBoundaryTest;
+import dal.NGramCountsBoundaryTest;
+import dal.CorpusNGramIndexBoundaryTest;
+import dal.AnalyzerWarmupBoundaryTest;
+import dal.AnalyzerGuardBoundaryTest;
+import dal.LatencyHistogramBoundaryTest;
+import dal.TokenDictionaryBoundaryTest;
+import dal.PreprocessedTextBoundaryTest;
+import dal.TokenAnalysisCacheBoundaryTest;
 import integration.LayerIntegrationBoundaryTest;
+import util.TokenizerBoundaryTest;
 
 /**
  * Master Test Suite - Runs all boundary and limit condition tests
  * 
  * Test Categories:
- * 1. Business Logic Layer (BLL) - 2 test classes
- * 2. Data Access Layer (DAL) - 4 test classes
- * 3. Integration Tests - 1 test class
+ * 1. Business Logic Layer (BLL) - 3 test classes
+ * 2. Data Access Layer (DAL) - 19 test classes
+ * 3. Utilities - 1 test class
+ * 4. Integration Tests - 1 test class
  * 
- * Total: 7 test classes, 200+ individual test methods
+ * Total: 24 test classes, 200+ individual test methods
  */
 @RunWith(Suite.class)
 @SuiteClasses({
     // BLL Tests
     EditorBOBoundaryTest.class,
     SearchWordBoundaryTest.class,
+    SearchIndexBoundaryTest.class,
     
     // DAL Tests
     EditorDBDAOBoundaryTest.class,
     TFIDFCalculatorBoundaryTest.class,
     PMICalculatorBoundaryTest.class,
     PKLCalculatorBoundaryTest.class,
+    TokenAnalysisCacheBoundaryTest.class,
+    MorphologyLexiconBoundaryTest.class,
+    AffixTrieBoundaryTest.class,
+    ArabicNormalizerBoundaryTest.class,
+    PageStreamBoundaryTest.class,
+    PaginationDAOBoundaryTest.class,
+    DocumentVectorIndexBoundaryTest.class,
+    TfidfRecomputeJobBoundaryTest.class,
+    NGramCountsBoundaryTest.class,
+    CorpusNGramIndexBoundaryTest.class,
+    AnalyzerWarmupBoundaryTest.class,
+    AnalyzerGuardBoundaryTest.class,
+    LatencyHistogramBoundaryTest.class,
+    TokenDictionaryBoundaryTest.class,
+    PreprocessedTextBoundaryTest.class,
+    
+    // Utility Tests
+    TokenizerBoundaryTest.class,
     
     // Integration Tests
     LayerIntegrationBoundaryTest.class
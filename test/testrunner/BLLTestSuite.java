@@ -5,6 +5,7 @@ import org.junit.runners.Suite;
 import org.junit.runners.Suite.SuiteClasses;
 
 import bll.EditorBOBoundaryTest;
+import bll.SearchIndexBoundaryTest;
 import bll.SearchWordBoundaryTest;
 
 /**
@@ -14,7 +15,8 @@ import bll.SearchWordBoundaryTest;
 @RunWith(Suite.class)
 @SuiteClasses({
     EditorBOBoundaryTest.class,
-    SearchWordBoundaryTest.class
+    SearchWordBoundaryTest.class,
+    SearchIndexBoundaryTest.class
 })
 public class BLLTestSuite {
     // Empty class - suite configuration only
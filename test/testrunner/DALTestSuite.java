@@ -8,6 +8,21 @@ import dal.EditorDBDAOBoundaryTest;
 import dal.PMICalculatorBoundaryTest;
 import dal.PKLCalculatorBoundaryTest;
 import dal.TFIDFCalculatorBoundaryTest;
+import dal.MorphologyLexiconBoundaryTest;
+import dal.AffixTrieBoundaryTest;
+import dal.ArabicNormalizerBoundaryTest;
+import dal.PageStreamBoundaryTest;
+import dal.PaginationDAOBoundaryTest;
+import dal.DocumentVectorIndexBoundaryTest;
+import dal.TfidfRecomputeJobBoundaryTest;
+import dal.NGramCountsBoundaryTest;
+import dal.CorpusNGramIndexBoundaryTest;
+import dal.AnalyzerWarmupBoundaryTest;
+import dal.AnalyzerGuardBoundaryTest;
+import dal.LatencyHistogramBoundaryTest;
+import dal.TokenDictionaryBoundaryTest;
+import dal.PreprocessedTextBoundaryTest;
+import dal.TokenAnalysisCacheBoundaryTest;
 
 /**
  * Data Access Layer Test Suite
@@ -18,7 +33,22 @@ import dal.TFIDFCalculatorBoundaryTest;
     EditorDBDAOBoundaryTest.class,
     TFIDFCalculatorBoundaryTest.class,
     PMICalculatorBoundaryTest.class,
-    PKLCalculatorBoundaryTest.class
+    PKLCalculatorBoundaryTest.class,
+    TokenAnalysisCacheBoundaryTest.class,
+    MorphologyLexiconBoundaryTest.class,
+    AffixTrieBoundaryTest.class,
+    ArabicNormalizerBoundaryTest.class,
+    PageStreamBoundaryTest.class,
+    PaginationDAOBoundaryTest.class,
+    DocumentVectorIndexBoundaryTest.class,
+    TfidfRecomputeJobBoundaryTest.class,
+    NGramCountsBoundaryTest.class,
+    CorpusNGramIndexBoundaryTest.class,
+    AnalyzerWarmupBoundaryTest.class,
+    AnalyzerGuardBoundaryTest.class,
+    LatencyHistogramBoundaryTest.class,
+    TokenDictionaryBoundaryTest.class,
+    PreprocessedTextBoundaryTest.class
 })
 public class DALTestSuite {
     // Empty class - suite configuration only
@@ -0,0 +1,73 @@
+package util;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+public class TokenizerBoundaryTest {
+
+    // ========== TEST CATEGORY: EMPTY INPUT ==========
+
+    @Test
+    public void testTokens_EmptyAndNullText() {
+        // Boundary: nothing to tokenize
+        assertEquals(0, Tokenizer.tokens("").length);
+        assertEquals(0, Tokenizer.tokens(null).length);
+        assertEquals(0, Tokenizer.count(""));
+    }
+
+    @Test
+    public void testTokens_WhitespaceOnly() {
+        // Boundary: only separators
+        assertEquals(0, Tokenizer.tokens("   \t\n\r\f\u000B ").length);
+    }
+
+    // ========== TEST CATEGORY: SEPARATORS ==========
+
+    @Test
+    public void testTokens_NoLeadingEmptyToken() {
+        // Boundary: leading and trailing whitespace, unlike split("\\s+")
+        assertArrayEquals(new String[] { "كتاب", "قلم" }, Tokenizer.tokens("  كتاب \n\t قلم  "));
+    }
+
+    @Test
+    public void testTokens_MatchesSplitForTrimmedText() {
+        // Boundary: same tokens as the regex for ordinary text
+        String text = "بسم الله\tالرحمن\r\nالرحيم";
+        assertArrayEquals(text.split("\\s+"), Tokenizer.tokens(text));
+    }
+
+    @Test
+    public void testTokens_NonBreakingSpaceIsNotSeparator() {
+        // Boundary: \s does not include U+00A0
+        assertEquals(1, Tokenizer.count("a b"));
+    }
+
+    // ========== TEST CATEGORY: OFFSETS ==========
+
+    @Test
+    public void testNext_OffsetsPointIntoText() {
+        // Boundary: offsets of the second token
+        Tokenizer tokenizer = new Tokenizer(" ab  cde");
+        assertTrue(tokenizer.next());
+        assertTrue(tokenizer.next());
+        assertEquals(5, tokenizer.start());
+        assertEquals(8, tokenizer.end());
+        assertEquals(3, tokenizer.tokenLength());
+        assertFalse(tokenizer.next());
+    }
+
+    @Test
+    public void testTokenEquals_IgnoreCase() {
+        // Boundary: case-insensitive comparison on String and StringBuilder input
+        Tokenizer tokenizer = new Tokenizer("Hello world");
+        tokenizer.next();
+        assertTrue(tokenizer.tokenEquals("hello", true));
+        assertFalse(tokenizer.tokenEquals("hello", false));
+        assertFalse(tokenizer.tokenEquals("hell", true));
+
+        tokenizer.reset(new StringBuilder("Hello"));
+        tokenizer.next();
+        assertTrue(tokenizer.tokenEquals("HELLO", true));
+    }
+}